@@ -0,0 +1,24 @@
+package org.iscalon.demo_batch.chunk;
+
+import org.springframework.batch.infrastructure.repeat.RepeatContext;
+import org.springframework.batch.infrastructure.repeat.policy.SimpleCompletionPolicy;
+
+/**
+ * Politique de commit dont la taille est relue auprès du {@link ChunkSizeController} au début de
+ * chaque chunk.
+ */
+public class ChunkSizeCompletionPolicy extends SimpleCompletionPolicy {
+
+  private final ChunkSizeController controller;
+
+  public ChunkSizeCompletionPolicy(ChunkSizeController controller) {
+    super(controller.chunkSize());
+    this.controller = controller;
+  }
+
+  @Override
+  public RepeatContext start(RepeatContext context) {
+    setChunkSize(controller.chunkSize());
+    return super.start(context);
+  }
+}
@@ -0,0 +1,118 @@
+package org.iscalon.demo_batch.chunk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.listener.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+/**
+ * Taille de chunk d'une exécution d'étape, partagée par la politique de commit et le lecteur (qui
+ * charge des pages de la même taille).
+ *
+ * <p>En mode adaptatif, la taille est réglée après chaque chunk selon le principe AIMD : elle
+ * augmente d'un pas fixe tant que le chunk reste sous la latence cible et que son débit (éléments
+ * par seconde) ne chute pas, et elle est divisée par deux dans le cas contraire. Elle reste
+ * comprise entre {@code minChunkSize} et {@code maxChunkSize}. Chaque partition règle sa propre
+ * taille. Le réglage passe par la politique de commit de l'étape à tasklet, seule à relire la
+ * taille à chaque chunk.
+ */
+@Slf4j
+public class ChunkSizeController implements ChunkListener {
+
+  /** Chute de débit, par rapport à la moyenne récente, considérée comme une saturation. */
+  private static final double THROUGHPUT_DROP_TOLERANCE = 0.2;
+
+  /** Poids du dernier chunk dans la moyenne glissante du débit. */
+  private static final double THROUGHPUT_SMOOTHING = 0.3;
+
+  private final boolean adaptive;
+  private final int minChunkSize;
+  private final int maxChunkSize;
+  private final int increment;
+  private final long targetLatencyNanos;
+
+  private int chunkSize;
+  private long chunkStart;
+  private long lastWriteCount;
+  private double averageThroughput;
+
+  /** Visible pour le proxy de portée « step » : passer par {@link #fixed} ou {@link #adaptive}. */
+  protected ChunkSizeController(
+      boolean adaptive, int chunkSize, int minChunkSize, int maxChunkSize, long targetLatencyMs) {
+    if (minChunkSize < 1 || minChunkSize > chunkSize || chunkSize > maxChunkSize) {
+      throw new IllegalArgumentException(
+          "Tailles de chunk incohérentes : min %d, initiale %d, max %d"
+              .formatted(minChunkSize, chunkSize, maxChunkSize));
+    }
+    this.adaptive = adaptive;
+    this.chunkSize = chunkSize;
+    this.minChunkSize = minChunkSize;
+    this.maxChunkSize = maxChunkSize;
+    this.increment = Math.max(1, chunkSize / 10);
+    this.targetLatencyNanos = targetLatencyMs * 1_000_000;
+  }
+
+  public static ChunkSizeController fixed(int chunkSize) {
+    return new ChunkSizeController(false, chunkSize, chunkSize, chunkSize, 0);
+  }
+
+  public static ChunkSizeController adaptive(
+      int initialChunkSize, int minChunkSize, int maxChunkSize, long targetLatencyMs) {
+    return new ChunkSizeController(
+        true, initialChunkSize, minChunkSize, maxChunkSize, targetLatencyMs);
+  }
+
+  public int chunkSize() {
+    return chunkSize;
+  }
+
+  @Override
+  @SuppressWarnings({"deprecation", "removal"})
+  public void beforeChunk(ChunkContext context) {
+    chunkStart = System.nanoTime();
+  }
+
+  @Override
+  @SuppressWarnings({"deprecation", "removal"})
+  public void afterChunk(ChunkContext context) {
+    long writeCount = context.getStepContext().getStepExecution().getWriteCount();
+    if (adaptive) {
+      adjust(System.nanoTime() - chunkStart, writeCount - lastWriteCount);
+    }
+    lastWriteCount = writeCount;
+  }
+
+  void adjust(long elapsedNanos, long itemCount) {
+    if (itemCount == 0 || elapsedNanos <= 0) {
+      return;
+    }
+    double throughput = itemCount * 1e9 / elapsedNanos;
+    boolean saturated =
+        elapsedNanos > targetLatencyNanos
+            || (averageThroughput > 0
+                && throughput < (1 - THROUGHPUT_DROP_TOLERANCE) * averageThroughput);
+
+    int previousSize = chunkSize;
+    if (saturated) {
+      chunkSize = Math.max(minChunkSize, chunkSize / 2);
+      // La moyenne repart du débit observé à la nouvelle taille
+      averageThroughput = throughput;
+    } else {
+      chunkSize = Math.min(maxChunkSize, chunkSize + increment);
+      averageThroughput =
+          averageThroughput == 0
+              ? throughput
+              : THROUGHPUT_SMOOTHING * throughput
+                  + (1 - THROUGHPUT_SMOOTHING) * averageThroughput;
+    }
+
+    if (chunkSize != previousSize) {
+      log.debug(
+          "Taille de chunk {} -> {} ({} éléments en {} ms, {} éléments/s)",
+          previousSize,
+          chunkSize,
+          itemCount,
+          elapsedNanos / 1_000_000,
+          Math.round(throughput));
+    }
+  }
+}
@@ -1,127 +1,527 @@
 package org.iscalon.demo_batch.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.chunk.ChunkSizeCompletionPolicy;
+import org.iscalon.demo_batch.chunk.ChunkSizeController;
 import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.metrics.BatchMetrics;
+import org.iscalon.demo_batch.metrics.ChunkMetricsListener;
+import org.iscalon.demo_batch.metrics.JobMetricsSummaryListener;
+import org.iscalon.demo_batch.metrics.PartitionMetrics;
 import org.iscalon.demo_batch.out.repository.CalculRepository;
+import org.iscalon.demo_batch.out.repository.DocumentDataRepository;
+import org.iscalon.demo_batch.out.repository.SourceDataStatusRepository;
+import org.iscalon.demo_batch.out.repository.UserFingerprintRepository;
 import org.iscalon.demo_batch.out.storedprocedure.PourAppelerStoredProcedure;
+import org.iscalon.demo_batch.partition.RemotePartitionHandlers;
+import org.iscalon.demo_batch.partition.UserPartition;
 import org.iscalon.demo_batch.partition.UserPartitioner;
+import org.iscalon.demo_batch.partition.UserPartitioning;
+import org.iscalon.demo_batch.partition.UserRangePartitioner;
+import org.iscalon.demo_batch.partition.UserRangeQueue;
+import org.iscalon.demo_batch.partition.UserRangeQueuePartitioner;
+import org.iscalon.demo_batch.partition.UserRowCounts;
+import org.iscalon.demo_batch.reader.FingerprintingUserLoadingStrategy;
+import org.iscalon.demo_batch.reader.TimedUserLoadingStrategy;
+import org.iscalon.demo_batch.reader.UnchangedUserSkippingReader;
 import org.iscalon.demo_batch.reader.UserDocumentsPagingReader;
+import org.iscalon.demo_batch.reader.UserDocumentsStreamingReader;
+import org.iscalon.demo_batch.reader.UserLoadingStrategies;
 import org.iscalon.demo_batch.reader.UserLoadingStrategy;
-import org.iscalon.demo_batch.tasklet.StoredProcedureTasklet;
+import org.iscalon.demo_batch.reader.UserRangeQueueReader;
+import org.iscalon.demo_batch.reader.UserReaderMode;
+import org.iscalon.demo_batch.tasklet.RunningTotalProcedure;
+import org.iscalon.demo_batch.tasklet.UserBucketProcedure;
 import org.iscalon.demo_batch.writer.CalculationWriter;
+import org.iscalon.demo_batch.writer.ChunkCalculators;
+import org.iscalon.demo_batch.writer.ResultWriteMode;
+import org.springframework.batch.core.configuration.annotation.JobScope;
 import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.Job;
+import org.springframework.batch.core.job.JobExecution;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
 import org.springframework.batch.core.job.parameters.RunIdIncrementer;
+import org.springframework.batch.core.partition.PartitionHandler;
 import org.springframework.batch.core.partition.Partitioner;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.StepExecution;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.infrastructure.item.ItemReader;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+import org.springframework.batch.infrastructure.repeat.CompletionPolicy;
+import org.springframework.batch.infrastructure.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+@Slf4j
 @Configuration
 class BatchConfig {
 
-  private static final int PARTITION_COUNT = 10;
+  /** Nombre de partitions par défaut (paramètre de job {@code gridSize}) */
+  private static final int DEFAULT_GRID_SIZE = 10;
 
-  /** Nombre maximum d'utilisateurs traités par 1 thread */
-  private static final int CHUNK_SIZE = 500;
+  /**
+   * Nombre maximum d'utilisateurs traités par 1 thread et par transaction, par défaut (paramètre
+   * de job {@code chunkSize})
+   */
+  private static final int DEFAULT_CHUNK_SIZE = 500;
+
+  /** Clé de l'étape worker dont la taille de chunk est réglée à chaque chunk */
+  private static final int ADAPTIVE_CHUNK_SIZE = 0;
+
+  /** Bornes par défaut de la taille de chunk adaptative */
+  private static final int DEFAULT_MIN_CHUNK_SIZE = 50;
+
+  private static final int DEFAULT_MAX_CHUNK_SIZE = 5_000;
+
+  /** Latence de chunk visée par défaut par la taille adaptative */
+  private static final long DEFAULT_TARGET_CHUNK_LATENCY_MS = 2_000;
+
+  /** Nombre d'intervalles par worker placés dans la file du découpage dynamique */
+  private static final int QUEUE_RANGES_PER_WORKER = 8;
+
+  /** Nombre de lignes rapatriées par aller-retour lorsque le curseur de lecture est utilisé */
+  private static final int FETCH_SIZE = 5_000;
 
   @Bean
   Job userCalculationJob(
       JobRepository jobRepository,
       SingleExecutionJobExecutionListener listener,
-      Step prepareInputDataStep,
-      Step enrichInputDataStep,
-      Step partitionedUserCalculationStep) {
+      JobMetricsSummaryListener metricsSummaryListener,
+      UserCalculationJobParametersValidator parametersValidator,
+      Flow preparationFlow,
+      Step userBucketStep,
+      CalculationEngineDecider calculationEngineDecider,
+      Step partitionedUserCalculationStep,
+      Step partitionedSqlCalculationStep) {
     return new JobBuilder("userCalculationJob", jobRepository)
         .incrementer(new RunIdIncrementer())
+        .validator(parametersValidator)
         .listener(listener)
-        .start(prepareInputDataStep)
-        .next(enrichInputDataStep)
-        .next(partitionedUserCalculationStep)
+        .listener(metricsSummaryListener)
+        .start(preparationFlow)
+        .next(userBucketStep)
+        .next(calculationEngineDecider)
+        .on(CalculationEngine.SQL.name())
+        .to(partitionedSqlCalculationStep)
+        .from(calculationEngineDecider)
+        .on("*")
+        .to(partitionedUserCalculationStep)
+        .end()
         .build();
   }
 
   @Bean
-  Step prepareInputDataStep(
+  Step partitionedUserCalculationStep(
       JobRepository jobRepository,
-      PlatformTransactionManager transactionManager,
-      PourAppelerStoredProcedure service) {
-    return new StepBuilder("prepareInputDataStep", jobRepository)
-        .tasklet(new StoredProcedureTasklet(service, "PROC_INIT_1"), transactionManager)
+      Partitioner userPartitioner,
+      PartitionHandler userPartitionHandler) {
+    return new StepBuilder("partitionedUserCalculationStep", jobRepository)
+        .partitioner("userCalculationWorkerStep", userPartitioner)
+        .partitionHandler(userPartitionHandler)
+        .build();
+  }
+
+  /**
+   * Le nombre de partitions et l'exécuteur sont choisis à chaque lancement : le handler est
+   * résolu sur le thread du job, avant la création des partitions.
+   *
+   * <p>Avec {@code remote=true}, les partitions sont publiées dans la table {@code partition_work}
+   * et exécutées par des processus workers ({@code demo-batch.remote.worker.enabled=true}) au lieu
+   * de {@code batchTaskExecutor}.
+   */
+  @Bean
+  @JobScope
+  PartitionHandler userPartitionHandler(
+      Step userCalculationWorkerStep,
+      @Value("#{jobParameters['gridSize'] ?: " + DEFAULT_GRID_SIZE + "}") int gridSize,
+      @Value("#{jobParameters['remote'] ?: false}") boolean remote,
+      RemotePartitionHandlers remoteHandlers,
+      @Qualifier("batchTaskExecutor") TaskExecutor batchTaskExecutor) {
+    if (remote) {
+      return remoteHandlers.forStep(userCalculationWorkerStep, gridSize);
+    }
+    return partitionHandler(userCalculationWorkerStep, gridSize, batchTaskExecutor);
+  }
+
+  private static PartitionHandler partitionHandler(
+      Step workerStep, int gridSize, TaskExecutor taskExecutor) {
+    TaskExecutorPartitionHandler handler = new TaskExecutorPartitionHandler();
+    handler.setStep(workerStep);
+    handler.setGridSize(gridSize);
+    handler.setTaskExecutor(taskExecutor);
+    return handler;
+  }
+
+  /**
+   * Variante ensembliste ({@code engine=SQL}) : mêmes partitions, mais chaque partition est
+   * calculée par la base en un seul ordre, sans lecture des utilisateurs.
+   */
+  @Bean
+  Step partitionedSqlCalculationStep(
+      JobRepository jobRepository,
+      Partitioner userPartitioner,
+      PartitionHandler sqlPartitionHandler) {
+    return new StepBuilder("partitionedSqlCalculationStep", jobRepository)
+        .partitioner("sqlCalculationWorkerStep", userPartitioner)
+        .partitionHandler(sqlPartitionHandler)
         .build();
   }
 
   @Bean
-  Step enrichInputDataStep(
+  @JobScope
+  PartitionHandler sqlPartitionHandler(
+      Step sqlCalculationWorkerStep,
+      @Value("#{jobParameters['gridSize'] ?: " + DEFAULT_GRID_SIZE + "}") int gridSize,
+      @Value("#{jobParameters['remote'] ?: false}") boolean remote,
+      RemotePartitionHandlers remoteHandlers,
+      @Qualifier("batchTaskExecutor") TaskExecutor batchTaskExecutor) {
+    if (remote) {
+      return remoteHandlers.forStep(sqlCalculationWorkerStep, gridSize);
+    }
+    return partitionHandler(sqlCalculationWorkerStep, gridSize, batchTaskExecutor);
+  }
+
+  @Bean
+  Step sqlCalculationWorkerStep(
       JobRepository jobRepository,
       PlatformTransactionManager transactionManager,
-      PourAppelerStoredProcedure service) {
-    return new StepBuilder("enrichInputDataStep", jobRepository)
-        .tasklet(new StoredProcedureTasklet(service, "PROC_INIT_2"), transactionManager)
+      @Qualifier("sqlCalculationTasklet") Tasklet sqlCalculationTasklet) {
+    return new StepBuilder("sqlCalculationWorkerStep", jobRepository)
+        .tasklet(sqlCalculationTasklet, transactionManager)
         .build();
   }
 
+  @Bean(name = "sqlCalculationTasklet")
+  @StepScope
+  Tasklet sqlCalculationTasklet(
+      PourAppelerStoredProcedure service,
+      @Value("#{stepExecution}") StepExecution stepExecution) {
+    return RunningTotalProcedure.tasklet(
+        service, UserPartition.from(stepExecution.getExecutionContext()));
+  }
+
   @Bean
-  Step partitionedUserCalculationStep(
+  Step userBucketStep(
       JobRepository jobRepository,
-      Step userCalculationWorkerStep,
-      Partitioner userPartitioner,
-      TaskExecutor batchTaskExecutor) {
-    return new StepBuilder("partitionedUserCalculationStep", jobRepository)
-        .partitioner("userCalculationWorkerStep", userPartitioner)
-        .step(userCalculationWorkerStep)
-        .gridSize(PARTITION_COUNT)
-        .taskExecutor(batchTaskExecutor)
+      PlatformTransactionManager transactionManager,
+      @Qualifier("userBucketTasklet") Tasklet userBucketTasklet) {
+    return new StepBuilder("userBucketStep", jobRepository)
+        .tasklet(userBucketTasklet, transactionManager)
         .build();
   }
 
+  /**
+   * Répartition matérialisée des utilisateurs en {@code gridSize} buckets, uniquement pour le
+   * chargement {@code BUCKET_LOADER} : les autres chargements n'en ont pas l'usage.
+   */
+  @Bean(name = "userBucketTasklet")
+  @StepScope
+  Tasklet userBucketTasklet(
+      PourAppelerStoredProcedure service,
+      @Value("#{jobParameters['loader'] ?: '" + UserLoadingStrategies.DEFAULT_KEY + "'}")
+          String loader,
+      @Value("#{jobParameters['gridSize'] ?: " + DEFAULT_GRID_SIZE + "}") int gridSize) {
+    if (!UserLoadingStrategies.BUCKET_KEY.equals(loader)) {
+      return (contribution, chunkContext) -> RepeatStatus.FINISHED;
+    }
+    return UserBucketProcedure.tasklet(service, gridSize);
+  }
+
+  /**
+   * Étape orientée chunk de Spring Batch 6, construite à la première exécution pour chaque taille
+   * de chunk ({@code chunkSize}), cette taille étant fixée à la construction.
+   *
+   * <p>La taille adaptative ({@code adaptiveChunkSize=true}) change d'un chunk à l'autre, ce que
+   * seule la politique de commit de l'ancienne étape à tasklet permet : elle reste donc sur ce
+   * chemin, dépréciée par Spring Batch 6, en attendant un équivalent.
+   */
   @Bean
   Step userCalculationWorkerStep(
       JobRepository jobRepository,
-      @Qualifier("userDocumentsReader") ItemReader<UserWorkUnit> userDocumentsReader,
-      CalculationWriter calculationWriter) {
-    return new StepBuilder("userCalculationWorkerStep", jobRepository)
-        .<UserWorkUnit, UserWorkUnit>chunk(CHUNK_SIZE)
-        .reader(userDocumentsReader)
-        .writer(calculationWriter)
+      PlatformTransactionManager transactionManager,
+      @Qualifier("userChunkCompletionPolicy") CompletionPolicy userChunkCompletionPolicy,
+      @Qualifier("userDocumentsReader") ItemStreamReader<UserWorkUnit> userDocumentsReader,
+      CalculationWriter calculationWriter,
+      ChunkMetricsListener chunkMetricsListener,
+      ChunkSizeController chunkSizeController) {
+    String name = "userCalculationWorkerStep";
+    return new ParameterBoundStep<Integer>(
+        name,
+        parameters ->
+            JobParameterValues.booleanValue(parameters, "adaptiveChunkSize")
+                ? ADAPTIVE_CHUNK_SIZE
+                : JobParameterValues.intValue(parameters, "chunkSize", DEFAULT_CHUNK_SIZE),
+        chunkSize ->
+            chunkSize == ADAPTIVE_CHUNK_SIZE
+                ? adaptiveChunkStep(
+                    new StepBuilder(name, jobRepository),
+                    transactionManager,
+                    userChunkCompletionPolicy,
+                    userDocumentsReader,
+                    calculationWriter,
+                    chunkMetricsListener,
+                    chunkSizeController)
+                : new StepBuilder(name, jobRepository)
+                    .<UserWorkUnit, UserWorkUnit>chunk(chunkSize)
+                    .transactionManager(transactionManager)
+                    .reader(userDocumentsReader)
+                    .writer(calculationWriter)
+                    .listener(calculationWriter)
+                    .listener(chunkMetricsListener)
+                    .build());
+  }
+
+  @SuppressWarnings({"deprecation", "removal"})
+  private static Step adaptiveChunkStep(
+      StepBuilder stepBuilder,
+      PlatformTransactionManager transactionManager,
+      CompletionPolicy completionPolicy,
+      ItemStreamReader<UserWorkUnit> reader,
+      CalculationWriter writer,
+      ChunkMetricsListener chunkMetricsListener,
+      ChunkSizeController chunkSizeController) {
+    return stepBuilder
+        .<UserWorkUnit, UserWorkUnit>chunk(completionPolicy, transactionManager)
+        .reader(reader)
+        .writer(writer)
+        .listener(writer)
+        .listener(chunkMetricsListener)
+        .listener(chunkSizeController)
         .build();
   }
 
   @Bean
-  Partitioner userPartitioner() {
-    return new UserPartitioner(PARTITION_COUNT);
+  @StepScope
+  ChunkMetricsListener chunkMetricsListener(
+      BatchMetrics metrics, @Value("#{stepExecution}") StepExecution stepExecution) {
+    return new ChunkMetricsListener(metrics.forStep(stepExecution.getStepName()));
+  }
+
+  @Bean
+  @JobScope
+  Partitioner userPartitioner(
+      @Value("#{jobParameters['partitioning'] ?: 'HASH'}") UserPartitioning partitioning,
+      @Value("#{jobParameters['gridSize'] ?: " + DEFAULT_GRID_SIZE + "}") int gridSize,
+      @Value("#{jobExecution}") JobExecution jobExecution,
+      UserRowCounts userRowCounts,
+      UserRangeQueue userRangeQueue) {
+    // Sans mode pipeline : refusé au lancement par UserCalculationJobParametersValidator
+    return switch (partitioning) {
+      case HASH -> new UserPartitioner(gridSize);
+      case RANGE -> new UserRangePartitioner(userRowCounts, gridSize);
+      // Une file par instance : une reprise retrouve les intervalles restants
+      case QUEUE ->
+          new UserRangeQueuePartitioner(
+              userRowCounts,
+              userRangeQueue,
+              jobExecution.getJobInstance().getId(),
+              gridSize,
+              gridSize * QUEUE_RANGES_PER_WORKER);
+    };
+  }
+
+  /**
+   * Taille de chunk de chaque exécution de l'étape worker : fixe ({@code chunkSize}), ou ajustée
+   * au fil des chunks entre {@code minChunkSize} et {@code maxChunkSize} lorsque {@code
+   * adaptiveChunkSize} est activé, en visant une latence de chunk de {@code targetChunkLatencyMs}.
+   */
+  @Bean
+  @StepScope
+  ChunkSizeController chunkSizeController(
+      @Value("#{jobParameters['chunkSize'] ?: " + DEFAULT_CHUNK_SIZE + "}") int chunkSize,
+      @Value("#{jobParameters['adaptiveChunkSize'] ?: false}") boolean adaptive,
+      @Value("#{jobParameters['minChunkSize'] ?: " + DEFAULT_MIN_CHUNK_SIZE + "}") int minSize,
+      @Value("#{jobParameters['maxChunkSize'] ?: " + DEFAULT_MAX_CHUNK_SIZE + "}") int maxSize,
+      @Value("#{jobParameters['targetChunkLatencyMs'] ?: " + DEFAULT_TARGET_CHUNK_LATENCY_MS + "}")
+          long targetLatencyMs) {
+    if (!adaptive) {
+      return ChunkSizeController.fixed(chunkSize);
+    }
+    return ChunkSizeController.adaptive(
+        chunkSize, Math.min(minSize, chunkSize), Math.max(maxSize, chunkSize), targetLatencyMs);
+  }
+
+  @Bean(name = "userChunkCompletionPolicy")
+  @StepScope
+  CompletionPolicy userChunkCompletionPolicy(ChunkSizeController chunkSizeController) {
+    return new ChunkSizeCompletionPolicy(chunkSizeController);
   }
 
   @Bean(name = "userDocumentsReader")
   @StepScope
-  ItemReader<UserWorkUnit> userDocumentsReader(
-      UserLoadingStrategy users,
-      @Value("#{stepExecutionContext['bucket']}") Integer bucket,
-      @Value("#{stepExecutionContext['bucketCount']}") Integer bucketCount) {
-    return new UserDocumentsPagingReader(users, bucket, bucketCount, CHUNK_SIZE);
+  ItemStreamReader<UserWorkUnit> userDocumentsReader(
+      UserLoadingStrategies loaders,
+      @Value("#{jobParameters['loader'] ?: '" + UserLoadingStrategies.DEFAULT_KEY + "'}")
+          String loader,
+      @Value("#{jobParameters['readerMode'] ?: 'PAGING'}") UserReaderMode readerMode,
+      @Value("#{jobParameters['incremental'] ?: false}") boolean incremental,
+      @Value("#{jobParameters['skipUnchanged'] ?: false}") boolean skipUnchanged,
+      @Value("#{jobParameters['pipelined'] ?: false}") boolean pipelined,
+      @Value("${demo-batch.logging.trace:SAMPLED}") ItemTraceMode traceMode,
+      DocumentDataRepository documents,
+      UserFingerprintRepository fingerprints,
+      ChunkSizeController chunkSizeController,
+      @Value("#{stepExecution}") StepExecution stepExecution,
+      @Qualifier("pipelineTaskExecutor") TaskExecutor pipelineTaskExecutor,
+      BatchMetrics metrics,
+      UserRangeQueue userRangeQueue) {
+    UserPartition partition = UserPartition.from(stepExecution.getExecutionContext());
+    PartitionMetrics partitionMetrics = metrics.forStep(stepExecution.getStepName());
+    UserLoadingStrategy users =
+        (incremental ? loaders.get(loader).pendingOnly() : loaders.get(loader)).forStep();
+    if (skipUnchanged) {
+      users =
+          new FingerprintingUserLoadingStrategy(
+              users, documents.forJob(stepExecution.getJobExecutionId()), fingerprints);
+    }
+    UserLoadingStrategy timedUsers = new TimedUserLoadingStrategy(users, partitionMetrics);
+    ItemStreamReader<UserWorkUnit> reader;
+    if (partition instanceof UserPartition.RangeQueue(long queueId)) {
+      reader =
+          new UserRangeQueueReader(
+              userRangeQueue,
+              queueId,
+              stepExecution.getStepName(),
+              timedUsers,
+              chunkSizeController.chunkSize(),
+              traceMode);
+    } else {
+      reader =
+          switch (readerMode) {
+            // Les pages suivent la taille de chunk courante
+            case PAGING ->
+                new UserDocumentsPagingReader(
+                    timedUsers,
+                    partition,
+                    chunkSizeController::chunkSize,
+                    pipelined ? pipelineTaskExecutor : null,
+                    traceMode);
+            // Le curseur bénéficie déjà de la lecture anticipée du pilote (fetch size)
+            case STREAMING ->
+                new UserDocumentsStreamingReader(timedUsers, partition, FETCH_SIZE, traceMode);
+          };
+    }
+    return skipUnchanged ? new UnchangedUserSkippingReader(reader, partitionMetrics) : reader;
   }
 
   @Bean
-  CalculationWriter calculationWriter(CalculRepository repository) {
-    return new CalculationWriter(repository);
+  @StepScope
+  CalculationWriter calculationWriter(
+      CalculRepository repository,
+      DocumentDataRepository documents,
+      SourceDataStatusRepository statuses,
+      UserFingerprintRepository fingerprints,
+      @Value("#{jobParameters['pipelined'] ?: false}") boolean pipelined,
+      @Value("#{jobParameters['writeMode'] ?: 'INSERT'}") ResultWriteMode writeMode,
+      @Value("#{jobParameters['incremental'] ?: false}") boolean incremental,
+      @Value("#{jobParameters['skipUnchanged'] ?: false}") boolean skipUnchanged,
+      @Value("#{jobParameters['calculators'] ?: ''}") String calculatorKeys,
+      @Value("${demo-batch.logging.trace:SAMPLED}") ItemTraceMode traceMode,
+      ChunkCalculators calculators,
+      UserLoadingStrategies loaders,
+      @Value("#{jobParameters['loader'] ?: '" + UserLoadingStrategies.DEFAULT_KEY + "'}")
+          String loader,
+      @Qualifier("pipelineTaskExecutor") TaskExecutor pipelineTaskExecutor,
+      PlatformTransactionManager transactionManager,
+      BatchMetrics metrics,
+      @Value("#{stepExecution}") StepExecution stepExecution) {
+    // Sans correspondance avec le prédicat SQL, la partition ne peut servir à la suppression des
+    // résultats à la reprise
+    UserPartition partition =
+        loaders.get(loader).followsSqlPartitions()
+            ? UserPartition.from(stepExecution.getExecutionContext())
+            : null;
+    return new CalculationWriter(
+        repository,
+        documents.forJob(stepExecution.getJobExecutionId()),
+        statuses,
+        fingerprints,
+        metrics.forStep(stepExecution.getStepName()),
+        partition,
+        // Seuls les utilisateurs recalculés voient leurs résultats remplacés
+        incremental || skipUnchanged ? ResultWriteMode.REPLACE : writeMode,
+        calculators.select(calculatorKeys),
+        pipelined ? pipelineTaskExecutor : null,
+        pipelined ? new TransactionTemplate(transactionManager) : null,
+        traceMode);
+  }
+
+  /**
+   * Exécuteur des partitions, recréé à chaque job. Le nombre de partitions exécutées simultanément
+   * est borné par le paramètre {@code concurrency}, par défaut la capacité du pool de connexions
+   * d'écriture : au-delà, les workers ne feraient qu'attendre une connexion. Les partitions en
+   * surnombre attendent leur tour, ce qui permet un découpage fin (100 partitions et plus) sans
+   * autant de threads.
+   *
+   * <ul>
+   *   <li>{@code PLATFORM} : pool de threads systèmes de taille {@code concurrency}
+   *   <li>{@code VIRTUAL} : un thread virtuel par partition, {@code concurrency} au plus actifs
+   * </ul>
+   */
+  @Bean(name = "batchTaskExecutor")
+  @JobScope
+  TaskExecutor batchTaskExecutor(
+      @Value("#{jobParameters['executor'] ?: 'PLATFORM'}") PartitionExecutorType executorType,
+      @Value("#{jobParameters['gridSize'] ?: " + DEFAULT_GRID_SIZE + "}") int gridSize,
+      @Value("#{jobParameters['concurrency']}") Integer concurrency,
+      DataSource dataSource) {
+    int concurrencyLimit =
+        Math.min(gridSize, concurrency != null ? concurrency : partitionCapacity(dataSource));
+    log.info(
+        "Exécution de {} partitions, {} simultanément ({})",
+        gridSize,
+        concurrencyLimit,
+        executorType);
+
+    return switch (executorType) {
+      case PLATFORM -> {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrencyLimit);
+        executor.setMaxPoolSize(concurrencyLimit);
+        executor.setThreadNamePrefix("thread-#");
+        executor.initialize();
+        yield executor;
+      }
+      case VIRTUAL -> {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("thread-#");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        yield executor;
+      }
+    };
+  }
+
+  /** Nombre de partitions que le pool d'écriture peut servir sans faire attendre de connexion */
+  private static int partitionCapacity(DataSource dataSource) {
+    if (dataSource instanceof HikariDataSource hikari) {
+      return Math.max(
+          hikari.getMaximumPoolSize() / BatchDataSourceConfig.CONNECTIONS_PER_PARTITION, 1);
+    }
+    return DEFAULT_GRID_SIZE;
   }
 
+  /**
+   * Threads virtuels du mode pipeline : pré-chargement des pages et insertions asynchrones. Ces
+   * tâches passent l'essentiel de leur temps à attendre la base.
+   */
   @Bean
-  TaskExecutor batchTaskExecutor() {
-    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-    executor.setCorePoolSize(PARTITION_COUNT);
-    executor.setMaxPoolSize(PARTITION_COUNT);
-    executor.setQueueCapacity(0);
-    executor.setThreadNamePrefix("thread-#");
-    executor.initialize();
+  TaskExecutor pipelineTaskExecutor() {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("pipeline-");
+    executor.setVirtualThreads(true);
     return executor;
   }
 }
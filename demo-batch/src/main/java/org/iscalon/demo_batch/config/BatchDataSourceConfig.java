@@ -1,7 +1,10 @@
 package org.iscalon.demo_batch.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.batch.autoconfigure.BatchTransactionManager;
 import org.springframework.boot.batch.jdbc.autoconfigure.BatchDataSource;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -9,14 +12,43 @@ import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.transaction.PlatformTransactionManager;
 
+/**
+ * Sources de données du module.
+ *
+ * <ul>
+ *   <li>la source principale (pool {@code ecriture}) porte les transactions de chunk, les
+ *       insertions de résultats et les procédures stockées ;
+ *   <li>la source de lecture (pool {@code lecture}, connexions en lecture seule) sert au
+ *       chargement des utilisateurs, des montants et au découpage. Elle pointe par défaut sur la
+ *       même base, ou sur un réplica si {@code spring.datasource.lecture.url} est renseigné ;
+ *   <li>la base de travail Spring Batch.
+ * </ul>
+ *
+ * <p>Les lectures des partitions ne prennent ainsi plus les connexions attendues par leurs
+ * écritures. Chaque pool est dimensionné sur le nombre maximum de partitions simultanées ({@code
+ * demo-batch.datasource.max-partitions}) et publie ses temps d'attente de connexion ({@code
+ * hikaricp.connections.acquire}) dans le registre de mesures.
+ */
 @Configuration
 class BatchDataSourceConfig {
 
+  /**
+   * Connexions simultanées d'une partition sur chaque pool : lecture des utilisateurs (curseur ou
+   * page pré-chargée) et des montants, transaction de chunk et insertion asynchrone.
+   */
+  static final int CONNECTIONS_PER_PARTITION = 2;
+
+  /** Nombre de lignes rapatriées par aller-retour, par défaut, sur la source de lecture */
+  private static final int READ_FETCH_SIZE = 1_000;
+
   @Bean
   @ConfigurationProperties("spring.datasource")
   DataSourceProperties dataSourceProperties() {
@@ -25,26 +57,78 @@ class BatchDataSourceConfig {
 
   @Bean
   @Primary
-  DataSource dataSource() {
-    return dataSourceProperties().initializeDataSourceBuilder().build();
+  DataSource dataSource(
+      @Value("${demo-batch.datasource.max-partitions:10}") int maxPartitions,
+      MeterRegistry meterRegistry) {
+    return pool(dataSourceProperties(), "ecriture", maxPartitions, meterRegistry);
   }
 
   @Bean
   @Primary
-  JdbcTemplate jdbcTemplate() {
-    return new JdbcTemplate(dataSource());
+  JdbcTemplate jdbcTemplate(DataSource dataSource) {
+    return new JdbcTemplate(dataSource);
   }
 
   @Bean
   @Primary
-  NamedParameterJdbcTemplate namedParameterJdbcTemplate() {
-    return new NamedParameterJdbcTemplate(dataSource());
+  NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
+    return new NamedParameterJdbcTemplate(dataSource);
   }
 
   @Bean
   @Primary
-  PlatformTransactionManager transactionManager() {
-    return new DataSourceTransactionManager(dataSource());
+  PlatformTransactionManager transactionManager(DataSource dataSource) {
+    return new DataSourceTransactionManager(dataSource);
+  }
+
+  /** Datasource de lecture (réplica éventuel) */
+  @Bean
+  @ConfigurationProperties("spring.datasource.lecture")
+  DataSourceProperties readDataSourceProperties() {
+    return new DataSourceProperties();
+  }
+
+  @Bean(name = "readDataSource")
+  DataSource readDataSource(
+      @Qualifier("readDataSourceProperties") DataSourceProperties properties,
+      @Value("${demo-batch.datasource.max-partitions:10}") int maxPartitions,
+      MeterRegistry meterRegistry) {
+    DataSourceProperties source = properties.getUrl() != null ? properties : dataSourceProperties();
+    HikariDataSource dataSource = pool(source, "lecture", maxPartitions, meterRegistry);
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean(name = "readJdbcTemplate")
+  JdbcTemplate readJdbcTemplate(
+      @Qualifier("readDataSource") DataSource dataSource,
+      @Value("${demo-batch.datasource.read-fetch-size:" + READ_FETCH_SIZE + "}") int fetchSize) {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.setFetchSize(fetchSize);
+    return jdbcTemplate;
+  }
+
+  @Bean(name = "readNamedParameterJdbcTemplate")
+  NamedParameterJdbcTemplate readNamedParameterJdbcTemplate(
+      @Qualifier("readJdbcTemplate") JdbcTemplate readJdbcTemplate) {
+    return new NamedParameterJdbcTemplate(readJdbcTemplate);
+  }
+
+  /**
+   * Une connexion de plus que les partitions n'en consomment, pour le découpage et les appels
+   * hors partitions.
+   */
+  private static HikariDataSource pool(
+      DataSourceProperties properties,
+      String poolName,
+      int maxPartitions,
+      MeterRegistry meterRegistry) {
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName(poolName);
+    dataSource.setMaximumPoolSize(maxPartitions * CONNECTIONS_PER_PARTITION + 1);
+    dataSource.setMetricRegistry(meterRegistry);
+    return dataSource;
   }
 
   /** Datasource Spring Batch (H2 travail) */
@@ -78,4 +162,15 @@ class BatchDataSourceConfig {
       @Qualifier("batchDataSource") DataSource dataSource) {
     return new DataSourceTransactionManager(dataSource);
   }
+
+  /** Tables applicatives de la base Spring Batch (file d'intervalles du découpage dynamique) */
+  @Bean
+  DataSourceInitializer batchDataSourceInitializer(
+      @Qualifier("batchDataSource") DataSource dataSource) {
+    DataSourceInitializer initializer = new DataSourceInitializer();
+    initializer.setDataSource(dataSource);
+    initializer.setDatabasePopulator(
+        new ResourceDatabasePopulator(new ClassPathResource("batch-schema.sql")));
+    return initializer;
+  }
 }
@@ -0,0 +1,9 @@
+package org.iscalon.demo_batch.config;
+
+/** Moteur de calcul des cumuls (paramètre de job {@code engine}). */
+enum CalculationEngine {
+  /** Lecture des utilisateurs par chunks, calcul Java puis insertion en masse */
+  JAVA,
+  /** Calcul et insertion par la base, une procédure par partition */
+  SQL
+}
@@ -0,0 +1,26 @@
+package org.iscalon.demo_batch.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.stereotype.Component;
+
+/**
+ * Oriente le job vers le moteur de calcul demandé par le paramètre {@code engine}. Les
+ * combinaisons refusées avec le moteur SQL le sont dès le lancement, par {@link
+ * UserCalculationJobParametersValidator}.
+ */
+@Slf4j
+@Component
+class CalculationEngineDecider implements JobExecutionDecider {
+
+  @Override
+  public FlowExecutionStatus decide(JobExecution jobExecution, StepExecution stepExecution) {
+    CalculationEngine engine =
+        UserCalculationJobParametersValidator.engineOf(jobExecution.getJobParameters());
+    log.info("Moteur de calcul : {}", engine);
+    return new FlowExecutionStatus(engine.name());
+  }
+}
@@ -0,0 +1,29 @@
+package org.iscalon.demo_batch.config;
+
+import org.springframework.batch.core.job.parameters.JobParameter;
+import org.springframework.batch.core.job.parameters.JobParameters;
+
+/**
+ * Lecture des paramètres de job quel que soit leur type déclaré ({@code chunkSize=500} ou {@code
+ * chunkSize=500,java.lang.Integer}), comme les expressions {@code #{jobParameters[...]}} des beans
+ * de portée « step » et « job ».
+ */
+final class JobParameterValues {
+
+  private JobParameterValues() {}
+
+  static boolean booleanValue(JobParameters parameters, String name) {
+    JobParameter<?> parameter = parameters.getParameter(name);
+    return parameter != null && Boolean.parseBoolean(parameter.value().toString());
+  }
+
+  static int intValue(JobParameters parameters, String name, int defaultValue) {
+    JobParameter<?> parameter = parameters.getParameter(name);
+    return parameter == null ? defaultValue : Integer.parseInt(parameter.value().toString());
+  }
+
+  static String stringValue(JobParameters parameters, String name, String defaultValue) {
+    JobParameter<?> parameter = parameters.getParameter(name);
+    return parameter == null ? defaultValue : parameter.value().toString();
+  }
+}
@@ -0,0 +1,38 @@
+package org.iscalon.demo_batch.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.job.JobInterruptedException;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.StepExecution;
+
+/**
+ * Étape construite au moment de son exécution, selon les paramètres du job : une étape par valeur
+ * de {@code key}, réutilisée par les exécutions suivantes.
+ *
+ * <p>L'étape orientée chunk de Spring Batch 6 fixe sa taille de chunk à la construction, alors que
+ * la taille est un paramètre de job. Contrairement à une étape de portée « job », celle-ci est
+ * aussi exécutable par un worker distant, qui n'a pas de contexte de job.
+ */
+@RequiredArgsConstructor
+final class ParameterBoundStep<K> implements Step {
+
+  private final String name;
+  private final Function<JobParameters, K> key;
+  private final Function<K, Step> factory;
+  private final Map<K, Step> steps = new ConcurrentHashMap<>();
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public void execute(StepExecution stepExecution) throws JobInterruptedException {
+    Step step = steps.computeIfAbsent(key.apply(stepExecution.getJobParameters()), factory);
+    step.execute(stepExecution);
+  }
+}
@@ -0,0 +1,7 @@
+package org.iscalon.demo_batch.config;
+
+/** Type de threads exécutant les partitions (paramètre de job {@code executor}). */
+enum PartitionExecutorType {
+  PLATFORM,
+  VIRTUAL
+}
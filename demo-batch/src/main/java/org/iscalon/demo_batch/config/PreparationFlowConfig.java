@@ -0,0 +1,89 @@
+package org.iscalon.demo_batch.config;
+
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.out.storedprocedure.PourAppelerStoredProcedure;
+import org.iscalon.demo_batch.tasklet.ProcedureGraph;
+import org.iscalon.demo_batch.tasklet.ProcedureGraph.ProcedureCall;
+import org.iscalon.demo_batch.tasklet.StoredProcedureTasklet;
+import org.springframework.batch.core.job.builder.FlowBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.support.SimpleFlow;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Préparation des données avant le calcul : appels de procédures stockées déclarés avec leurs
+ * dépendances. Les appels indépendants s'exécutent en parallèle (split), niveau par niveau.
+ */
+@Slf4j
+@Configuration
+class PreparationFlowConfig {
+
+  /** Les deux procédures portent sur des tables indépendantes. */
+  @Bean
+  ProcedureGraph preparationProcedures() {
+    return ProcedureGraph.builder()
+        .procedure("prepareInputDataStep", "PROC_INIT_1")
+        .procedure("enrichInputDataStep", "PROC_INIT_2")
+        .build();
+  }
+
+  @Bean
+  Flow preparationFlow(
+      ProcedureGraph preparationProcedures,
+      JobRepository jobRepository,
+      PlatformTransactionManager transactionManager,
+      PourAppelerStoredProcedure service,
+      @Qualifier("preparationTaskExecutor") TaskExecutor preparationTaskExecutor) {
+    List<List<ProcedureCall>> levels = preparationProcedures.levels();
+    log.info("Préparation en {} niveaux : {}", levels.size(), levels);
+
+    FlowBuilder<Flow> preparation = new FlowBuilder<>("preparationFlow");
+    for (int index = 0; index < levels.size(); index++) {
+      Flow[] calls =
+          levels.get(index).stream()
+              .map(call -> procedureFlow(call, jobRepository, transactionManager, service))
+              .toArray(Flow[]::new);
+      Flow level =
+          calls.length == 1
+              ? calls[0]
+              : new FlowBuilder<SimpleFlow>("preparationLevel-" + index)
+                  .split(preparationTaskExecutor)
+                  .add(calls)
+                  .build();
+
+      if (index == 0) {
+        preparation.start(level);
+      } else {
+        preparation.next(level);
+      }
+    }
+    return preparation.build();
+  }
+
+  private static Flow procedureFlow(
+      ProcedureCall call,
+      JobRepository jobRepository,
+      PlatformTransactionManager transactionManager,
+      PourAppelerStoredProcedure service) {
+    return new FlowBuilder<SimpleFlow>(call.stepName() + "Flow")
+        .start(
+            new StepBuilder(call.stepName(), jobRepository)
+                .tasklet(new StoredProcedureTasklet(service, call.procedure()), transactionManager)
+                .build())
+        .build();
+  }
+
+  /** Un thread par procédure lancée en parallèle : chacune passe son temps à attendre la base. */
+  @Bean(name = "preparationTaskExecutor")
+  TaskExecutor preparationTaskExecutor() {
+    return new SimpleAsyncTaskExecutor("preparation-");
+  }
+}
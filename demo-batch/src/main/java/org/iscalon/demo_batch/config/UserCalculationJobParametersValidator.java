@@ -0,0 +1,51 @@
+package org.iscalon.demo_batch.config;
+
+import org.iscalon.demo_batch.partition.UserPartitioning;
+import org.springframework.batch.core.job.parameters.InvalidJobParametersException;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.job.parameters.JobParametersValidator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refuse au lancement, avant toute étape, les combinaisons de paramètres que le job ne sait pas
+ * exécuter :
+ *
+ * <ul>
+ *   <li>{@code engine=SQL} avec {@code incremental=true} : le moteur SQL recalcule toute la
+ *       partition, sans tenir compte du statut des lignes source
+ *   <li>{@code partitioning=QUEUE} avec {@code pipelined=true} : la progression de la file suit la
+ *       transaction du chunk, pas les insertions asynchrones
+ * </ul>
+ */
+@Component
+class UserCalculationJobParametersValidator implements JobParametersValidator {
+
+  static final String ENGINE_PARAMETER = "engine";
+  static final String INCREMENTAL_PARAMETER = "incremental";
+  static final String PARTITIONING_PARAMETER = "partitioning";
+  static final String PIPELINED_PARAMETER = "pipelined";
+
+  @Override
+  public void validate(JobParameters parameters) throws InvalidJobParametersException {
+    if (engineOf(parameters) == CalculationEngine.SQL
+        && JobParameterValues.booleanValue(parameters, INCREMENTAL_PARAMETER)) {
+      throw new InvalidJobParametersException(
+          "Le moteur SQL ne prend pas en charge le mode incrémental : utiliser engine=JAVA");
+    }
+    UserPartitioning partitioning =
+        UserPartitioning.valueOf(
+            JobParameterValues.stringValue(
+                parameters, PARTITIONING_PARAMETER, UserPartitioning.HASH.name()));
+    if (partitioning == UserPartitioning.QUEUE
+        && JobParameterValues.booleanValue(parameters, PIPELINED_PARAMETER)) {
+      throw new InvalidJobParametersException(
+          "Le découpage dynamique (partitioning=QUEUE) ne prend pas en charge le mode pipeline");
+    }
+  }
+
+  static CalculationEngine engineOf(JobParameters parameters) {
+    return CalculationEngine.valueOf(
+        JobParameterValues.stringValue(
+            parameters, ENGINE_PARAMETER, CalculationEngine.JAVA.name()));
+  }
+}
@@ -2,4 +2,16 @@ package org.iscalon.demo_batch.domain;
 
 import java.math.BigDecimal;
 
-public record CalculatedResult(String userId, Long inputDataId, BigDecimal amount) {}
+/**
+ * Résultat calculé pour un document d'un utilisateur.
+ *
+ * @param amountInCents montant cumulé en centimes : exact pour une colonne {@code DECIMAL(19, 2)}
+ *     et sans allocation pendant le calcul
+ */
+public record CalculatedResult(String userId, long inputDataId, long amountInCents) {
+
+  /** Montant cumulé, matérialisé au moment de l'écriture en base. */
+  public BigDecimal amount() {
+    return BigDecimal.valueOf(amountInCents, 2);
+  }
+}
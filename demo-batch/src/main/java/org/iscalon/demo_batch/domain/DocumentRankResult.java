@@ -0,0 +1,7 @@
+package org.iscalon.demo_batch.domain;
+
+/**
+ * Rang d'un document parmi ceux de son utilisateur, par montant décroissant : 1 pour le plus
+ * élevé, ex aequo au même rang (comme {@code RANK()}).
+ */
+public record DocumentRankResult(String userId, long inputDataId, int rank) {}
@@ -0,0 +1,219 @@
+package org.iscalon.demo_batch.domain;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.StringJoiner;
+
+/**
+ * Ensemble immuable d'identifiants de documents, triés par ordre croissant et sans doublon,
+ * parcouru sans boxing.
+ *
+ * <p>Jusqu'à {@value #PACKING_THRESHOLD} références, les identifiants sont gardés dans un {@code
+ * long[]}. Au-delà, ils sont compactés : le premier identifiant puis les écarts successifs sont
+ * codés en entiers de longueur variable (7 bits utiles par octet). Les identifiants d'un même
+ * utilisateur étant proches, un écart tient le plus souvent sur 1 ou 2 octets au lieu de 8.
+ */
+public final class DocumentReferences {
+
+  private static final int PACKING_THRESHOLD = 64;
+
+  private static final DocumentReferences EMPTY = new DocumentReferences(new long[0], null, 0);
+
+  /** Identifiants en clair, ou {@code null} si compactés */
+  private final long[] ids;
+
+  /** Identifiants compactés, ou {@code null} si en clair */
+  private final byte[] packed;
+
+  private final int size;
+
+  private DocumentReferences(long[] ids, byte[] packed, int size) {
+    this.ids = ids;
+    this.packed = packed;
+    this.size = size;
+  }
+
+  public static DocumentReferences empty() {
+    return EMPTY;
+  }
+
+  /** Identifiants dans un ordre quelconque, éventuellement en double. */
+  public static DocumentReferences of(long... ids) {
+    long[] sorted = ids.clone();
+    Arrays.sort(sorted);
+    int distinctCount = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (i == 0 || sorted[i] != sorted[i - 1]) {
+        sorted[distinctCount++] = sorted[i];
+      }
+    }
+    return ofSorted(sorted, distinctCount);
+  }
+
+  /**
+   * Identifiants déjà triés par ordre strictement croissant (cas de {@code ORDER BY v_ref}). Le
+   * tableau n'est pas conservé : l'appelant peut le réutiliser.
+   *
+   * @param length nombre d'identifiants utiles au début du tableau
+   * @throws IllegalArgumentException si les identifiants ne sont pas strictement croissants
+   */
+  public static DocumentReferences ofSorted(long[] sortedIds, int length) {
+    for (int i = 1; i < length; i++) {
+      if (sortedIds[i] <= sortedIds[i - 1]) {
+        throw new IllegalArgumentException(
+            "Références non triées ou en double à l'index %d : %d après %d"
+                .formatted(i, sortedIds[i], sortedIds[i - 1]));
+      }
+    }
+    if (length == 0) {
+      return EMPTY;
+    }
+    if (length <= PACKING_THRESHOLD) {
+      return new DocumentReferences(Arrays.copyOf(sortedIds, length), null, length);
+    }
+    return new DocumentReferences(null, pack(sortedIds, length), length);
+  }
+
+  private static byte[] pack(long[] sortedIds, int length) {
+    // Un entier long occupe au plus 10 octets une fois codé
+    byte[] buffer = new byte[length * 10];
+    int position = writeVarLong(buffer, 0, sortedIds[0]);
+    for (int i = 1; i < length; i++) {
+      position = writeVarLong(buffer, position, sortedIds[i] - sortedIds[i - 1]);
+    }
+    return Arrays.copyOf(buffer, position);
+  }
+
+  /** Codage non signé : l'écart entre deux identifiants croissants est toujours positif. */
+  private static int writeVarLong(byte[] buffer, int position, long value) {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    buffer[position++] = (byte) remaining;
+    return position;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Parcours par ordre croissant ; utiliser {@link PrimitiveIterator.OfLong#nextLong()}. */
+  public PrimitiveIterator.OfLong iterator() {
+    return ids != null ? new ArrayIterator(ids) : new PackedIterator(packed, size);
+  }
+
+  public long[] toArray() {
+    if (ids != null) {
+      return ids.clone();
+    }
+    long[] array = new long[size];
+    PrimitiveIterator.OfLong iterator = iterator();
+    for (int i = 0; i < size; i++) {
+      array[i] = iterator.nextLong();
+    }
+    return array;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof DocumentReferences references) || size != references.size) {
+      return false;
+    }
+    if (ids != null && references.ids != null) {
+      return Arrays.equals(ids, references.ids);
+    }
+    if (packed != null && references.packed != null) {
+      return Arrays.equals(packed, references.packed);
+    }
+    return Arrays.equals(toArray(), references.toArray());
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    PrimitiveIterator.OfLong iterator = iterator();
+    while (iterator.hasNext()) {
+      hash = 31 * hash + Long.hashCode(iterator.nextLong());
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner joiner = new StringJoiner(", ", "[", "]");
+    PrimitiveIterator.OfLong iterator = iterator();
+    while (iterator.hasNext()) {
+      joiner.add(Long.toString(iterator.nextLong()));
+    }
+    return joiner.toString();
+  }
+
+  private static final class ArrayIterator implements PrimitiveIterator.OfLong {
+
+    private final long[] ids;
+    private int index;
+
+    ArrayIterator(long[] ids) {
+      this.ids = ids;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < ids.length;
+    }
+
+    @Override
+    public long nextLong() {
+      if (index >= ids.length) {
+        throw new NoSuchElementException();
+      }
+      return ids[index++];
+    }
+  }
+
+  private static final class PackedIterator implements PrimitiveIterator.OfLong {
+
+    private final byte[] packed;
+    private final int size;
+    private int position;
+    private int index;
+    private long previous;
+
+    PackedIterator(byte[] packed, int size) {
+      this.packed = packed;
+      this.size = size;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < size;
+    }
+
+    @Override
+    public long nextLong() {
+      if (index >= size) {
+        throw new NoSuchElementException();
+      }
+      long value = 0;
+      int shift = 0;
+      byte current;
+      do {
+        current = packed[position++];
+        value |= (long) (current & 0x7F) << shift;
+        shift += 7;
+      } while (current < 0);
+      previous = index++ == 0 ? value : previous + value;
+      return previous;
+    }
+  }
+}
@@ -0,0 +1,4 @@
+package org.iscalon.demo_batch.domain;
+
+/** Nombre de documents d'un utilisateur. */
+public record UserCountResult(String userId, int documentCount) {}
@@ -0,0 +1,42 @@
+package org.iscalon.demo_batch.domain;
+
+import java.util.PrimitiveIterator;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+
+/**
+ * Empreinte des données d'entrée d'un utilisateur : ses références triées et leurs montants.
+ *
+ * @param unchanged l'empreinte est celle enregistrée lors du dernier calcul de l'utilisateur
+ */
+public record UserFingerprint(long value, boolean unchanged) {
+
+  /** Montant d'un document absent des données, distinct de tout montant lu */
+  private static final long MISSING_AMOUNT = Long.MIN_VALUE;
+
+  /**
+   * Hachage sur 64 bits de la suite {@code (nombre de références, v_ref1, montant1, ...)} : toute
+   * modification d'un montant, tout ajout ou retrait de document change l'empreinte, sauf collision
+   * (probabilité de l'ordre de 2<sup>-64</sup>).
+   */
+  public static long valueOf(DocumentReferences references, LongLongHashMap amountsInCents) {
+    long hash = mix(references.size());
+    PrimitiveIterator.OfLong iterator = references.iterator();
+    while (iterator.hasNext()) {
+      long documentId = iterator.nextLong();
+      hash = mix(hash + documentId);
+      hash = mix(hash + amountsInCents.get(documentId, MISSING_AMOUNT));
+    }
+    return hash;
+  }
+
+  /** Finaliseur de MurmurHash3 : bijectif, chaque bit d'entrée modifie la moitié des sorties. */
+  private static long mix(long value) {
+    long hash = value;
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
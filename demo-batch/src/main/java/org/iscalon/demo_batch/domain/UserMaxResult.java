@@ -0,0 +1,4 @@
+package org.iscalon.demo_batch.domain;
+
+/** Montant maximum des documents d'un utilisateur, en centimes. */
+public record UserMaxResult(String userId, long maxAmountInCents) {}
@@ -1,11 +1,58 @@
 package org.iscalon.demo_batch.domain;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.PrimitiveIterator;
 
-public record UserWorkUnit(String userId, Set<Long> references) {
+/**
+ * @param fingerprint empreinte des données d'entrée, {@code null} si elle n'a pas été calculée
+ */
+public record UserWorkUnit(
+    String userId, DocumentReferences references, UserFingerprint fingerprint) {
 
   public UserWorkUnit {
-    references = Optional.ofNullable(references).orElseGet(Set::of);
+    references = Optional.ofNullable(references).orElseGet(DocumentReferences::empty);
+  }
+
+  public UserWorkUnit(String userId, DocumentReferences references) {
+    this(userId, references, null);
+  }
+
+  public UserWorkUnit withFingerprint(UserFingerprint fingerprint) {
+    return new UserWorkUnit(userId, references, fingerprint);
+  }
+
+  /** L'utilisateur a déjà été calculé sur les mêmes documents, aux mêmes montants. */
+  public boolean unchanged() {
+    return fingerprint != null && fingerprint.unchanged();
+  }
+
+  /**
+   * Identifiants des documents des utilisateurs, triés et dédoublonnés, pour une seule lecture des
+   * montants d'un lot.
+   */
+  public static long[] distinctDocumentIds(List<? extends UserWorkUnit> users) {
+    int referenceCount = 0;
+    for (UserWorkUnit user : users) {
+      referenceCount += user.references().size();
+    }
+    long[] documentIds = new long[referenceCount];
+    int index = 0;
+    for (UserWorkUnit user : users) {
+      PrimitiveIterator.OfLong references = user.references().iterator();
+      while (references.hasNext()) {
+        documentIds[index++] = references.nextLong();
+      }
+    }
+    Arrays.sort(documentIds);
+
+    int distinctCount = 0;
+    for (int i = 0; i < documentIds.length; i++) {
+      if (i == 0 || documentIds[i] != documentIds[i - 1]) {
+        documentIds[distinctCount++] = documentIds[i];
+      }
+    }
+    return Arrays.copyOf(documentIds, distinctCount);
   }
 }
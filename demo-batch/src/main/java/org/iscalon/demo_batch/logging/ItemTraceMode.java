@@ -0,0 +1,12 @@
+package org.iscalon.demo_batch.logging;
+
+/** Traçage des éléments lus et traités (propriété {@code demo-batch.logging.trace}). */
+public enum ItemTraceMode {
+  /**
+   * Au plus un élément tracé par seconde, avec le nombre d'éléments passés sous silence, et un
+   * résumé à chaque point de validation
+   */
+  SAMPLED,
+  /** Chaque élément est tracé, pour le diagnostic */
+  FULL
+}
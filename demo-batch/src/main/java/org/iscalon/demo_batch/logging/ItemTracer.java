@@ -0,0 +1,76 @@
+package org.iscalon.demo_batch.logging;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+
+/**
+ * Traces des éléments d'une étape, limitées en mode {@link ItemTraceMode#SAMPLED} pour que la
+ * mise en forme et l'écriture des messages ne pèsent pas sur la boucle de traitement.
+ *
+ * <p>Non partagé entre threads : une instance par lecteur ou écrivain.
+ */
+public final class ItemTracer {
+
+  static final long SAMPLE_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+  private final Logger log;
+  private final ItemTraceMode mode;
+  private final LongSupplier nanoClock;
+
+  private long nextSampleNanos;
+  private int skipped;
+  private int traced;
+
+  public ItemTracer(Logger log, ItemTraceMode mode) {
+    this(log, mode, System::nanoTime);
+  }
+
+  ItemTracer(Logger log, ItemTraceMode mode, LongSupplier nanoClock) {
+    this.log = log;
+    this.mode = mode;
+    this.nanoClock = nanoClock;
+    this.nextSampleNanos = nanoClock.getAsLong();
+  }
+
+  public boolean isFull() {
+    return mode == ItemTraceMode.FULL;
+  }
+
+  /** Trace {@code item} avec le message {@code message} (un seul paramètre {@code {}}). */
+  public void trace(String message, Object item) {
+    traced++;
+    if (!log.isInfoEnabled()) {
+      return;
+    }
+    if (isFull()) {
+      log.info(message, item);
+      return;
+    }
+    long now = nanoClock.getAsLong();
+    if (now - nextSampleNanos < 0) {
+      skipped++;
+      return;
+    }
+    nextSampleNanos = now + SAMPLE_INTERVAL_NANOS;
+    if (skipped == 0) {
+      log.info(message, item);
+    } else {
+      log.info(message + " ({} non tracés)", item, skipped);
+      skipped = 0;
+    }
+  }
+
+  /**
+   * Résume les éléments tracés depuis le résumé précédent, en mode échantillonné uniquement.
+   *
+   * @param message message dont le premier paramètre reçoit le nombre d'éléments
+   */
+  public void summarize(String message, Object detail) {
+    int count = traced;
+    traced = 0;
+    if (!isFull() && count > 0) {
+      log.debug(message, count, detail);
+    }
+  }
+}
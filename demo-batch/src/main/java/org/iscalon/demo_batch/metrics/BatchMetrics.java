@@ -0,0 +1,51 @@
+package org.iscalon.demo_batch.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/** Point d'accès aux mesures du job, enregistrées dans le {@link MeterRegistry} applicatif. */
+@Component
+@RequiredArgsConstructor
+public class BatchMetrics {
+
+  static final String PROCEDURE = PartitionMetrics.PREFIX + "procedure";
+  static final String PROCEDURE_TAG = "procedure";
+
+  /** Attente d'une connexion, publiée par chaque pool Hikari (cumul depuis le démarrage) */
+  static final String POOL_ACQUIRE = "hikaricp.connections.acquire";
+
+  static final String POOL_TAG = "pool";
+
+  private final MeterRegistry registry;
+
+  /**
+   * @param stepName nom de l'exécution d'étape worker, par exemple {@code
+   *     userCalculationWorkerStep:partition-3}
+   */
+  public PartitionMetrics forStep(String stepName) {
+    return new PartitionMetrics(registry, partitionOf(stepName));
+  }
+
+  /** Mesure la durée d'un appel de procédure stockée. */
+  public <T> T timeProcedure(String procedure, Supplier<T> call) {
+    return registry.timer(PROCEDURE, PROCEDURE_TAG, procedure).record(call);
+  }
+
+  static String partitionOf(String stepName) {
+    return stepName.substring(stepName.indexOf(':') + 1);
+  }
+
+  /** Supprime les mesures d'une exécution précédente du job. */
+  void reset() {
+    registry.getMeters().stream()
+        .filter(meter -> meter.getId().getName().startsWith(PartitionMetrics.PREFIX))
+        .toList()
+        .forEach(registry::remove);
+  }
+
+  MeterRegistry registry() {
+    return registry;
+  }
+}
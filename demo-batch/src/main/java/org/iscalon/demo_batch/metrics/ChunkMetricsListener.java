@@ -0,0 +1,57 @@
+package org.iscalon.demo_batch.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.springframework.batch.core.listener.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.infrastructure.item.Chunk;
+
+/**
+ * Mesure la latence de chaque chunk (lecture, calcul et écriture jusqu'au commit) et le nombre
+ * d'éléments lus et écrits par la partition. Une instance par exécution d'étape.
+ *
+ * <p>L'étape orientée chunk de Spring Batch 6 appelle les méthodes qui reçoivent le chunk, une
+ * fois ses éléments lus : la latence mesurée ne comprend alors pas la lecture, déjà mesurée par
+ * {@link PartitionMetrics#USERS_LOAD}. L'étape à taille adaptative appelle encore celles qui
+ * reçoivent le {@link ChunkContext}.
+ */
+@RequiredArgsConstructor
+public class ChunkMetricsListener implements ChunkListener<UserWorkUnit, UserWorkUnit> {
+
+  private final PartitionMetrics metrics;
+
+  private long chunkStart;
+  private long lastReadCount;
+  private long lastWriteCount;
+
+  @Override
+  public void beforeChunk(Chunk<UserWorkUnit> chunk) {
+    chunkStart = System.nanoTime();
+  }
+
+  /** Sans processeur ni saut, les éléments écrits sont ceux lus. */
+  @Override
+  public void afterChunk(Chunk<UserWorkUnit> chunk) {
+    metrics.recordChunk(System.nanoTime() - chunkStart, chunk.size(), chunk.size());
+  }
+
+  @Override
+  @SuppressWarnings({"deprecation", "removal"})
+  public void beforeChunk(ChunkContext context) {
+    chunkStart = System.nanoTime();
+  }
+
+  @Override
+  @SuppressWarnings({"deprecation", "removal"})
+  public void afterChunk(ChunkContext context) {
+    StepExecution stepExecution = context.getStepContext().getStepExecution();
+    long readCount = stepExecution.getReadCount();
+    long writeCount = stepExecution.getWriteCount();
+
+    metrics.recordChunk(
+        System.nanoTime() - chunkStart, readCount - lastReadCount, writeCount - lastWriteCount);
+    lastReadCount = readCount;
+    lastWriteCount = writeCount;
+  }
+}
@@ -0,0 +1,135 @@
+package org.iscalon.demo_batch.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.listener.JobExecutionListener;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.stereotype.Component;
+
+/**
+ * Résumé des mesures en fin de job : une ligne par partition, de la plus lente à la plus rapide,
+ * avec son débit, le temps passé dans chaque phase et les percentiles de latence de ses chunks.
+ * Une partition nettement en tête est celle qui retarde l'étape partitionnée. Les temps d'attente
+ * de connexion des pools signalent une famine de connexions.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JobMetricsSummaryListener implements JobExecutionListener {
+
+  private final BatchMetrics metrics;
+
+  @Override
+  public void beforeJob(JobExecution jobExecution) {
+    metrics.reset();
+  }
+
+  @Override
+  public void afterJob(JobExecution jobExecution) {
+    for (Timer procedure : metrics.registry().find(BatchMetrics.PROCEDURE).timers()) {
+      log.info(
+          "Procédure {} : {} ms",
+          procedure.getId().getTag(BatchMetrics.PROCEDURE_TAG),
+          (long) procedure.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    for (Timer acquire : metrics.registry().find(BatchMetrics.POOL_ACQUIRE).timers()) {
+      log.info(
+          "Pool {} : {} connexions obtenues, attente moyenne {} ms, max {} ms",
+          acquire.getId().getTag(BatchMetrics.POOL_TAG),
+          acquire.count(),
+          "%.2f".formatted(acquire.mean(TimeUnit.MILLISECONDS)),
+          "%.2f".formatted(acquire.max(TimeUnit.MILLISECONDS)));
+    }
+
+    List<StepExecution> partitions =
+        jobExecution.getStepExecutions().stream()
+            .filter(stepExecution -> stepExecution.getStepName().contains(":"))
+            .sorted(Comparator.comparing(JobMetricsSummaryListener::durationOf).reversed())
+            .toList();
+    if (partitions.isEmpty()) {
+      return;
+    }
+
+    log.info(
+        "Bilan de {} ({}) : {} partitions",
+        jobExecution.getJobInstance().getJobName(),
+        jobExecution.getStatus(),
+        partitions.size());
+    for (StepExecution partition : partitions) {
+      log.info(summaryOf(partition));
+    }
+  }
+
+  private String summaryOf(StepExecution stepExecution) {
+    String partition = BatchMetrics.partitionOf(stepExecution.getStepName());
+    long durationMillis = Math.max(durationOf(stepExecution).toMillis(), 1);
+    long writeCount = stepExecution.getWriteCount();
+    long resultCount = totalCount(PartitionMetrics.RESULTS_WRITTEN, partition);
+
+    return ("%s : %d lus, %d écrits en %d ms (%d éléments/s, %d lignes/s)"
+            + ", %d inchangés écartés"
+            + " | chargement %d ms, documents %d ms, calcul %d ms, insertion %d ms"
+            + " | chunks %s")
+        .formatted(
+            partition,
+            stepExecution.getReadCount(),
+            writeCount,
+            durationMillis,
+            writeCount * 1000 / durationMillis,
+            resultCount * 1000 / durationMillis,
+            totalCount(PartitionMetrics.USERS_SKIPPED, partition),
+            totalMillis(PartitionMetrics.USERS_LOAD, partition),
+            totalMillis(PartitionMetrics.DOCUMENTS_LOOKUP, partition),
+            totalMillis(PartitionMetrics.CALCULATION, partition),
+            totalMillis(PartitionMetrics.RESULTS_INSERT, partition),
+            percentiles(partition));
+  }
+
+  private static Duration durationOf(StepExecution stepExecution) {
+    if (stepExecution.getStartTime() == null || stepExecution.getEndTime() == null) {
+      return Duration.ZERO;
+    }
+    return Duration.between(stepExecution.getStartTime(), stepExecution.getEndTime());
+  }
+
+  private Timer timer(String name, String partition) {
+    return metrics.registry().find(name).tag(PartitionMetrics.PARTITION_TAG, partition).timer();
+  }
+
+  private long totalMillis(String name, String partition) {
+    Timer timer = timer(name, partition);
+    return timer == null ? 0 : (long) timer.totalTime(TimeUnit.MILLISECONDS);
+  }
+
+  private long totalCount(String name, String partition) {
+    Counter counter =
+        metrics.registry().find(name).tag(PartitionMetrics.PARTITION_TAG, partition).counter();
+    return counter == null ? 0 : (long) counter.count();
+  }
+
+  private String percentiles(String partition) {
+    Timer chunk = timer(PartitionMetrics.CHUNK, partition);
+    if (chunk == null || chunk.count() == 0) {
+      return "aucun";
+    }
+    StringBuilder summary = new StringBuilder().append(chunk.count()).append(" :");
+    for (ValueAtPercentile percentile : chunk.takeSnapshot().percentileValues()) {
+      summary
+          .append(" p")
+          .append(Math.round(percentile.percentile() * 100))
+          .append('=')
+          .append(Math.round(percentile.value(TimeUnit.MILLISECONDS)))
+          .append(" ms");
+    }
+    return summary.toString();
+  }
+}
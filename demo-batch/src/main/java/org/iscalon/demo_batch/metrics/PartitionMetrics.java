@@ -0,0 +1,104 @@
+package org.iscalon.demo_batch.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Mesures d'une partition, étiquetées par son nom : temps passé dans chaque phase du traitement,
+ * latence des chunks et nombre d'éléments lus/écrits.
+ */
+public final class PartitionMetrics {
+
+  static final String PREFIX = "demo_batch.";
+  public static final String PARTITION_TAG = "partition";
+
+  static final String USERS_LOAD = PREFIX + "users.load";
+  static final String DOCUMENTS_LOOKUP = PREFIX + "documents.lookup";
+  static final String CALCULATION = PREFIX + "calculation";
+  static final String RESULTS_INSERT = PREFIX + "results.insert";
+  static final String CHUNK = PREFIX + "chunk";
+  static final String ITEMS_READ = PREFIX + "items.read";
+  static final String ITEMS_WRITTEN = PREFIX + "items.written";
+
+  /** Nombre de résultats (lignes) insérés, à distinguer du nombre d'utilisateurs écrits */
+  public static final String RESULTS_WRITTEN = PREFIX + "results.written";
+
+  /** Utilisateurs écartés car inchangés depuis leur dernier calcul, ou recalculés */
+  static final String USERS_SKIPPED = PREFIX + "users.skipped";
+
+  static final String USERS_RECOMPUTED = PREFIX + "users.recomputed";
+
+  private final Timer usersLoad;
+  private final Timer documentsLookup;
+  private final Timer calculation;
+  private final Timer resultsInsert;
+  private final Timer chunk;
+  private final Counter itemsRead;
+  private final Counter itemsWritten;
+  private final Counter resultsWritten;
+  private final Counter usersSkipped;
+  private final Counter usersRecomputed;
+
+  PartitionMetrics(MeterRegistry registry, String partition) {
+    this.usersLoad = timer(registry, USERS_LOAD, partition);
+    this.documentsLookup = timer(registry, DOCUMENTS_LOOKUP, partition);
+    this.calculation = timer(registry, CALCULATION, partition);
+    this.resultsInsert = timer(registry, RESULTS_INSERT, partition);
+    this.chunk = timer(registry, CHUNK, partition);
+    this.itemsRead = registry.counter(ITEMS_READ, PARTITION_TAG, partition);
+    this.itemsWritten = registry.counter(ITEMS_WRITTEN, PARTITION_TAG, partition);
+    this.resultsWritten = registry.counter(RESULTS_WRITTEN, PARTITION_TAG, partition);
+    this.usersSkipped = registry.counter(USERS_SKIPPED, PARTITION_TAG, partition);
+    this.usersRecomputed = registry.counter(USERS_RECOMPUTED, PARTITION_TAG, partition);
+  }
+
+  /** Mesures sans effet, pour les composants construits hors du job. */
+  public static PartitionMetrics disabled() {
+    return new PartitionMetrics(new CompositeMeterRegistry(), "disabled");
+  }
+
+  private static Timer timer(MeterRegistry registry, String name, String partition) {
+    return Timer.builder(name)
+        .tag(PARTITION_TAG, partition)
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(registry);
+  }
+
+  public <T> T timeUsersLoad(Supplier<T> load) {
+    return usersLoad.record(load);
+  }
+
+  public <T> T timeDocumentsLookup(Supplier<T> lookup) {
+    return documentsLookup.record(lookup);
+  }
+
+  public void timeCalculation(Runnable calculate) {
+    calculation.record(calculate);
+  }
+
+  public void timeResultsInsert(Runnable insert) {
+    resultsInsert.record(insert);
+  }
+
+  public void recordResultsWritten(int count) {
+    resultsWritten.increment(count);
+  }
+
+  public void recordUserSkipped() {
+    usersSkipped.increment();
+  }
+
+  public void recordUserRecomputed() {
+    usersRecomputed.increment();
+  }
+
+  void recordChunk(long elapsedNanos, long readCount, long writeCount) {
+    chunk.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    itemsRead.increment(readCount);
+    itemsWritten.increment(writeCount);
+  }
+}
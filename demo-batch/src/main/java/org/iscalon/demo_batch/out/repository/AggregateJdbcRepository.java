@@ -0,0 +1,124 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.DocumentRankResult;
+import org.iscalon.demo_batch.domain.UserCountResult;
+import org.iscalon.demo_batch.domain.UserMaxResult;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.iscalon.demo_batch.out.repository.MergeSql.Column;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Écriture des agrégats calculés à côté des cumuls, une table par famille. Les écritures sont des
+ * {@code MERGE} sur la clé de chaque table : une reprise recalcule et remplace les lignes du chunk
+ * rejoué, sans suppression préalable. En mode {@code REPLACE}, les lignes des utilisateurs
+ * recalculés sont supprimées avant, comme leurs cumuls. La syntaxe du {@code MERGE} suit le
+ * {@link Dialect} de la base cible.
+ */
+@Slf4j
+class AggregateJdbcRepository
+    implements UserMaxRepository, UserCountRepository, DocumentRankRepository {
+
+  private static final Column USER_ID = new Column("user_id", "VARCHAR(64)");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final String mergeMax;
+  private final String mergeCount;
+  private final String mergeRank;
+
+  AggregateJdbcRepository(JdbcTemplate jdbcTemplate, Dialect dialect) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.mergeMax =
+        MergeSql.mergeRow(
+            dialect,
+            "user_max_result",
+            List.of(USER_ID),
+            List.of(new Column("max_amount", "DECIMAL(19, 2)")));
+    this.mergeCount =
+        MergeSql.mergeRow(
+            dialect,
+            "user_count_result",
+            List.of(USER_ID),
+            List.of(new Column("document_count", "INT")));
+    this.mergeRank =
+        MergeSql.mergeRow(
+            dialect,
+            "document_rank_result",
+            List.of(USER_ID, new Column("v_ref", "BIGINT")),
+            List.of(new Column("amount_rank", "INT")));
+  }
+
+  @Override
+  public int batchUpsertMaximums(List<UserMaxResult> results) {
+    return merge(
+        "maximums",
+        mergeMax,
+        results,
+        result ->
+            new Object[] {result.userId(), BigDecimal.valueOf(result.maxAmountInCents(), 2)});
+  }
+
+  @Override
+  public int deleteUserMaximums(List<String> userIds) {
+    return delete("maximums", "user_max_result", userIds);
+  }
+
+  @Override
+  public int batchUpsertCounts(List<UserCountResult> results) {
+    return merge(
+        "nombres de documents",
+        mergeCount,
+        results,
+        result -> new Object[] {result.userId(), result.documentCount()});
+  }
+
+  @Override
+  public int deleteUserCounts(List<String> userIds) {
+    return delete("nombres de documents", "user_count_result", userIds);
+  }
+
+  @Override
+  public int batchUpsertRanks(List<DocumentRankResult> results) {
+    return merge(
+        "rangs",
+        mergeRank,
+        results,
+        result -> new Object[] {result.userId(), result.inputDataId(), result.rank()});
+  }
+
+  @Override
+  public int deleteUserRanks(List<String> userIds) {
+    return delete("rangs", "document_rank_result", userIds);
+  }
+
+  private <T> int merge(
+      String family, String sql, List<T> results, Function<T, Object[]> arguments) {
+    if (results.isEmpty()) {
+      return 0;
+    }
+    log.info("[ACCES BDD] : Fusion en masse de {} {}", results.size(), family);
+    List<Object[]> batchArguments = new ArrayList<>(results.size());
+    for (T result : results) {
+      batchArguments.add(arguments.apply(result));
+    }
+    return CalculResultSql.sum(jdbcTemplate.batchUpdate(sql, batchArguments));
+  }
+
+  private int delete(String family, String table, List<String> userIds) {
+    if (userIds.isEmpty()) {
+      return 0;
+    }
+    int deleted =
+        CalculResultSql.sum(
+            jdbcTemplate.batchUpdate(
+                "DELETE FROM " + table + " WHERE user_id = ?",
+                CalculResultSql.deleteUserArguments(userIds)));
+    log.info(
+        "[ACCES BDD] : Suppression de {} {} de {} utilisateurs", deleted, family, userIds.size());
+    return deleted;
+  }
+}
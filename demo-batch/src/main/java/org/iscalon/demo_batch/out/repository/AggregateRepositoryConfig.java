@@ -0,0 +1,18 @@
+package org.iscalon.demo_batch.out.repository;
+
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+class AggregateRepositoryConfig {
+
+  /** Une seule implémentation JDBC pour les ports des agrégats, une table par port. */
+  @Bean
+  AggregateJdbcRepository aggregateRepository(
+      JdbcTemplate jdbcTemplate, @Value("${demo-batch.sql.dialect:H2}") Dialect dialect) {
+    return new AggregateJdbcRepository(jdbcTemplate, dialect);
+  }
+}
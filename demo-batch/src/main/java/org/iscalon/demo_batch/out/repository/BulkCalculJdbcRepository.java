@@ -0,0 +1,140 @@
+package org.iscalon.demo_batch.out.repository;
+
+import static org.iscalon.demo_batch.out.repository.CalculResultSql.COLUMN_COUNT;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.partition.UserPartitionSql;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Insertion en masse des résultats, sans objet intermédiaire par ligne : les valeurs sont liées
+ * par position directement depuis les {@link CalculatedResult}.
+ *
+ * <p>Les lignes sont regroupées dans des {@code INSERT ... VALUES (...), (...)} de {@code
+ * rowsPerStatement} lignes, eux-mêmes envoyés par lots JDBC d'au plus {@code rowsPerBatch}
+ * lignes, afin de limiter à la fois le nombre d'allers-retours et la taille des lots retenus par
+ * le pilote. Les lignes restantes passent par l'ordre mono-ligne. Les {@code MERGE}, dans la
+ * syntaxe du {@link Dialect} de la base, sont regroupés de la même façon.
+ */
+@Slf4j
+class BulkCalculJdbcRepository implements CalculRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int rowsPerStatement;
+  private final int rowsPerBatch;
+  private final String multiRowInsert;
+  private final String singleRowInsert;
+  private final String multiRowMerge;
+  private final String singleRowMerge;
+
+  BulkCalculJdbcRepository(
+      JdbcTemplate jdbcTemplate, Dialect dialect, int rowsPerStatement, int rowsPerBatch) {
+    if (rowsPerStatement < 1 || rowsPerBatch < rowsPerStatement) {
+      throw new IllegalArgumentException(
+          "Paramètres d'insertion invalides : %d lignes par ordre, %d lignes par lot"
+              .formatted(rowsPerStatement, rowsPerBatch));
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.rowsPerStatement = rowsPerStatement;
+    this.rowsPerBatch = rowsPerBatch - rowsPerBatch % rowsPerStatement;
+    this.multiRowInsert = CalculResultSql.insert(rowsPerStatement);
+    this.singleRowInsert = CalculResultSql.insert(1);
+    this.multiRowMerge = CalculResultSql.merge(dialect, rowsPerStatement);
+    this.singleRowMerge = CalculResultSql.merge(dialect, 1);
+  }
+
+  @Override
+  public void batchInsertResults(List<CalculatedResult> results) {
+    write("Enregistrement", multiRowInsert, singleRowInsert, results);
+  }
+
+  @Override
+  public void batchUpsertResults(List<CalculatedResult> results) {
+    write("Fusion", multiRowMerge, singleRowMerge, results);
+  }
+
+  @Override
+  public int deleteResults(UserPartition partition, String afterUserId) {
+    UserPartitionSql filter = UserPartitionSql.of(partition, "user_id", afterUserId);
+    int deleted =
+        jdbcTemplate.update(CalculResultSql.delete(filter), filter.arguments().toArray());
+    log.info(
+        "[ACCES BDD] : Suppression de {} résultats de {} après l'id : {}",
+        deleted,
+        partition,
+        afterUserId);
+    return deleted;
+  }
+
+  @Override
+  public int deleteUserResults(List<String> userIds) {
+    if (userIds.isEmpty()) {
+      return 0;
+    }
+    int deleted =
+        CalculResultSql.sum(
+            jdbcTemplate.batchUpdate(
+                CalculResultSql.DELETE_USER, CalculResultSql.deleteUserArguments(userIds)));
+    log.info(
+        "[ACCES BDD] : Suppression de {} résultats de {} utilisateurs", deleted, userIds.size());
+    return deleted;
+  }
+
+  private void write(
+      String operation, String multiRowSql, String singleRowSql, List<CalculatedResult> results) {
+    if (results.isEmpty()) {
+      log.info("Aucun enregistrement en masse");
+      return;
+    }
+    log.info("[ACCES BDD] : {} en masse de {} résultats", operation, results.size());
+    long start = System.nanoTime();
+
+    int grouped = results.size() - results.size() % rowsPerStatement;
+    for (int from = 0; from < grouped; from += rowsPerBatch) {
+      int to = Math.min(from + rowsPerBatch, grouped);
+      execute(multiRowSql, results, from, to, rowsPerStatement);
+    }
+    if (grouped < results.size()) {
+      execute(singleRowSql, results, grouped, results.size(), 1);
+    }
+
+    long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+    log.info(
+        "[ACCES BDD] : {} résultats écrits en {} ms ({} lignes/s)",
+        results.size(),
+        elapsedNanos / 1_000_000,
+        results.size() * 1_000_000_000L / elapsedNanos);
+  }
+
+  /** Envoie les lignes {@code [from, to)} en un lot d'ordres de {@code rowsInStatement} lignes. */
+  private void execute(
+      String sql, List<CalculatedResult> results, int from, int to, int rowsInStatement) {
+    jdbcTemplate.batchUpdate(
+        sql,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int statementIndex) throws SQLException {
+            int first = from + statementIndex * rowsInStatement;
+            for (int row = 0; row < rowsInStatement; row++) {
+              CalculatedResult result = results.get(first + row);
+              int offset = row * COLUMN_COUNT;
+              ps.setLong(offset + 1, result.inputDataId());
+              ps.setString(offset + 2, result.userId());
+              ps.setBigDecimal(offset + 3, result.amount());
+            }
+          }
+
+          @Override
+          public int getBatchSize() {
+            return (to - from) / rowsInStatement;
+          }
+        });
+  }
+}
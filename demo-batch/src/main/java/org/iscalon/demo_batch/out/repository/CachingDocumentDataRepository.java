@@ -0,0 +1,88 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+
+/**
+ * Cache LRU borné devant un {@link DocumentDataRepository}, partagé par toutes les partitions d'un
+ * job : les documents communs à plusieurs utilisateurs (et donc à plusieurs chunks) ne sont lus
+ * qu'une fois. Seuls les identifiants absents du cache sont transmis, en un seul appel, au dépôt
+ * délégué.
+ *
+ * <p>Le cache ne sert qu'aux vues obtenues par {@link #forJob(long)} et ne contient que les
+ * montants lus pour une exécution de job : il est vidé dès qu'une autre exécution l'utilise, y
+ * compris dans un worker distant qui enchaîne les jobs. Un nouveau lancement relit donc les
+ * montants modifiés depuis le précédent. Sans exécution de job, les montants sont toujours lus.
+ */
+@Slf4j
+class CachingDocumentDataRepository implements DocumentDataRepository {
+
+  private final DocumentDataRepository delegate;
+  private final Map<Long, Long> cache;
+
+  /** Exécution de job dont les montants sont en cache, protégée par le verrou du cache */
+  private long cachedJobExecutionId = -1L;
+
+  CachingDocumentDataRepository(DocumentDataRepository delegate, int maxSize) {
+    this.delegate = delegate;
+    this.cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  @Override
+  public LongLongHashMap findAmountsInCents(long[] documentIds) {
+    return delegate.findAmountsInCents(documentIds);
+  }
+
+  @Override
+  public DocumentDataRepository forJob(long jobExecutionId) {
+    return documentIds -> findAmountsInCents(jobExecutionId, documentIds);
+  }
+
+  private LongLongHashMap findAmountsInCents(long jobExecutionId, long[] documentIds) {
+    LongLongHashMap amountsInCents = new LongLongHashMap(documentIds.length);
+    long[] missingIds = new long[documentIds.length];
+    int missingCount = 0;
+    synchronized (cache) {
+      if (cachedJobExecutionId != jobExecutionId) {
+        log.info(
+            "Cache des documents vidé : exécution {} après l'exécution {}",
+            jobExecutionId,
+            cachedJobExecutionId);
+        cache.clear();
+        cachedJobExecutionId = jobExecutionId;
+      }
+      for (long documentId : documentIds) {
+        Long cached = cache.get(documentId);
+        if (cached != null) {
+          amountsInCents.put(documentId, cached);
+        } else {
+          missingIds[missingCount++] = documentId;
+        }
+      }
+    }
+    log.debug(
+        "Cache des documents : {} trouvés, {} à charger", amountsInCents.size(), missingCount);
+
+    if (missingCount > 0) {
+      LongLongHashMap loaded = delegate.findAmountsInCents(Arrays.copyOf(missingIds, missingCount));
+      synchronized (cache) {
+        // Une autre exécution a pu prendre le cache pendant la lecture
+        if (cachedJobExecutionId == jobExecutionId) {
+          loaded.forEach(cache::put);
+        }
+      }
+      loaded.forEach(amountsInCents::put);
+    }
+
+    return amountsInCents;
+  }
+}
@@ -1,47 +1,84 @@
 package org.iscalon.demo_batch.out.repository;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.partition.UserPartitionSql;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
-import org.springframework.stereotype.Component;
 
-@Component
 @RequiredArgsConstructor
 @Slf4j
 class CalculJdbcRepository implements CalculRepository {
 
   private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
+  /** Syntaxe du {@code MERGE}, seul ordre propre à la base */
+  private final Dialect dialect;
+
+  /** Résultats tracés un à un en mode {@link ItemTraceMode#FULL}, sinon leur nombre seulement */
+  private final ItemTraceMode traceMode;
+
   @Override
-  @SuppressWarnings("unchecked")
   public void batchInsertResults(List<CalculatedResult> results) {
+    batchUpdate("Enregistrement", CalculResultSql.insert(1), results);
+  }
+
+  @Override
+  public void batchUpsertResults(List<CalculatedResult> results) {
+    batchUpdate("Fusion", CalculResultSql.merge(dialect, 1), results);
+  }
+
+  @Override
+  public int deleteResults(UserPartition partition, String afterUserId) {
+    UserPartitionSql filter = UserPartitionSql.of(partition, "user_id", afterUserId);
+    int deleted =
+        namedParameterJdbcTemplate
+            .getJdbcTemplate()
+            .update(CalculResultSql.delete(filter), filter.arguments().toArray());
+    log.info(
+        "[ACCES BDD] : Suppression de {} résultats de {} après l'id : {}",
+        deleted,
+        partition,
+        afterUserId);
+    return deleted;
+  }
+
+  @Override
+  public int deleteUserResults(List<String> userIds) {
+    if (userIds.isEmpty()) {
+      return 0;
+    }
+    int deleted =
+        CalculResultSql.sum(
+            namedParameterJdbcTemplate
+                .getJdbcTemplate()
+                .batchUpdate(
+                    CalculResultSql.DELETE_USER, CalculResultSql.deleteUserArguments(userIds)));
+    log.info(
+        "[ACCES BDD] : Suppression de {} résultats de {} utilisateurs", deleted, userIds.size());
+    return deleted;
+  }
+
+  /** Un tableau de paramètres positionnels par résultat, sans table de paramètres nommés. */
+  private void batchUpdate(String operation, String sql, List<CalculatedResult> results) {
     if (results.isEmpty()) {
       log.info("Aucun enregistrement en masse");
       return;
     }
-    log.info("[ACCES BDD] : Enregistrement en masse de : {}", results);
-    String sql =
-        """
-                  INSERT INTO calculated_result(v_ref, user_id, calculated_amount)
-                  VALUES (:vRef, :userId, :calculatedAmount)
-                  """;
-
-    Map<String, ?>[] batchParams =
-        results.stream()
-            .map(
-                result ->
-                    Map.of(
-                        "vRef",
-                        result.inputDataId(),
-                        "userId",
-                        result.userId(),
-                        "calculatedAmount",
-                        result.amount()))
-            .toArray(Map[]::new);
-
-    namedParameterJdbcTemplate.batchUpdate(sql, batchParams);
+    if (traceMode == ItemTraceMode.FULL) {
+      log.info("[ACCES BDD] : {} en masse de : {}", operation, results);
+    } else {
+      log.info("[ACCES BDD] : {} en masse de {} résultats", operation, results.size());
+    }
+    List<Object[]> batchArgs = new ArrayList<>(results.size());
+    for (CalculatedResult result : results) {
+      batchArgs.add(new Object[] {result.inputDataId(), result.userId(), result.amount()});
+    }
+    namedParameterJdbcTemplate.getJdbcTemplate().batchUpdate(sql, batchArgs);
   }
 }
@@ -2,8 +2,30 @@ package org.iscalon.demo_batch.out.repository;
 
 import java.util.List;
 import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.partition.UserPartition;
 
 public interface CalculRepository {
 
   void batchInsertResults(List<CalculatedResult> results);
+
+  /**
+   * Insère les résultats, ou met à jour ceux déjà présents pour le même {@code (user_id,
+   * v_ref)}.
+   */
+  void batchUpsertResults(List<CalculatedResult> results);
+
+  /**
+   * Supprime les résultats des utilisateurs de la partition postérieurs à {@code afterUserId} (tous
+   * si {@code null}) : ce sont ceux qu'une reprise à partir de ce point va recalculer.
+   *
+   * @return le nombre de résultats supprimés
+   */
+  int deleteResults(UserPartition partition, String afterUserId);
+
+  /**
+   * Supprime tous les résultats de ces utilisateurs, avant leur recalcul complet.
+   *
+   * @return le nombre de résultats supprimés
+   */
+  int deleteUserResults(List<String> userIds);
 }
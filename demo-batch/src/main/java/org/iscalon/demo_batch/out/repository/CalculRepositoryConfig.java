@@ -0,0 +1,67 @@
+package org.iscalon.demo_batch.out.repository;
+
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@Configuration
+class CalculRepositoryConfig {
+
+  /**
+   * Implémentation d'écriture des résultats ({@code demo-batch.calcul-insert.mode}). Par défaut,
+   * {@link #BULK}, avec le nombre de lignes par ordre du dialecte : des ordres mono-ligne pour
+   * Oracle, que toutes les versions acceptent.
+   */
+  enum InsertMode {
+    /**
+     * Lots d'ordres de {@code rows-per-statement} lignes à paramètres positionnels. Au-delà d'une
+     * ligne, la base doit accepter un {@code INSERT ... VALUES (...), (...)} (H2, PostgreSQL,
+     * Oracle 23ai)
+     */
+    BULK,
+    /** Lot d'ordres mono-ligne, un tableau de paramètres positionnels par ligne */
+    NAMED
+  }
+
+  @Bean
+  CalculRepository calculRepository(
+      @Value("${demo-batch.sql.dialect:H2}") Dialect dialect,
+      @Value("${demo-batch.calcul-insert.mode:BULK}") InsertMode mode,
+      @Value("${demo-batch.calcul-insert.rows-per-statement:#{null}}") Integer rowsPerStatement,
+      @Value("${demo-batch.calcul-insert.rows-per-batch:5000}") int rowsPerBatch,
+      @Value("${demo-batch.logging.trace:SAMPLED}") ItemTraceMode traceMode,
+      JdbcTemplate jdbcTemplate,
+      NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+    return switch (mode) {
+      case BULK ->
+          new BulkCalculJdbcRepository(
+              jdbcTemplate,
+              dialect,
+              rowsPerStatement != null ? rowsPerStatement : dialect.rowsPerStatement(),
+              rowsPerBatch);
+      case NAMED -> new CalculJdbcRepository(namedParameterJdbcTemplate, dialect, traceMode);
+    };
+  }
+
+  @Bean
+  SourceDataStatusRepository sourceDataStatusRepository(
+      NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+    return new SourceDataStatusJdbcRepository(namedParameterJdbcTemplate);
+  }
+
+  /** Empreintes lues par les lecteurs (pool de lecture), écrites avec les résultats. */
+  @Bean
+  UserFingerprintRepository userFingerprintRepository(
+      @Qualifier("readNamedParameterJdbcTemplate")
+          NamedParameterJdbcTemplate readNamedParameterJdbcTemplate,
+      JdbcTemplate jdbcTemplate,
+      @Value("${demo-batch.sql.dialect:H2}") Dialect dialect) {
+    return new UserFingerprintJdbcRepository(
+        readNamedParameterJdbcTemplate, jdbcTemplate, dialect);
+  }
+}
@@ -0,0 +1,131 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import org.iscalon.demo_batch.partition.UserPartitionSql;
+
+/** Ordres SQL d'écriture de {@code calculated_result}, communs aux implémentations JDBC. */
+final class CalculResultSql {
+
+  private static final String INSERT_PREFIX =
+      "INSERT INTO calculated_result(v_ref, user_id, calculated_amount) VALUES ";
+
+  /**
+   * {@code MERGE} standard (SQL:2003) sur la clé unique {@code (user_id, v_ref)}. Les paramètres
+   * sont typés explicitement, faute de quoi le type des colonnes de la table source est inconnu.
+   */
+  private static final String MERGE_PREFIX = "MERGE INTO calculated_result t USING (VALUES ";
+
+  private static final String MERGE_SUFFIX =
+      """
+      ) AS s(v_ref, user_id, calculated_amount)
+      ON t.user_id = s.user_id AND t.v_ref = s.v_ref
+      WHEN MATCHED THEN UPDATE SET calculated_amount = s.calculated_amount
+      WHEN NOT MATCHED THEN INSERT (v_ref, user_id, calculated_amount)
+      VALUES (s.v_ref, s.user_id, s.calculated_amount)
+      """;
+
+  /**
+   * {@code MERGE} Oracle : la table source est une union de {@code SELECT ... FROM dual}, qui
+   * nomme ses colonnes sur la première ligne, et la condition de jointure est parenthésée.
+   */
+  private static final String ORACLE_MERGE_PREFIX = "MERGE INTO calculated_result t USING (";
+
+  private static final String ORACLE_MERGE_SUFFIX =
+      """
+      ) s
+      ON (t.user_id = s.user_id AND t.v_ref = s.v_ref)
+      WHEN MATCHED THEN UPDATE SET t.calculated_amount = s.calculated_amount
+      WHEN NOT MATCHED THEN INSERT (v_ref, user_id, calculated_amount)
+      VALUES (s.v_ref, s.user_id, s.calculated_amount)
+      """;
+
+  private static final String ORACLE_FIRST_ROW =
+      "SELECT ? AS v_ref, ? AS user_id, ? AS calculated_amount FROM dual";
+  private static final String ORACLE_ROW = "SELECT ?, ?, ? FROM dual";
+
+  private static final String ROW_PLACEHOLDERS = "(?, ?, ?)";
+  private static final String TYPED_ROW_PLACEHOLDERS =
+      "(CAST(? AS BIGINT), CAST(? AS VARCHAR(64)), CAST(? AS DECIMAL(19, 2)))";
+
+  static final int COLUMN_COUNT = 3;
+
+  /**
+   * Syntaxe du {@code MERGE} de la base cible ({@code demo-batch.sql.dialect}), et nombre de
+   * lignes par ordre d'écriture en masse par défaut.
+   */
+  enum Dialect {
+    /** Table source {@code VALUES} typée, comme en SQL:2003 */
+    H2(100),
+    /** {@code INSERT} mono-ligne : le {@code VALUES (...), (...)} n'existe qu'à partir de 23ai */
+    ORACLE(1);
+
+    private final int rowsPerStatement;
+
+    Dialect(int rowsPerStatement) {
+      this.rowsPerStatement = rowsPerStatement;
+    }
+
+    int rowsPerStatement() {
+      return rowsPerStatement;
+    }
+  }
+
+  private CalculResultSql() {}
+
+  /** {@code INSERT} de {@code rowCount} lignes, paramètres {@code (v_ref, user_id, montant)}. */
+  static String insert(int rowCount) {
+    return rows(INSERT_PREFIX, ROW_PLACEHOLDERS, "", rowCount);
+  }
+
+  /** {@code MERGE} de {@code rowCount} lignes, paramètres {@code (v_ref, user_id, montant)}. */
+  static String merge(Dialect dialect, int rowCount) {
+    return switch (dialect) {
+      case H2 -> rows(MERGE_PREFIX, TYPED_ROW_PLACEHOLDERS, MERGE_SUFFIX, rowCount);
+      case ORACLE -> oracleMerge(rowCount);
+    };
+  }
+
+  private static String oracleMerge(int rowCount) {
+    StringJoiner rows = new StringJoiner(" UNION ALL ", ORACLE_MERGE_PREFIX, ORACLE_MERGE_SUFFIX);
+    rows.add(ORACLE_FIRST_ROW);
+    for (int i = 1; i < rowCount; i++) {
+      rows.add(ORACLE_ROW);
+    }
+    return rows.toString();
+  }
+
+  private static String rows(String prefix, String placeholders, String suffix, int rowCount) {
+    StringJoiner values = new StringJoiner(", ", prefix, suffix);
+    for (int i = 0; i < rowCount; i++) {
+      values.add(placeholders);
+    }
+    return values.toString();
+  }
+
+  /** Suppression des résultats d'un utilisateur, paramètre {@code user_id}. */
+  static final String DELETE_USER = "DELETE FROM calculated_result WHERE user_id = ?";
+
+  /** Suppression des résultats des utilisateurs sélectionnés par {@code filter}. */
+  static String delete(UserPartitionSql filter) {
+    return "DELETE FROM calculated_result WHERE " + filter.predicate();
+  }
+
+  /** Arguments de {@link #DELETE_USER}, un lot par utilisateur. */
+  static List<Object[]> deleteUserArguments(List<String> userIds) {
+    List<Object[]> arguments = new ArrayList<>(userIds.size());
+    for (String userId : userIds) {
+      arguments.add(new Object[] {userId});
+    }
+    return arguments;
+  }
+
+  static int sum(int[] updateCounts) {
+    int total = 0;
+    for (int count : updateCounts) {
+      total += Math.max(count, 0);
+    }
+    return total;
+  }
+}
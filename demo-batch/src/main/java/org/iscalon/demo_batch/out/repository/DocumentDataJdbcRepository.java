@@ -0,0 +1,52 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Lecture en masse des montants des documents : tous les identifiants d'un chunk sont chargés en
+ * une requête, découpée en listes {@code IN} d'au plus {@value #MAX_IN_LIST_SIZE} éléments (limite
+ * Oracle) lorsque le chunk en contient davantage.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class DocumentDataJdbcRepository implements DocumentDataRepository {
+
+  static final int MAX_IN_LIST_SIZE = 1_000;
+
+  private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  @Override
+  public LongLongHashMap findAmountsInCents(long[] documentIds) {
+    LongLongHashMap amountsInCents = new LongLongHashMap(documentIds.length);
+    if (documentIds.length == 0) {
+      return amountsInCents;
+    }
+    log.info("[ACCES BDD] : Chargement des données de {} documents", documentIds.length);
+    // La conversion en centimes est faite par la base : aucun BigDecimal n'est créé à la lecture.
+    String sql =
+        """
+                  SELECT v_ref, CAST(amount * 100 AS BIGINT) AS amount_in_cents
+                  FROM source_data
+                  WHERE v_ref IN (:ids)
+                  """;
+
+    for (int from = 0; from < documentIds.length; from += MAX_IN_LIST_SIZE) {
+      int to = Math.min(from + MAX_IN_LIST_SIZE, documentIds.length);
+      List<Long> slice = Arrays.stream(documentIds, from, to).boxed().toList();
+      namedParameterJdbcTemplate.query(
+          sql,
+          Map.of("ids", slice),
+          rs -> {
+            amountsInCents.put(rs.getLong("v_ref"), rs.getLong("amount_in_cents"));
+          });
+    }
+
+    return amountsInCents;
+  }
+}
@@ -0,0 +1,21 @@
+package org.iscalon.demo_batch.out.repository;
+
+import org.iscalon.demo_batch.util.LongLongHashMap;
+
+public interface DocumentDataRepository {
+
+  /**
+   * @param documentIds identifiants ({@code v_ref}) triés et sans doublon
+   * @return les montants en centimes des documents trouvés, indexés par identifiant. Les
+   *     identifiants inconnus sont absents du résultat.
+   */
+  LongLongHashMap findAmountsInCents(long[] documentIds);
+
+  /**
+   * Vue utilisée par les étapes d'une exécution de job. Un dépôt avec cache n'y réutilise que les
+   * montants lus pendant cette exécution.
+   */
+  default DocumentDataRepository forJob(long jobExecutionId) {
+    return this;
+  }
+}
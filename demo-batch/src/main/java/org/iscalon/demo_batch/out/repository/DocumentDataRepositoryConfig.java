@@ -0,0 +1,20 @@
+package org.iscalon.demo_batch.out.repository;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@Configuration
+class DocumentDataRepositoryConfig {
+
+  @Bean
+  DocumentDataRepository documentDataRepository(
+      @Qualifier("readNamedParameterJdbcTemplate")
+          NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+      @Value("${demo-batch.document-cache.max-size:100000}") int cacheMaxSize) {
+    return new CachingDocumentDataRepository(
+        new DocumentDataJdbcRepository(namedParameterJdbcTemplate), cacheMaxSize);
+  }
+}
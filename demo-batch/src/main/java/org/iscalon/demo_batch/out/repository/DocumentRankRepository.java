@@ -0,0 +1,15 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.util.List;
+import org.iscalon.demo_batch.domain.DocumentRankResult;
+
+public interface DocumentRankRepository {
+
+  /**
+   * Insère les rangs, ou remplace ceux déjà présents pour le même {@code (user_id, v_ref)}.
+   */
+  int batchUpsertRanks(List<DocumentRankResult> results);
+
+  /** Supprime tous les rangs des documents de ces utilisateurs, avant leur recalcul complet. */
+  int deleteUserRanks(List<String> userIds);
+}
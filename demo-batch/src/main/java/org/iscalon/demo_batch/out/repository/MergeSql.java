@@ -0,0 +1,85 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+
+/**
+ * {@code MERGE} mono-ligne des tables écrites à côté de {@code calculated_result}, dans la syntaxe
+ * du {@link Dialect} : table source {@code VALUES} typée (H2) ou {@code SELECT ... FROM dual}
+ * (Oracle), comme {@link CalculResultSql#merge}.
+ */
+final class MergeSql {
+
+  /** Colonne de la table source, avec son type SQL (requis par la table {@code VALUES} H2) */
+  record Column(String name, String sqlType) {}
+
+  private MergeSql() {}
+
+  /**
+   * @param keys colonnes de la jointure, paramètres en tête
+   * @param values colonnes mises à jour, paramètres à la suite des clés
+   */
+  static String mergeRow(Dialect dialect, String table, List<Column> keys, List<Column> values) {
+    return mergeRow(dialect, table, keys, values, null);
+  }
+
+  /**
+   * @param timestampColumn colonne remise à {@code CURRENT_TIMESTAMP} à chaque mise à jour, ou
+   *     {@code null}
+   */
+  static String mergeRow(
+      Dialect dialect,
+      String table,
+      List<Column> keys,
+      List<Column> values,
+      String timestampColumn) {
+    List<Column> columns = new ArrayList<>(keys);
+    columns.addAll(values);
+
+    StringJoiner on = new StringJoiner(" AND ");
+    keys.forEach(key -> on.add("t." + key.name() + " = s." + key.name()));
+    // Colonnes mises à jour qualifiées par l'alias de la cible sur Oracle, comme dans
+    // CalculResultSql, nues sur H2
+    String target = dialect == Dialect.ORACLE ? "t." : "";
+    StringJoiner update = new StringJoiner(", ");
+    values.forEach(value -> update.add(target + value.name() + " = s." + value.name()));
+    if (timestampColumn != null) {
+      update.add(target + timestampColumn + " = CURRENT_TIMESTAMP");
+    }
+    StringJoiner insert = new StringJoiner(", ");
+    StringJoiner insertValues = new StringJoiner(", ");
+    for (Column column : columns) {
+      insert.add(column.name());
+      insertValues.add("s." + column.name());
+    }
+
+    String source =
+        switch (dialect) {
+          case H2 -> {
+            StringJoiner parameters = new StringJoiner(", ");
+            StringJoiner names = new StringJoiner(", ");
+            for (Column column : columns) {
+              parameters.add("CAST(? AS " + column.sqlType() + ")");
+              names.add(column.name());
+            }
+            yield "(VALUES (" + parameters + ")) AS s(" + names + ")";
+          }
+          case ORACLE -> {
+            StringJoiner parameters = new StringJoiner(", ");
+            columns.forEach(column -> parameters.add("? AS " + column.name()));
+            yield "(SELECT " + parameters + " FROM dual) s";
+          }
+        };
+
+    return """
+        MERGE INTO %s t
+        USING %s
+        ON (%s)
+        WHEN MATCHED THEN UPDATE SET %s
+        WHEN NOT MATCHED THEN INSERT (%s) VALUES (%s)
+        """
+        .formatted(table, source, on, update, insert, insertValues);
+  }
+}
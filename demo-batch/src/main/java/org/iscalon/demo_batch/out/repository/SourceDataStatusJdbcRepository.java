@@ -0,0 +1,44 @@
+package org.iscalon.demo_batch.out.repository;
+
+import static org.iscalon.demo_batch.out.repository.DocumentDataJdbcRepository.MAX_IN_LIST_SIZE;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Mise à jour du statut des lignes source par listes {@code IN} d'au plus {@value
+ * DocumentDataJdbcRepository#MAX_IN_LIST_SIZE} identifiants. Seules les lignes encore {@code
+ * PENDING} sont modifiées.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class SourceDataStatusJdbcRepository implements SourceDataStatusRepository {
+
+  private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  @Override
+  public int markProcessed(long[] documentIds) {
+    if (documentIds.length == 0) {
+      return 0;
+    }
+    String sql =
+        """
+                  UPDATE source_data SET status = 'PROCESSED'
+                  WHERE v_ref IN (:ids) AND status = 'PENDING'
+                  """;
+
+    int updated = 0;
+    for (int from = 0; from < documentIds.length; from += MAX_IN_LIST_SIZE) {
+      int to = Math.min(from + MAX_IN_LIST_SIZE, documentIds.length);
+      List<Long> slice = Arrays.stream(documentIds, from, to).boxed().toList();
+      updated += namedParameterJdbcTemplate.update(sql, Map.of("ids", slice));
+    }
+    log.info(
+        "[ACCES BDD] : {} lignes source sur {} passées à PROCESSED", updated, documentIds.length);
+    return updated;
+  }
+}
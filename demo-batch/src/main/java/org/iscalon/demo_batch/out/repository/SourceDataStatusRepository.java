@@ -0,0 +1,13 @@
+package org.iscalon.demo_batch.out.repository;
+
+public interface SourceDataStatusRepository {
+
+  /**
+   * Passe à {@code PROCESSED} les lignes {@code PENDING} de {@code source_data} dont les résultats
+   * viennent d'être écrits. Appelé dans la transaction de l'écriture des résultats.
+   *
+   * @param documentIds identifiants ({@code v_ref}) des documents calculés
+   * @return le nombre de lignes mises à jour
+   */
+  int markProcessed(long[] documentIds);
+}
@@ -0,0 +1,13 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.util.List;
+import org.iscalon.demo_batch.domain.UserCountResult;
+
+public interface UserCountRepository {
+
+  /** Insère les nombres de documents, ou remplace ceux déjà présents pour le même utilisateur. */
+  int batchUpsertCounts(List<UserCountResult> results);
+
+  /** Supprime les nombres de documents de ces utilisateurs, avant leur recalcul complet. */
+  int deleteUserCounts(List<String> userIds);
+}
@@ -0,0 +1,82 @@
+package org.iscalon.demo_batch.out.repository;
+
+import static org.iscalon.demo_batch.out.repository.DocumentDataJdbcRepository.MAX_IN_LIST_SIZE;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.iscalon.demo_batch.out.repository.MergeSql.Column;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Empreintes des utilisateurs dans {@code user_fingerprint} : lecture par listes {@code IN} sur le
+ * pool de lecture, écriture par {@code MERGE} sur le pool d'écriture, dans la transaction du chunk.
+ * La syntaxe du {@code MERGE} suit le {@link Dialect} de la base cible.
+ */
+@Slf4j
+class UserFingerprintJdbcRepository implements UserFingerprintRepository {
+
+  private final NamedParameterJdbcTemplate readNamedParameterJdbcTemplate;
+  private final JdbcTemplate jdbcTemplate;
+  private final String mergeFingerprint;
+
+  UserFingerprintJdbcRepository(
+      NamedParameterJdbcTemplate readNamedParameterJdbcTemplate,
+      JdbcTemplate jdbcTemplate,
+      Dialect dialect) {
+    this.readNamedParameterJdbcTemplate = readNamedParameterJdbcTemplate;
+    this.jdbcTemplate = jdbcTemplate;
+    this.mergeFingerprint =
+        MergeSql.mergeRow(
+            dialect,
+            "user_fingerprint",
+            List.of(new Column("user_id", "VARCHAR(64)")),
+            List.of(new Column("fingerprint", "BIGINT")),
+            "created_at");
+  }
+
+  @Override
+  public Map<String, Long> findFingerprints(List<String> userIds) {
+    Map<String, Long> fingerprints = HashMap.newHashMap(userIds.size());
+    if (userIds.isEmpty()) {
+      return fingerprints;
+    }
+    log.info("[ACCES BDD] : Chargement des empreintes de {} utilisateurs", userIds.size());
+    String sql =
+        """
+                  SELECT user_id, fingerprint
+                  FROM user_fingerprint
+                  WHERE user_id IN (:userIds)
+                  """;
+
+    for (int from = 0; from < userIds.size(); from += MAX_IN_LIST_SIZE) {
+      List<String> slice = userIds.subList(from, Math.min(from + MAX_IN_LIST_SIZE, userIds.size()));
+      readNamedParameterJdbcTemplate.query(
+          sql,
+          Map.of("userIds", slice),
+          rs -> {
+            fingerprints.put(rs.getString("user_id"), rs.getLong("fingerprint"));
+          });
+    }
+
+    return fingerprints;
+  }
+
+  @Override
+  public int batchUpsertFingerprints(List<UserWorkUnit> users) {
+    if (users.isEmpty()) {
+      return 0;
+    }
+    log.info("[ACCES BDD] : Fusion en masse de {} empreintes", users.size());
+    List<Object[]> batchArguments = new ArrayList<>(users.size());
+    for (UserWorkUnit user : users) {
+      batchArguments.add(new Object[] {user.userId(), user.fingerprint().value()});
+    }
+    return CalculResultSql.sum(jdbcTemplate.batchUpdate(mergeFingerprint, batchArguments));
+  }
+}
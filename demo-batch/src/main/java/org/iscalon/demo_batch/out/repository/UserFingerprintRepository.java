@@ -0,0 +1,23 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.util.List;
+import java.util.Map;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+
+public interface UserFingerprintRepository {
+
+  /**
+   * @return les empreintes enregistrées, indexées par utilisateur. Les utilisateurs jamais
+   *     calculés sont absents du résultat.
+   */
+  Map<String, Long> findFingerprints(List<String> userIds);
+
+  /**
+   * Enregistre l'empreinte des utilisateurs calculés, ou remplace celle du calcul précédent.
+   * Appelé dans la transaction de l'écriture des résultats : une empreinte n'est jamais en avance
+   * sur les résultats qu'elle décrit.
+   *
+   * @param users utilisateurs dont l'{@link UserWorkUnit#fingerprint() empreinte} est calculée
+   */
+  int batchUpsertFingerprints(List<UserWorkUnit> users);
+}
@@ -0,0 +1,13 @@
+package org.iscalon.demo_batch.out.repository;
+
+import java.util.List;
+import org.iscalon.demo_batch.domain.UserMaxResult;
+
+public interface UserMaxRepository {
+
+  /** Insère les maximums, ou remplace ceux déjà présents pour le même utilisateur. */
+  int batchUpsertMaximums(List<UserMaxResult> results);
+
+  /** Supprime les maximums de ces utilisateurs, avant leur recalcul complet. */
+  int deleteUserMaximums(List<String> userIds);
+}
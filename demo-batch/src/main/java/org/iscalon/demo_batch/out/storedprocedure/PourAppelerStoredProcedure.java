@@ -1,6 +1,15 @@
 package org.iscalon.demo_batch.out.storedprocedure;
 
+import java.util.List;
+import org.springframework.jdbc.core.SqlParameterValue;
+
 public interface PourAppelerStoredProcedure {
 
   void appeler(String nomProcedure);
+
+  /**
+   * Appelle une procédure avec des paramètres d'entrée positionnels. Le type SQL de chaque
+   * paramètre est porté par sa valeur, ce qui permet de transmettre des {@code null}.
+   */
+  void appeler(String nomProcedure, List<SqlParameterValue> parametres);
 }
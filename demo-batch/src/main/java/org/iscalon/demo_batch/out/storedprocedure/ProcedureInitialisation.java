@@ -1,17 +1,40 @@
 package org.iscalon.demo_batch.out.storedprocedure;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameter;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.object.StoredProcedure;
 
 public class ProcedureInitialisation extends StoredProcedure {
 
+    private final List<SqlParameterValue> parametres;
+
     public ProcedureInitialisation(JdbcTemplate jdbcTemplate, String procName) {
+        this(jdbcTemplate, procName, List.of());
+    }
+
+    public ProcedureInitialisation(
+            JdbcTemplate jdbcTemplate, String procName, List<SqlParameterValue> parametres) {
         super(jdbcTemplate, procName);
+        this.parametres = parametres;
+        for (int i = 0; i < parametres.size(); i++) {
+            declareParameter(new SqlParameter(nomParametre(i), parametres.get(i).getSqlType()));
+        }
+    }
+
+    private static String nomParametre(int index) {
+        return "p" + (index + 1);
     }
 
     public Map<String, Object> execute() throws DataAccessException {
-        return super.execute(Map.of());
+        Map<String, Object> valeurs = new HashMap<>();
+        for (int i = 0; i < parametres.size(); i++) {
+            valeurs.put(nomParametre(i), parametres.get(i).getValue());
+        }
+        return super.execute(valeurs);
     }
 }
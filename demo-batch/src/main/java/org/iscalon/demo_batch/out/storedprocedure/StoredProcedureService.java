@@ -1,10 +1,13 @@
 package org.iscalon.demo_batch.out.storedprocedure;
 
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.metrics.BatchMetrics;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -13,17 +16,27 @@ import org.springframework.stereotype.Service;
 class StoredProcedureService implements PourAppelerStoredProcedure {
 
   private final JdbcTemplate jdbcTemplate;
+  private final BatchMetrics metrics;
 
   @Override
   public void appeler(String nomProcedure) {
+    appeler(nomProcedure, List.of());
+  }
+
+  @Override
+  public void appeler(String nomProcedure, List<SqlParameterValue> parametres) {
     Map<
             String /* identifiant du result set */,
             Object /* LinkedMap : nom proc stockée -> chaine résultat */>
-        resultats = new ProcedureInitialisation(jdbcTemplate, nomProcedure).execute();
+        resultats = metrics.timeProcedure(nomProcedure, () -> executer(nomProcedure, parametres));
     if (log.isDebugEnabled()) {
       String informations =
           resultats.values().stream().map(Object::toString).collect(Collectors.joining(","));
       log.debug("Résultats renvoyés par appel procédure '{}' : {}", nomProcedure, informations);
     }
   }
+
+  private Map<String, Object> executer(String nomProcedure, List<SqlParameterValue> parametres) {
+    return new ProcedureInitialisation(jdbcTemplate, nomProcedure, parametres).execute();
+  }
 }
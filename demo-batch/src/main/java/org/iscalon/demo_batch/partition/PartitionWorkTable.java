@@ -0,0 +1,50 @@
+package org.iscalon.demo_batch.partition;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.batch.core.step.StepExecution;
+
+/**
+ * Table de travail du partitionnement distant : le manager y publie les partitions d'une étape,
+ * les workers (autres JVM) les réclament, les exécutent et les marquent terminées. Elle est
+ * conservée dans la base des métadonnées Spring Batch, partagée par tous les processus.
+ */
+public interface PartitionWorkTable {
+
+  /** Partition réclamée par un worker : l'exécution d'étape à reprendre dans le dépôt. */
+  record ClaimedPartition(long jobExecutionId, long stepExecutionId, String stepName) {}
+
+  /** Publie les exécutions de l'étape {@code stepName}, qui deviennent réclamables. */
+  void publish(String stepName, Collection<StepExecution> partitions);
+
+  /**
+   * @return la prochaine partition disponible parmi les étapes {@code stepNames}, désormais
+   *     réservée à {@code worker}, ou rien si aucune n'est en attente
+   */
+  Optional<ClaimedPartition> claim(String worker, Set<String> stepNames);
+
+  /**
+   * Signale que {@code worker} exécute toujours la partition.
+   *
+   * @return {@code false} si la partition n'est plus réservée à {@code worker} : remise en attente
+   *     faute de signal, elle a pu être réclamée par un autre worker
+   */
+  boolean heartbeat(long stepExecutionId, String worker);
+
+  /** Marque terminée la partition, si elle est toujours réservée à {@code worker}. */
+  void complete(long stepExecutionId, String worker);
+
+  /**
+   * Remet en attente les partitions dont le worker ne s'est pas signalé depuis {@code
+   * heartbeatBefore} : il est considéré comme arrêté, et un autre worker reprendra l'exécution à
+   * partir de son dernier point de validation.
+   *
+   * @return le nombre de partitions remises en attente
+   */
+  int releaseStaleClaims(Instant heartbeatBefore);
+
+  /** @return le nombre de partitions de l'étape {@code stepName} non encore terminées */
+  int countUnfinished(long jobExecutionId, String stepName);
+}
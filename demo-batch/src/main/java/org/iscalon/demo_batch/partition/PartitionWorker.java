@@ -0,0 +1,179 @@
+package org.iscalon.demo_batch.partition;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.partition.PartitionWorkTable.ClaimedPartition;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Worker du partitionnement distant : réclame les partitions publiées par un manager ({@link
+ * WorkTablePartitionHandler}), les exécute l'une après l'autre et les marque terminées. Le statut
+ * de chaque exécution est écrit dans le dépôt Spring Batch par l'étape elle-même.
+ *
+ * <p>Pendant l'exécution, un signal de vie est envoyé toutes les {@code stale-timeout / 3}. Si la
+ * partition n'est plus réservée au worker (signaux manqués, remise en attente par le manager),
+ * l'étape est interrompue au prochain chunk et marquée en échec : le worker qui l'a réclamée
+ * ensuite la reprend et la termine. Le worker s'arrête après {@code idle-timeout} sans partition à
+ * exécuter, ce qui termine le processus.
+ *
+ * <p>Activé par {@code demo-batch.remote.worker.enabled=true}, sur une instance lancée avec
+ * {@code spring.batch.job.enabled=false}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "demo-batch.remote.worker", name = "enabled", havingValue = "true")
+public class PartitionWorker implements ApplicationRunner {
+
+  private final PartitionWorkTable workTable;
+  private final JobRepository jobRepository;
+  private final Map<String, Step> steps;
+  private final Duration pollInterval;
+  private final Duration staleTimeout;
+  private final Duration idleTimeout;
+  private final String name;
+
+  PartitionWorker(
+      PartitionWorkTable workTable,
+      JobRepository jobRepository,
+      List<Step> steps,
+      @Value("${demo-batch.remote.poll-interval:PT1S}") Duration pollInterval,
+      @Value("${demo-batch.remote.stale-timeout:PT1M}") Duration staleTimeout,
+      @Value("${demo-batch.remote.worker.idle-timeout:PT5M}") Duration idleTimeout) {
+    this.workTable = workTable;
+    this.jobRepository = jobRepository;
+    this.steps = steps.stream().collect(Collectors.toMap(Step::getName, Function.identity()));
+    this.pollInterval = pollInterval;
+    this.staleTimeout = staleTimeout;
+    this.idleTimeout = idleTimeout;
+    this.name = "worker-" + ManagementFactory.getRuntimeMXBean().getName();
+  }
+
+  @Override
+  public void run(ApplicationArguments args) throws InterruptedException {
+    log.info("{} en attente de partitions de {}", name, steps.keySet());
+    Instant idleSince = Instant.now();
+    while (Duration.between(idleSince, Instant.now()).compareTo(idleTimeout) < 0) {
+      if (executeNext()) {
+        idleSince = Instant.now();
+      } else {
+        Thread.sleep(pollInterval);
+      }
+    }
+    log.info("{} arrêté : aucune partition depuis {}", name, idleTimeout);
+  }
+
+  /**
+   * Réclame et exécute la prochaine partition disponible.
+   *
+   * @return {@code false} si aucune partition n'était en attente
+   */
+  boolean executeNext() {
+    Optional<ClaimedPartition> claimed = workTable.claim(name, steps.keySet());
+    if (claimed.isEmpty()) {
+      return false;
+    }
+    ClaimedPartition partition = claimed.get();
+    boolean owned = true;
+    try {
+      StepExecution stepExecution =
+          jobRepository.getStepExecution(partition.jobExecutionId(), partition.stepExecutionId());
+      JobExecution jobExecution = stepExecution == null ? null : stepExecution.getJobExecution();
+      if (jobExecution == null || !jobExecution.isRunning()) {
+        // Manager arrêté sans avoir terminé le job : la reprise publiera de nouvelles partitions
+        log.warn("Partition {} abandonnée : le job n'est plus en cours", partition);
+        return true;
+      }
+      owned = execute(partition, stepExecution);
+    } finally {
+      // Une partition réattribuée appartient désormais à un autre worker, qui la terminera
+      if (owned) {
+        workTable.complete(partition.stepExecutionId(), name);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return {@code false} si la partition a été réattribuée pendant son exécution
+   */
+  private boolean execute(ClaimedPartition partition, StepExecution stepExecution) {
+    AtomicBoolean claimLost = new AtomicBoolean();
+    long heartbeatPeriod = Math.max(staleTimeout.toMillis() / 3, 1);
+    try (ScheduledExecutorService heartbeats =
+        Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory())) {
+      ScheduledFuture<?> heartbeat =
+          heartbeats.scheduleAtFixedRate(
+              () -> heartbeat(partition, stepExecution, claimLost),
+              heartbeatPeriod,
+              heartbeatPeriod,
+              TimeUnit.MILLISECONDS);
+      try {
+        steps.get(partition.stepName()).execute(stepExecution);
+        log.info("Partition {} exécutée : {}", partition, stepExecution.getStatus());
+      } catch (Exception e) {
+        log.error("Echec de l'exécution de la partition {}", partition, e);
+      } finally {
+        heartbeat.cancel(false);
+      }
+    }
+    if (claimLost.get()) {
+      fail(partition, stepExecution);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Un signal manqué ne doit pas interrompre les suivants. Une partition qui n'est plus réservée
+   * au worker est interrompue : l'étape s'arrête avant son prochain chunk.
+   */
+  private void heartbeat(
+      ClaimedPartition partition, StepExecution stepExecution, AtomicBoolean claimLost) {
+    try {
+      if (!workTable.heartbeat(partition.stepExecutionId(), name) && !claimLost.getAndSet(true)) {
+        log.error("Partition {} réattribuée pendant son exécution : interruption", partition);
+        stepExecution.setTerminateOnly();
+      }
+    } catch (RuntimeException e) {
+      log.warn("Signal de vie de la partition {} non enregistré", partition, e);
+    }
+  }
+
+  /**
+   * Enregistre l'échec de la partition réattribuée. Si le worker qui l'a réclamée l'a déjà reprise,
+   * l'exécution a changé de version dans le dépôt et elle est laissée à ce worker.
+   */
+  private void fail(ClaimedPartition partition, StepExecution stepExecution) {
+    stepExecution.upgradeStatus(BatchStatus.FAILED);
+    stepExecution.setExitStatus(
+        ExitStatus.FAILED.addExitDescription("Partition réattribuée à un autre worker"));
+    try {
+      jobRepository.update(stepExecution);
+    } catch (OptimisticLockingFailureException e) {
+      log.warn("Partition {} déjà reprise par un autre worker", partition);
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package org.iscalon.demo_batch.partition;
+
+import java.time.Duration;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Création des {@link WorkTablePartitionHandler} du partitionnement distant (paramètre de job
+ * {@code remote=true}), avec les délais des propriétés {@code demo-batch.remote.*} partagées avec
+ * les {@link PartitionWorker}.
+ */
+@Component
+public class RemotePartitionHandlers {
+
+  private final PartitionWorkTable workTable;
+  private final JobRepository jobRepository;
+  private final Duration pollInterval;
+  private final Duration staleTimeout;
+  private final Duration timeout;
+
+  RemotePartitionHandlers(
+      PartitionWorkTable workTable,
+      JobRepository jobRepository,
+      @Value("${demo-batch.remote.poll-interval:PT1S}") Duration pollInterval,
+      @Value("${demo-batch.remote.stale-timeout:PT1M}") Duration staleTimeout,
+      @Value("${demo-batch.remote.timeout:PT12H}") Duration timeout) {
+    this.workTable = workTable;
+    this.jobRepository = jobRepository;
+    this.pollInterval = pollInterval;
+    this.staleTimeout = staleTimeout;
+    this.timeout = timeout;
+  }
+
+  public PartitionHandler forStep(Step workerStep, int gridSize) {
+    return new WorkTablePartitionHandler(
+        workTable,
+        jobRepository,
+        workerStep.getName(),
+        gridSize,
+        pollInterval,
+        staleTimeout,
+        timeout);
+  }
+}
@@ -0,0 +1,69 @@
+package org.iscalon.demo_batch.partition;
+
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+
+/**
+ * Périmètre d'utilisateurs traité par une partition, tel que publié dans son {@link
+ * ExecutionContext} par le {@code Partitioner}.
+ */
+public sealed interface UserPartition {
+
+  String BUCKET_KEY = "bucket";
+  String BUCKET_COUNT_KEY = "bucketCount";
+  String MIN_USER_ID_KEY = "minUserId";
+  String MAX_USER_ID_KEY = "maxUserId";
+  String QUEUE_ID_KEY = "queueId";
+
+  void writeTo(ExecutionContext context);
+
+  static UserPartition from(ExecutionContext context) {
+    if (context.containsKey(QUEUE_ID_KEY)) {
+      return new RangeQueue(context.getLong(QUEUE_ID_KEY));
+    }
+    if (context.containsKey(BUCKET_KEY)) {
+      return new HashBucket(context.getInt(BUCKET_KEY), context.getInt(BUCKET_COUNT_KEY));
+    }
+    return new UserIdRange(
+        context.containsKey(MIN_USER_ID_KEY) ? context.getString(MIN_USER_ID_KEY) : null,
+        context.containsKey(MAX_USER_ID_KEY) ? context.getString(MAX_USER_ID_KEY) : null);
+  }
+
+  /** Utilisateurs dont le hash de l'identifiant tombe dans le bucket donné. */
+  record HashBucket(int bucket, int bucketCount) implements UserPartition {
+
+    @Override
+    public void writeTo(ExecutionContext context) {
+      context.putInt(BUCKET_KEY, bucket);
+      context.putInt(BUCKET_COUNT_KEY, bucketCount);
+    }
+  }
+
+  /**
+   * Utilisateurs dont l'identifiant est compris dans {@code [minUserId, maxUserId)}. Une borne
+   * {@code null} signifie que l'intervalle est ouvert de ce côté.
+   */
+  record UserIdRange(String minUserId, String maxUserId) implements UserPartition {
+
+    @Override
+    public void writeTo(ExecutionContext context) {
+      if (minUserId != null) {
+        context.putString(MIN_USER_ID_KEY, minUserId);
+      }
+      if (maxUserId != null) {
+        context.putString(MAX_USER_ID_KEY, maxUserId);
+      }
+    }
+  }
+
+  /**
+   * Worker d'une file d'intervalles partagée : les intervalles ne sont pas connus à l'avance, le
+   * worker les réclame un à un dans la file {@code queueId} (voir {@link UserRangeQueue}).
+   */
+  record RangeQueue(long queueId) implements UserPartition {
+
+    @Override
+    public void writeTo(ExecutionContext context) {
+      context.putLong(QUEUE_ID_KEY, queueId);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package org.iscalon.demo_batch.partition;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import org.iscalon.demo_batch.partition.UserPartition.HashBucket;
+import org.iscalon.demo_batch.partition.UserPartition.RangeQueue;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+
+/**
+ * Traduction d'une {@link UserPartition} en prédicat SQL positionnel. Seules les bornes
+ * effectivement renseignées sont émises, afin que l'optimiseur puisse utiliser un parcours d'index
+ * par intervalle sur la colonne de l'identifiant utilisateur.
+ */
+public record UserPartitionSql(String predicate, List<Object> arguments) {
+
+  public static UserPartitionSql of(UserPartition partition, String userIdColumn) {
+    return of(partition, userIdColumn, null);
+  }
+
+  /**
+   * @param afterUserId si non {@code null}, restreint en plus aux utilisateurs strictement
+   *     postérieurs (reprise après le dernier utilisateur traité)
+   */
+  public static UserPartitionSql of(
+      UserPartition partition, String userIdColumn, String afterUserId) {
+    StringJoiner predicate = new StringJoiner(" AND ");
+    List<Object> arguments = new ArrayList<>();
+
+    switch (partition) {
+      case HashBucket(int bucket, int bucketCount) -> {
+        predicate.add("MOD(ABS(ORA_HASH(" + userIdColumn + ")), ?) = ?");
+        arguments.add(bucketCount);
+        arguments.add(bucket);
+      }
+      case UserIdRange(String minUserId, String maxUserId) -> {
+        if (minUserId != null) {
+          predicate.add(userIdColumn + " >= ?");
+          arguments.add(minUserId);
+        }
+        if (maxUserId != null) {
+          predicate.add(userIdColumn + " < ?");
+          arguments.add(maxUserId);
+        }
+      }
+      case RangeQueue queue ->
+          throw new IllegalArgumentException(
+              "Les intervalles de la file %d doivent être réclamés avant d'être lus"
+                  .formatted(queue.queueId()));
+    }
+    if (afterUserId != null) {
+      predicate.add(userIdColumn + " > ?");
+      arguments.add(afterUserId);
+    }
+    predicate.setEmptyValue("1 = 1");
+
+    return new UserPartitionSql(predicate.toString(), List.copyOf(arguments));
+  }
+
+  /**
+   * Positionne les arguments du prédicat à partir de l'index {@code firstIndex}.
+   *
+   * @return l'index du prochain paramètre libre
+   */
+  public int bind(PreparedStatement ps, int firstIndex) throws SQLException {
+    int index = firstIndex;
+    for (Object argument : arguments) {
+      ps.setObject(index++, argument);
+    }
+    return index;
+  }
+}
@@ -19,8 +19,7 @@ public class UserPartitioner implements Partitioner {
 
         for (int bucket = 0; bucket < partitionCount; bucket++) {
             ExecutionContext context = new ExecutionContext();
-            context.putInt("bucket", bucket);
-            context.putInt("bucketCount", partitionCount);
+            new UserPartition.HashBucket(bucket, partitionCount).writeTo(context);
 
             partitions.put("partition-" + bucket, context);
         }
@@ -0,0 +1,14 @@
+package org.iscalon.demo_batch.partition;
+
+/** Stratégie de découpage des utilisateurs (paramètre de job {@code partitioning}). */
+public enum UserPartitioning {
+  /** Buckets de hash de l'identifiant : {@link UserPartitioner}. */
+  HASH,
+  /** Intervalles contigus d'identifiants, équilibrés en lignes : {@link UserRangePartitioner}. */
+  RANGE,
+  /**
+   * Nombreux petits intervalles placés dans une file partagée, réclamés par les workers au fil de
+   * l'eau : {@link UserRangeQueuePartitioner}.
+   */
+  QUEUE
+}
@@ -0,0 +1,85 @@
+package org.iscalon.demo_batch.partition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.springframework.batch.core.partition.Partitioner;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+
+/**
+ * Découpe les utilisateurs en intervalles contigus {@code [minUserId, maxUserId)} contenant chacun
+ * à peu près le même nombre de lignes source (et non le même nombre d'utilisateurs).
+ *
+ * <p>Contrairement aux buckets de hash, chaque partition peut ainsi être lue par un parcours
+ * d'index par intervalle sur {@code user_id}. Les statistiques ne sont parcourues qu'une seule
+ * fois, au moment du découpage.
+ */
+@Slf4j
+public class UserRangePartitioner implements Partitioner {
+
+  private final UserRowCounts statistics;
+  private final int partitionCount;
+
+  public UserRangePartitioner(UserRowCounts statistics, int partitionCount) {
+    this.statistics = statistics;
+    this.partitionCount = partitionCount;
+  }
+
+  @Override
+  public Map<String, ExecutionContext> partition(int gridSize) {
+    List<UserIdRange> ranges = computeRanges();
+    log.info("Découpage en {} intervalles d'utilisateurs : {}", ranges.size(), ranges);
+
+    Map<String, ExecutionContext> partitions = new HashMap<>();
+    for (int index = 0; index < ranges.size(); index++) {
+      ExecutionContext context = new ExecutionContext();
+      ranges.get(index).writeTo(context);
+
+      partitions.put("partition-" + index, context);
+    }
+
+    return partitions;
+  }
+
+  List<UserIdRange> computeRanges() {
+    long totalRows = statistics.totalRows();
+    List<String> lowerBounds = new ArrayList<>();
+
+    statistics.forEachUser(
+        new UserRowCounts.UserRowCountConsumer() {
+          private long cumulatedRows;
+          private int nextCut = 1;
+
+          @Override
+          public void accept(String userId, long rowCount) {
+            // On coupe avant l'utilisateur dont le milieu franchit le seuil suivant, pour que la
+            // frontière soit la plus proche possible de l'équilibre. Un utilisateur très
+            // volumineux peut franchir plusieurs seuils à lui seul : il est alors isolé, sans
+            // créer d'intervalles vides.
+            boolean cut = false;
+            while (nextCut < partitionCount
+                && (2 * cumulatedRows + rowCount) * partitionCount >= 2 * nextCut * totalRows) {
+              nextCut++;
+              cut = true;
+            }
+            if (cut && cumulatedRows > 0) {
+              lowerBounds.add(userId);
+            }
+            cumulatedRows += rowCount;
+          }
+        });
+
+    List<UserIdRange> ranges = new ArrayList<>(lowerBounds.size() + 1);
+    String minUserId = null;
+    for (String lowerBound : lowerBounds) {
+      ranges.add(new UserIdRange(minUserId, lowerBound));
+      minUserId = lowerBound;
+    }
+    ranges.add(new UserIdRange(minUserId, null));
+
+    return ranges;
+  }
+}
@@ -0,0 +1,37 @@
+package org.iscalon.demo_batch.partition;
+
+import java.util.List;
+import java.util.Optional;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+
+/**
+ * File d'intervalles d'utilisateurs partagée par les workers d'une étape partitionnée. Elle est
+ * conservée en base, de sorte qu'une reprise ne retraite que les intervalles non terminés, à
+ * partir du dernier utilisateur validé.
+ */
+public interface UserRangeQueue {
+
+  /** Intervalle réclamé par un worker, avec sa progression déjà validée. */
+  record ClaimedRange(int rangeId, UserIdRange range, String lastUserId) {}
+
+  boolean exists(long queueId);
+
+  void fill(long queueId, List<UserIdRange> ranges);
+
+  /**
+   * Remet dans la file les intervalles réclamés mais non terminés lors d'une exécution précédente.
+   *
+   * @return le nombre d'intervalles remis dans la file
+   */
+  int releaseClaims(long queueId);
+
+  /**
+   * @return le prochain intervalle disponible, désormais réservé à {@code worker}, ou rien si la
+   *     file est vide
+   */
+  Optional<ClaimedRange> claim(long queueId, String worker);
+
+  void saveProgress(long queueId, int rangeId, String lastUserId);
+
+  void complete(long queueId, int rangeId);
+}
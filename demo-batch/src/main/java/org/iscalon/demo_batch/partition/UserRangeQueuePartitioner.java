@@ -0,0 +1,62 @@
+package org.iscalon.demo_batch.partition;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.springframework.batch.core.partition.Partitioner;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+
+/**
+ * Découpage dynamique : les utilisateurs sont répartis en {@code rangeCount} petits intervalles
+ * équilibrés en lignes, placés dans une {@link UserRangeQueue}, et chacun des {@code workerCount}
+ * workers réclame l'intervalle suivant dès qu'il a terminé le précédent. Un intervalle plus long
+ * que prévu ne retarde donc que le worker qui le traite, les autres se partageant le reste.
+ *
+ * <p>À la reprise d'une instance de job, la file existe déjà : elle n'est pas recalculée, seuls
+ * les intervalles réclamés et non terminés sont remis en attente.
+ */
+@Slf4j
+public class UserRangeQueuePartitioner implements Partitioner {
+
+  private final UserRowCounts statistics;
+  private final UserRangeQueue queue;
+  private final long queueId;
+  private final int workerCount;
+  private final int rangeCount;
+
+  public UserRangeQueuePartitioner(
+      UserRowCounts statistics,
+      UserRangeQueue queue,
+      long queueId,
+      int workerCount,
+      int rangeCount) {
+    this.statistics = statistics;
+    this.queue = queue;
+    this.queueId = queueId;
+    this.workerCount = workerCount;
+    this.rangeCount = rangeCount;
+  }
+
+  @Override
+  public Map<String, ExecutionContext> partition(int gridSize) {
+    if (queue.exists(queueId)) {
+      queue.releaseClaims(queueId);
+    } else {
+      List<UserIdRange> ranges = new UserRangePartitioner(statistics, rangeCount).computeRanges();
+      log.info("File {} : {} intervalles pour {} workers", queueId, ranges.size(), workerCount);
+      queue.fill(queueId, ranges);
+    }
+
+    Map<String, ExecutionContext> partitions = new HashMap<>();
+    for (int worker = 0; worker < workerCount; worker++) {
+      ExecutionContext context = new ExecutionContext();
+      new UserPartition.RangeQueue(queueId).writeTo(context);
+
+      partitions.put("partition-" + worker, context);
+    }
+
+    return partitions;
+  }
+}
@@ -0,0 +1,15 @@
+package org.iscalon.demo_batch.partition;
+
+/** Statistiques de volumétrie des données source, par utilisateur. */
+public interface UserRowCounts {
+
+  long totalRows();
+
+  /** Parcourt les utilisateurs par identifiant croissant avec leur nombre de lignes. */
+  void forEachUser(UserRowCountConsumer consumer);
+
+  @FunctionalInterface
+  interface UserRowCountConsumer {
+    void accept(String userId, long rowCount);
+  }
+}
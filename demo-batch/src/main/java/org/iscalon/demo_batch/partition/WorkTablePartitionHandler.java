@@ -0,0 +1,91 @@
+package org.iscalon.demo_batch.partition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.StepExecution;
+
+/**
+ * Manager du partitionnement distant : les exécutions de partition sont créées dans le dépôt
+ * Spring Batch comme en local, puis publiées dans la {@link PartitionWorkTable} au lieu d'être
+ * confiées à un exécuteur. Le manager attend ensuite que les workers les aient toutes terminées,
+ * en remettant en attente les partitions des workers qui ne se signalent plus, et renvoie leur
+ * état final lu dans le dépôt.
+ *
+ * <p>Aucun courtier de messages n'est nécessaire : manager et workers partagent la base des
+ * métadonnées.
+ */
+@Slf4j
+public class WorkTablePartitionHandler implements PartitionHandler {
+
+  private final PartitionWorkTable workTable;
+  private final JobRepository jobRepository;
+  private final String workerStepName;
+  private final int gridSize;
+  private final Duration pollInterval;
+  private final Duration staleTimeout;
+  private final Duration timeout;
+
+  /**
+   * @param staleTimeout délai sans signal de vie au-delà duquel une partition est réattribuée
+   * @param timeout durée maximale d'attente des workers
+   */
+  public WorkTablePartitionHandler(
+      PartitionWorkTable workTable,
+      JobRepository jobRepository,
+      String workerStepName,
+      int gridSize,
+      Duration pollInterval,
+      Duration staleTimeout,
+      Duration timeout) {
+    this.workTable = workTable;
+    this.jobRepository = jobRepository;
+    this.workerStepName = workerStepName;
+    this.gridSize = gridSize;
+    this.pollInterval = pollInterval;
+    this.staleTimeout = staleTimeout;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public Collection<StepExecution> handle(
+      StepExecutionSplitter stepSplitter, StepExecution managerStepExecution) throws Exception {
+    Set<StepExecution> partitions = stepSplitter.split(managerStepExecution, gridSize);
+    if (partitions.isEmpty()) {
+      return partitions;
+    }
+    long jobExecutionId = managerStepExecution.getJobExecutionId();
+    workTable.publish(workerStepName, partitions);
+
+    Instant deadline = Instant.now().plus(timeout);
+    int unfinished;
+    while ((unfinished = pendingPartitions(jobExecutionId)) > 0) {
+      if (Instant.now().isAfter(deadline)) {
+        throw new TimeoutException(
+            "%d partitions de %s non terminées après %s"
+                .formatted(unfinished, workerStepName, timeout));
+      }
+      Thread.sleep(pollInterval);
+    }
+    log.info("{} partitions de {} terminées par les workers", partitions.size(), workerStepName);
+
+    List<StepExecution> results = new ArrayList<>(partitions.size());
+    for (StepExecution partition : partitions) {
+      results.add(jobRepository.getStepExecution(jobExecutionId, partition.getId()));
+    }
+    return results;
+  }
+
+  private int pendingPartitions(long jobExecutionId) {
+    workTable.releaseStaleClaims(Instant.now().minus(staleTimeout));
+    return workTable.countUnfinished(jobExecutionId, workerStepName);
+  }
+}
@@ -0,0 +1,179 @@
+package org.iscalon.demo_batch.partition.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.partition.PartitionWorkTable;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Table de travail dans la base des métadonnées Spring Batch (table {@code partition_work}).
+ *
+ * <p>Comme pour {@link JdbcUserRangeQueue}, la réservation est optimiste : la première partition
+ * en attente est lue, puis réservée par un {@code UPDATE} conditionné à son statut. Les signaux de
+ * vie sont horodatés par l'horloge des workers, qui doivent donc être synchronisées à une fraction
+ * près du délai d'abandon.
+ */
+@Slf4j
+@Component
+class JdbcPartitionWorkTable implements PartitionWorkTable {
+
+  private static final String PENDING = "PENDING";
+  private static final String CLAIMED = "CLAIMED";
+  private static final String DONE = "DONE";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+  JdbcPartitionWorkTable(@Qualifier("batchJdbcTemplate") JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+  }
+
+  @Override
+  public void publish(String stepName, Collection<StepExecution> partitions) {
+    log.info("[ACCES BDD] : Publication de {} partitions de {}", partitions.size(), stepName);
+    List<StepExecution> executions = List.copyOf(partitions);
+    jdbcTemplate.batchUpdate(
+        """
+                  INSERT INTO partition_work(step_execution_id, job_execution_id, step_name, status)
+                  VALUES (?, ?, ?, ?)
+                  """,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            StepExecution execution = executions.get(i);
+            ps.setLong(1, execution.getId());
+            ps.setLong(2, execution.getJobExecutionId());
+            ps.setString(3, stepName);
+            ps.setString(4, PENDING);
+          }
+
+          @Override
+          public int getBatchSize() {
+            return executions.size();
+          }
+        });
+  }
+
+  @Override
+  public Optional<ClaimedPartition> claim(String worker, Set<String> stepNames) {
+    while (true) {
+      List<ClaimedPartition> candidates =
+          namedJdbcTemplate.query(
+              """
+                  SELECT step_execution_id, job_execution_id, step_name
+                  FROM partition_work
+                  WHERE status = :status AND step_name IN (:stepNames)
+                  ORDER BY step_execution_id
+                  LIMIT 1
+                  """,
+              new MapSqlParameterSource("status", PENDING).addValue("stepNames", stepNames),
+              (rs, rowNum) ->
+                  new ClaimedPartition(
+                      rs.getLong("job_execution_id"),
+                      rs.getLong("step_execution_id"),
+                      rs.getString("step_name")));
+      if (candidates.isEmpty()) {
+        return Optional.empty();
+      }
+
+      ClaimedPartition candidate = candidates.getFirst();
+      int claimed =
+          jdbcTemplate.update(
+              """
+                  UPDATE partition_work SET status = ?, claimed_by = ?, heartbeat_at = ?
+                  WHERE step_execution_id = ? AND status = ?
+                  """,
+              CLAIMED,
+              worker,
+              Timestamp.from(Instant.now()),
+              candidate.stepExecutionId(),
+              PENDING);
+      if (claimed == 1) {
+        log.info("[ACCES BDD] : {} réclame la partition {}", worker, candidate);
+        return Optional.of(candidate);
+      }
+    }
+  }
+
+  @Override
+  public boolean heartbeat(long stepExecutionId, String worker) {
+    int updated =
+        jdbcTemplate.update(
+            """
+                  UPDATE partition_work SET heartbeat_at = ?
+                  WHERE step_execution_id = ? AND claimed_by = ? AND status = ?
+                  """,
+            Timestamp.from(Instant.now()),
+            stepExecutionId,
+            worker,
+            CLAIMED);
+    if (updated == 0) {
+      log.warn("[ACCES BDD] : Partition {} n'est plus réservée à {}", stepExecutionId, worker);
+    }
+    return updated == 1;
+  }
+
+  @Override
+  public void complete(long stepExecutionId, String worker) {
+    int completed =
+        jdbcTemplate.update(
+            """
+                  UPDATE partition_work SET status = ?
+                  WHERE step_execution_id = ? AND claimed_by = ? AND status = ?
+                  """,
+            DONE,
+            stepExecutionId,
+            worker,
+            CLAIMED);
+    if (completed == 0) {
+      log.warn("Partition {} terminée par {} après avoir été réattribuée", stepExecutionId, worker);
+    }
+  }
+
+  @Override
+  public int releaseStaleClaims(Instant heartbeatBefore) {
+    int released =
+        jdbcTemplate.update(
+            """
+                  UPDATE partition_work
+                  SET status = ?, claimed_by = NULL, attempts = attempts + 1
+                  WHERE status = ? AND heartbeat_at < ?
+                  """,
+            PENDING,
+            CLAIMED,
+            Timestamp.from(heartbeatBefore));
+    if (released > 0) {
+      log.warn("[ACCES BDD] : {} partitions abandonnées remises en attente", released);
+    }
+    return released;
+  }
+
+  @Override
+  public int countUnfinished(long jobExecutionId, String stepName) {
+    Integer count =
+        jdbcTemplate.queryForObject(
+            """
+                  SELECT COUNT(*) FROM partition_work
+                  WHERE job_execution_id = ? AND step_name = ? AND status <> ?
+                  """,
+            Integer.class,
+            jobExecutionId,
+            stepName,
+            DONE);
+    return count == null ? 0 : count;
+  }
+}
@@ -0,0 +1,147 @@
+package org.iscalon.demo_batch.partition.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.iscalon.demo_batch.partition.UserRangeQueue;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * File d'intervalles dans la base des métadonnées Spring Batch (table {@code user_range_queue}).
+ *
+ * <p>La réservation est optimiste : le premier intervalle libre est lu, puis réservé par un {@code
+ * UPDATE} conditionné à son statut. Si un autre worker l'a pris entre-temps, on passe au suivant.
+ * Aucun verrou n'est donc tenu entre deux ordres, quelle que soit la base.
+ */
+@Slf4j
+@Component
+class JdbcUserRangeQueue implements UserRangeQueue {
+
+  private static final String PENDING = "PENDING";
+  private static final String CLAIMED = "CLAIMED";
+  private static final String DONE = "DONE";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  JdbcUserRangeQueue(@Qualifier("batchJdbcTemplate") JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public boolean exists(long queueId) {
+    Integer count =
+        jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM user_range_queue WHERE queue_id = ?", Integer.class, queueId);
+    return count != null && count > 0;
+  }
+
+  @Override
+  public void fill(long queueId, List<UserIdRange> ranges) {
+    log.info("[ACCES BDD] : Création de la file {} avec {} intervalles", queueId, ranges.size());
+    jdbcTemplate.batchUpdate(
+        """
+                  INSERT INTO user_range_queue(queue_id, range_id, min_user_id, max_user_id, status)
+                  VALUES (?, ?, ?, ?, ?)
+                  """,
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int rangeId) throws SQLException {
+            UserIdRange range = ranges.get(rangeId);
+            ps.setLong(1, queueId);
+            ps.setInt(2, rangeId);
+            ps.setString(3, range.minUserId());
+            ps.setString(4, range.maxUserId());
+            ps.setString(5, PENDING);
+          }
+
+          @Override
+          public int getBatchSize() {
+            return ranges.size();
+          }
+        });
+  }
+
+  @Override
+  public int releaseClaims(long queueId) {
+    int released =
+        jdbcTemplate.update(
+            """
+                  UPDATE user_range_queue SET status = ?, claimed_by = NULL
+                  WHERE queue_id = ? AND status = ?
+                  """,
+            PENDING,
+            queueId,
+            CLAIMED);
+    log.info("[ACCES BDD] : {} intervalles de la file {} remis en attente", released, queueId);
+    return released;
+  }
+
+  @Override
+  public Optional<ClaimedRange> claim(long queueId, String worker) {
+    while (true) {
+      List<ClaimedRange> candidates =
+          jdbcTemplate.query(
+              """
+                  SELECT range_id, min_user_id, max_user_id, last_user_id
+                  FROM user_range_queue
+                  WHERE queue_id = ? AND status = ?
+                  ORDER BY range_id
+                  LIMIT 1
+                  """,
+              (rs, rowNum) ->
+                  new ClaimedRange(
+                      rs.getInt("range_id"),
+                      new UserIdRange(rs.getString("min_user_id"), rs.getString("max_user_id")),
+                      rs.getString("last_user_id")),
+              queueId,
+              PENDING);
+      if (candidates.isEmpty()) {
+        return Optional.empty();
+      }
+
+      ClaimedRange candidate = candidates.getFirst();
+      int claimed =
+          jdbcTemplate.update(
+              """
+                  UPDATE user_range_queue SET status = ?, claimed_by = ?
+                  WHERE queue_id = ? AND range_id = ? AND status = ?
+                  """,
+              CLAIMED,
+              worker,
+              queueId,
+              candidate.rangeId(),
+              PENDING);
+      if (claimed == 1) {
+        log.info("[ACCES BDD] : {} réclame l'intervalle {}", worker, candidate);
+        return Optional.of(candidate);
+      }
+    }
+  }
+
+  @Override
+  public void saveProgress(long queueId, int rangeId, String lastUserId) {
+    jdbcTemplate.update(
+        "UPDATE user_range_queue SET last_user_id = ? WHERE queue_id = ? AND range_id = ?",
+        lastUserId,
+        queueId,
+        rangeId);
+  }
+
+  @Override
+  public void complete(long queueId, int rangeId) {
+    jdbcTemplate.update(
+        """
+                  UPDATE user_range_queue SET status = ?, claimed_by = NULL
+                  WHERE queue_id = ? AND range_id = ?
+                  """,
+        DONE,
+        queueId,
+        rangeId);
+  }
+}
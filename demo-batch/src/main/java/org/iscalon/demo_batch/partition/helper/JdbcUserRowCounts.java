@@ -0,0 +1,49 @@
+package org.iscalon.demo_batch.partition.helper;
+
+import java.sql.PreparedStatement;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.partition.UserRowCounts;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+class JdbcUserRowCounts implements UserRowCounts {
+
+  /** Les utilisateurs sont parcourus en flux : inutile de tout rapatrier en un aller-retour. */
+  private static final int FETCH_SIZE = 10_000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  JdbcUserRowCounts(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public long totalRows() {
+    log.info("[ACCES BDD] : Comptage des lignes source");
+    Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM source_data", Long.class);
+    return count == null ? 0 : count;
+  }
+
+  @Override
+  public void forEachUser(UserRowCountConsumer consumer) {
+    log.info("[ACCES BDD] : Parcours du nombre de lignes par utilisateur");
+    String sql =
+        """
+                  SELECT user_id, COUNT(*) AS row_count
+                  FROM source_data
+                  GROUP BY user_id
+                  ORDER BY user_id
+                  """;
+
+    jdbcTemplate.query(
+        connection -> {
+          PreparedStatement statement = connection.prepareStatement(sql);
+          statement.setFetchSize(FETCH_SIZE);
+          return statement;
+        },
+        rs -> consumer.accept(rs.getString("user_id"), rs.getLong("row_count")));
+  }
+}
@@ -0,0 +1,113 @@
+package org.iscalon.demo_batch.reader;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import lombok.RequiredArgsConstructor;
+import org.iscalon.demo_batch.domain.UserFingerprint;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.out.repository.DocumentDataRepository;
+import org.iscalon.demo_batch.out.repository.UserFingerprintRepository;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+
+/**
+ * Ajoute à chaque utilisateur chargé l'empreinte de ses données d'entrée, comparée à celle de son
+ * dernier calcul : les lecteurs écartent ensuite les utilisateurs {@link UserWorkUnit#unchanged()
+ * inchangés}.
+ *
+ * <p>Les montants et les empreintes enregistrées sont lus en une requête par page, ou par lot de
+ * {@code fetchSize} utilisateurs pour un curseur. Les montants passent par le cache des documents :
+ * ceux des utilisateurs recalculés y sont retrouvés par l'écriture du chunk.
+ *
+ * <p>Les utilisateurs écartés font partie des pages renvoyées, dont la taille garde ainsi son sens
+ * pour les lecteurs (une page incomplète est la dernière).
+ */
+@RequiredArgsConstructor
+public class FingerprintingUserLoadingStrategy implements UserLoadingStrategy {
+
+  private final UserLoadingStrategy delegate;
+  private final DocumentDataRepository documents;
+  private final UserFingerprintRepository fingerprints;
+
+  @Override
+  public String key() {
+    return delegate.key();
+  }
+
+  @Override
+  public List<UserWorkUnit> load(UserPartition partition, int pageSize, String lastUserId) {
+    return fingerprinted(delegate.load(partition, pageSize, lastUserId));
+  }
+
+  @Override
+  public UserCursor stream(UserPartition partition, int fetchSize, String lastUserId) {
+    return new FingerprintingCursor(delegate.stream(partition, fetchSize, lastUserId), fetchSize);
+  }
+
+  @Override
+  public boolean followsSqlPartitions() {
+    return delegate.followsSqlPartitions();
+  }
+
+  @Override
+  public UserLoadingStrategy pendingOnly() {
+    return new FingerprintingUserLoadingStrategy(delegate.pendingOnly(), documents, fingerprints);
+  }
+
+  private List<UserWorkUnit> fingerprinted(List<UserWorkUnit> users) {
+    if (users.isEmpty()) {
+      return users;
+    }
+    LongLongHashMap amountsInCents =
+        documents.findAmountsInCents(UserWorkUnit.distinctDocumentIds(users));
+    Map<String, Long> previous =
+        fingerprints.findFingerprints(users.stream().map(UserWorkUnit::userId).toList());
+
+    List<UserWorkUnit> fingerprinted = new ArrayList<>(users.size());
+    for (UserWorkUnit user : users) {
+      long value = UserFingerprint.valueOf(user.references(), amountsInCents);
+      Long previousValue = previous.get(user.userId());
+      boolean unchanged = previousValue != null && previousValue == value;
+      fingerprinted.add(user.withFingerprint(new UserFingerprint(value, unchanged)));
+    }
+    return fingerprinted;
+  }
+
+  /**
+   * Lit les utilisateurs du curseur délégué par lots. La lecture anticipée reste interne au
+   * curseur : le point de reprise du lecteur ne porte que sur les utilisateurs qu'il a reçus.
+   */
+  private final class FingerprintingCursor implements UserCursor {
+
+    private final Queue<UserWorkUnit> buffer = new ArrayDeque<>();
+    private final UserCursor cursor;
+    private final int batchSize;
+
+    private FingerprintingCursor(UserCursor cursor, int batchSize) {
+      this.cursor = cursor;
+      this.batchSize = batchSize;
+    }
+
+    @Override
+    public UserWorkUnit next() {
+      if (buffer.isEmpty()) {
+        List<UserWorkUnit> batch = new ArrayList<>(batchSize);
+        UserWorkUnit user;
+        while (batch.size() < batchSize && (user = cursor.next()) != null) {
+          batch.add(user);
+        }
+        buffer.addAll(fingerprinted(batch));
+      }
+      return buffer.poll();
+    }
+
+    @Override
+    public void close() {
+      buffer.clear();
+      cursor.close();
+    }
+  }
+}
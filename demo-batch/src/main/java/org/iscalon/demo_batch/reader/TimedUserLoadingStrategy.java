@@ -0,0 +1,41 @@
+package org.iscalon.demo_batch.reader;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.metrics.PartitionMetrics;
+import org.iscalon.demo_batch.partition.UserPartition;
+
+/** Mesure le temps passé à charger les utilisateurs d'une partition. */
+@RequiredArgsConstructor
+public class TimedUserLoadingStrategy implements UserLoadingStrategy {
+
+  private final UserLoadingStrategy delegate;
+  private final PartitionMetrics metrics;
+
+  @Override
+  public String key() {
+    return delegate.key();
+  }
+
+  @Override
+  public List<UserWorkUnit> load(UserPartition partition, int pageSize, String lastUserId) {
+    return metrics.timeUsersLoad(() -> delegate.load(partition, pageSize, lastUserId));
+  }
+
+  /** Seule l'ouverture du curseur est mesurée, la lecture est comptée dans les chunks. */
+  @Override
+  public UserCursor stream(UserPartition partition, int fetchSize, String lastUserId) {
+    return metrics.timeUsersLoad(() -> delegate.stream(partition, fetchSize, lastUserId));
+  }
+
+  @Override
+  public boolean followsSqlPartitions() {
+    return delegate.followsSqlPartitions();
+  }
+
+  @Override
+  public UserLoadingStrategy pendingOnly() {
+    return new TimedUserLoadingStrategy(delegate.pendingOnly(), metrics);
+  }
+}
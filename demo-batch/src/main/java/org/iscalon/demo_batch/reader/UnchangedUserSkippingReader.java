@@ -0,0 +1,65 @@
+package org.iscalon.demo_batch.reader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.metrics.PartitionMetrics;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+
+/**
+ * Écarte les utilisateurs dont les données d'entrée n'ont pas changé depuis leur dernier calcul
+ * (empreintes ajoutées par {@link FingerprintingUserLoadingStrategy}) : ils ne sont ni recalculés
+ * ni réécrits.
+ *
+ * <p>Le lecteur délégué lit tous les utilisateurs : son point de reprise avance aussi sur les
+ * utilisateurs écartés, qu'une reprise n'a pas à relire.
+ */
+@Slf4j
+public class UnchangedUserSkippingReader implements ItemStreamReader<UserWorkUnit> {
+
+  private final ItemStreamReader<UserWorkUnit> delegate;
+  private final PartitionMetrics metrics;
+
+  private long skippedCount;
+  private long recomputedCount;
+
+  public UnchangedUserSkippingReader(
+      ItemStreamReader<UserWorkUnit> delegate, PartitionMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public UserWorkUnit read() throws Exception {
+    UserWorkUnit next = delegate.read();
+    while (next != null && next.unchanged()) {
+      skippedCount++;
+      metrics.recordUserSkipped();
+      next = delegate.read();
+    }
+    if (next != null) {
+      recomputedCount++;
+      metrics.recordUserRecomputed();
+    }
+    return next;
+  }
+
+  @Override
+  public void open(ExecutionContext executionContext) {
+    delegate.open(executionContext);
+  }
+
+  @Override
+  public void update(ExecutionContext executionContext) {
+    delegate.update(executionContext);
+  }
+
+  @Override
+  public void close() {
+    log.info(
+        "Empreintes : {} utilisateurs inchangés écartés, {} recalculés",
+        skippedCount,
+        recomputedCount);
+    delegate.close();
+  }
+}
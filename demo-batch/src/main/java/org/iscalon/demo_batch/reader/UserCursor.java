@@ -0,0 +1,19 @@
+package org.iscalon.demo_batch.reader;
+
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+
+/**
+ * Curseur en lecture seule (avant uniquement) sur les utilisateurs d'une partition, triés par
+ * identifiant. Les lignes consécutives d'un même utilisateur sont regroupées en un seul {@link
+ * UserWorkUnit}.
+ */
+public interface UserCursor extends AutoCloseable {
+
+  /**
+   * @return l'utilisateur suivant, ou {@code null} lorsque le curseur est épuisé
+   */
+  UserWorkUnit next();
+
+  @Override
+  void close();
+}
@@ -3,32 +3,60 @@ package org.iscalon.demo_batch.reader;
 import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
 import lombok.extern.slf4j.Slf4j;
 import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.logging.ItemTracer;
+import org.iscalon.demo_batch.partition.UserPartition;
 import org.springframework.batch.infrastructure.item.ExecutionContext;
 import org.springframework.batch.infrastructure.item.ItemStreamReader;
 
 @Slf4j
 public class UserDocumentsPagingReader implements ItemStreamReader<UserWorkUnit> {
 
-  private static final String LAST_USER_ID_KEY = "lastUserId";
+  public static final String LAST_USER_ID_KEY = "lastUserId";
 
   private final Queue<UserWorkUnit> buffer = new ArrayDeque<>();
   private final UserLoadingStrategy users;
-  private final int bucket;
-  private final int bucketCount;
-  private final int pageSize;
+  private final UserPartition partition;
 
+  /** Taille des pages, relue à chaque chargement pour suivre la taille de chunk courante. */
+  private final IntSupplier pageSize;
 
+  /** Exécuteur du pré-chargement de la page suivante, {@code null} si désactivé. */
+  private final Executor prefetchExecutor;
+
+  private final ItemTracer tracer;
+
+  private CompletableFuture<List<UserWorkUnit>> nextPage;
+  private int nextPageSize;
   private String lastUserId;
   private boolean finished;
 
   public UserDocumentsPagingReader(
-      UserLoadingStrategy users, int bucket, int bucketCount, int pageSize) {
+      UserLoadingStrategy users, UserPartition partition, int pageSize) {
+    this(users, partition, () -> pageSize, null, ItemTraceMode.SAMPLED);
+  }
+
+  /**
+   * Lecteur qui charge la page suivante en arrière-plan dès qu'une page est reçue : la requête
+   * s'exécute pendant le calcul et l'écriture du chunk courant. Au plus une page est pré-chargée.
+   */
+  public UserDocumentsPagingReader(
+      UserLoadingStrategy users,
+      UserPartition partition,
+      IntSupplier pageSize,
+      Executor prefetchExecutor,
+      ItemTraceMode traceMode) {
     this.users = users;
-    this.bucket = bucket;
-    this.bucketCount = bucketCount;
+    this.partition = partition;
     this.pageSize = pageSize;
+    this.prefetchExecutor = prefetchExecutor;
+    this.tracer = new ItemTracer(log, traceMode);
   }
 
   @Override
@@ -38,8 +66,8 @@ public class UserDocumentsPagingReader implements ItemStreamReader<UserWorkUnit>
     }
 
     UserWorkUnit next = buffer.poll();
-    log.info("Ajout de : {} au chunck", next);
     if (next != null) {
+      tracer.trace("Ajout de : {} au chunck", next);
       lastUserId = next.userId();
     }
 
@@ -47,12 +75,46 @@ public class UserDocumentsPagingReader implements ItemStreamReader<UserWorkUnit>
   }
 
   private void loadNextPage() {
-    List<UserWorkUnit> page = users.load(bucket, bucketCount, pageSize, lastUserId);
+    int requestedSize;
+    List<UserWorkUnit> page;
+    if (nextPage != null) {
+      requestedSize = nextPageSize;
+      page = awaitNextPage();
+    } else {
+      requestedSize = pageSize.getAsInt();
+      page = loadPageAfter(lastUserId, requestedSize);
+    }
 
-    if (page.isEmpty()) {
+    // Une page incomplète est forcément la dernière : inutile de lancer une requête de plus.
+    if (page.size() < requestedSize) {
       finished = true;
-    } else {
-      buffer.addAll(page);
+    }
+    buffer.addAll(page);
+
+    if (!finished && prefetchExecutor != null) {
+      String pageLastUserId = page.getLast().userId();
+      int size = pageSize.getAsInt();
+      nextPageSize = size;
+      nextPage =
+          CompletableFuture.supplyAsync(
+              () -> loadPageAfter(pageLastUserId, size), prefetchExecutor);
+    }
+  }
+
+  private List<UserWorkUnit> loadPageAfter(String userId, int size) {
+    return users.load(partition, size, userId);
+  }
+
+  private List<UserWorkUnit> awaitNextPage() {
+    try {
+      return nextPage.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    } finally {
+      nextPage = null;
     }
   }
 
@@ -65,6 +127,10 @@ public class UserDocumentsPagingReader implements ItemStreamReader<UserWorkUnit>
 
   @Override
   public void update(ExecutionContext executionContext) {
+    // Les utilisateurs pré-chargés mais pas encore lus ne sont pas pris en compte : une reprise
+    // les relira.
+    tracer.summarize(
+        "{} utilisateurs lus depuis le dernier point de validation, dernier : {}", lastUserId);
     if (lastUserId != null) {
       executionContext.putString(LAST_USER_ID_KEY, lastUserId);
     }
@@ -72,6 +138,10 @@ public class UserDocumentsPagingReader implements ItemStreamReader<UserWorkUnit>
 
   @Override
   public void close() {
+    if (nextPage != null) {
+      nextPage.cancel(false);
+      nextPage = null;
+    }
     buffer.clear();
   }
 }
@@ -0,0 +1,83 @@
+package org.iscalon.demo_batch.reader;
+
+import static org.iscalon.demo_batch.reader.UserDocumentsPagingReader.LAST_USER_ID_KEY;
+
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.logging.ItemTracer;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+
+/**
+ * Lecteur des utilisateurs d'une partition en une seule passe : un curseur est ouvert à {@link
+ * #open(ExecutionContext)} et parcouru jusqu'à épuisement, au lieu de ré-exécuter la requête
+ * agrégée pour chaque page comme {@link UserDocumentsPagingReader}.
+ *
+ * <p>Le dernier utilisateur lu est sauvegardé dans le contexte d'exécution sous la même clé que le
+ * lecteur paginé, ce qui permet de reprendre un traitement interrompu dans l'un ou l'autre mode.
+ */
+@Slf4j
+public class UserDocumentsStreamingReader implements ItemStreamReader<UserWorkUnit> {
+
+  private final UserLoadingStrategy users;
+  private final UserPartition partition;
+  private final int fetchSize;
+  private final ItemTracer tracer;
+
+  private UserCursor cursor;
+  private String lastUserId;
+
+  public UserDocumentsStreamingReader(
+      UserLoadingStrategy users, UserPartition partition, int fetchSize) {
+    this(users, partition, fetchSize, ItemTraceMode.SAMPLED);
+  }
+
+  public UserDocumentsStreamingReader(
+      UserLoadingStrategy users,
+      UserPartition partition,
+      int fetchSize,
+      ItemTraceMode traceMode) {
+    this.users = users;
+    this.partition = partition;
+    this.fetchSize = fetchSize;
+    this.tracer = new ItemTracer(log, traceMode);
+  }
+
+  @Override
+  public void open(ExecutionContext executionContext) {
+    if (executionContext.containsKey(LAST_USER_ID_KEY)) {
+      this.lastUserId = executionContext.getString(LAST_USER_ID_KEY);
+    }
+    this.cursor = users.stream(partition, fetchSize, lastUserId);
+  }
+
+  @Override
+  public UserWorkUnit read() {
+    UserWorkUnit next = cursor.next();
+    if (next != null) {
+      tracer.trace("Ajout de : {} au chunck", next);
+      lastUserId = next.userId();
+    }
+
+    return next;
+  }
+
+  @Override
+  public void update(ExecutionContext executionContext) {
+    tracer.summarize(
+        "{} utilisateurs lus depuis le dernier point de validation, dernier : {}", lastUserId);
+    if (lastUserId != null) {
+      executionContext.putString(LAST_USER_ID_KEY, lastUserId);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (cursor != null) {
+      cursor.close();
+      cursor = null;
+    }
+  }
+}
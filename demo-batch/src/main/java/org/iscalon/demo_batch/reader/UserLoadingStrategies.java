@@ -0,0 +1,44 @@
+package org.iscalon.demo_batch.reader;
+
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stratégies de chargement des utilisateurs disponibles, indexées par leur {@link
+ * UserLoadingStrategy#key() clé}. La stratégie d'un lancement est choisie par le paramètre de job
+ * {@code loader}.
+ */
+@Component
+public class UserLoadingStrategies {
+
+  /** Lecture en base ({@code source_data}) */
+  public static final String DEFAULT_KEY = "JDBC_LOADER";
+
+  /** Lecture par la répartition matérialisée {@code user_bucket} (découpage HASH) */
+  public static final String BUCKET_KEY = "BUCKET_LOADER";
+
+  /** Les clés sont lues à chaque sélection, une stratégie pouvant la calculer tardivement. */
+  private final List<UserLoadingStrategy> strategies;
+
+  UserLoadingStrategies(List<UserLoadingStrategy> strategies) {
+    this.strategies = List.copyOf(strategies);
+  }
+
+  /**
+   * @throws IllegalArgumentException si aucune stratégie, ou plusieurs, portent cette clé
+   */
+  public UserLoadingStrategy get(String key) {
+    List<UserLoadingStrategy> matching =
+        strategies.stream().filter(strategy -> strategy.key().equals(key)).toList();
+    if (matching.size() != 1) {
+      throw new IllegalArgumentException(
+          "Chargement des utilisateurs %s : %d stratégie(s) sur %s"
+              .formatted(key, matching.size(), keys()));
+    }
+    return matching.getFirst();
+  }
+
+  private List<String> keys() {
+    return strategies.stream().map(UserLoadingStrategy::key).sorted().toList();
+  }
+}
@@ -1,6 +1,7 @@
 package org.iscalon.demo_batch.reader;
 
 import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.partition.UserPartition;
 
 import java.util.List;
 
@@ -8,5 +9,40 @@ public interface UserLoadingStrategy {
 
   String key();
 
-  List<UserWorkUnit> load(int bucket, int bucketCount, int pageSize, String lastUserId);
+  List<UserWorkUnit> load(UserPartition partition, int pageSize, String lastUserId);
+
+  /**
+   * Ouvre un curseur unique sur tous les utilisateurs de la partition situés après {@code
+   * lastUserId}. L'appelant est responsable de la fermeture du curseur.
+   */
+  UserCursor stream(UserPartition partition, int fetchSize, String lastUserId);
+
+  /**
+   * Indique si les utilisateurs lus pour une partition sont exactement ceux du prédicat {@link
+   * org.iscalon.demo_batch.partition.UserPartitionSql} de cette partition. Sinon, les traitements
+   * ensemblistes par partition (suppression des résultats à la reprise) ne sont pas applicables.
+   */
+  default boolean followsSqlPartitions() {
+    return true;
+  }
+
+  /**
+   * Instance utilisée par une exécution d'étape, qui peut conserver ce que la stratégie ne lit
+   * qu'une fois par étape plutôt qu'à chaque page ou curseur. Par défaut, la stratégie elle-même.
+   */
+  default UserLoadingStrategy forStep() {
+    return this;
+  }
+
+  /**
+   * Variante restreinte aux utilisateurs ayant au moins une ligne {@code PENDING} dans {@code
+   * source_data} (mode incrémental). Tous les documents de ces utilisateurs sont chargés, le cumul
+   * portant sur l'ensemble de leurs documents.
+   *
+   * @throws UnsupportedOperationException si la source ne connaît pas le statut des lignes
+   */
+  default UserLoadingStrategy pendingOnly() {
+    throw new UnsupportedOperationException(
+        "Le chargement %s ne permet pas le mode incrémental".formatted(key()));
+  }
 }
@@ -0,0 +1,148 @@
+package org.iscalon.demo_batch.reader;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.logging.ItemTracer;
+import org.iscalon.demo_batch.partition.UserRangeQueue;
+import org.iscalon.demo_batch.partition.UserRangeQueue.ClaimedRange;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamReader;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Lecteur d'un worker en découpage dynamique : il réclame un intervalle dans la file, le lit page
+ * par page, puis réclame le suivant, jusqu'à ce que la file soit vide.
+ *
+ * <p>La progression est enregistrée dans la file et non dans le contexte d'exécution, puisqu'un
+ * intervalle interrompu peut être repris par n'importe quel worker : à chaque point de validation,
+ * le dernier utilisateur lu de l'intervalle en cours est sauvegardé et les intervalles épuisés
+ * sont marqués terminés.
+ *
+ * <p>La file est dans la base des métadonnées, les résultats dans la base de données : la
+ * progression n'est enregistrée qu'une fois la transaction du chunk validée, donc ses résultats
+ * écrits. Si cet enregistrement échoue, la reprise relit au plus les utilisateurs du chunk, dont
+ * les résultats sont fusionnés ou remplacés. Les insertions asynchrones du mode pipeline ne sont
+ * pas confirmées par cette transaction : ce mode est refusé avec la file.
+ */
+@Slf4j
+public class UserRangeQueueReader implements ItemStreamReader<UserWorkUnit> {
+
+  private final Queue<UserWorkUnit> buffer = new ArrayDeque<>();
+  private final List<ClaimedRange> exhaustedRanges = new ArrayList<>();
+  private final UserRangeQueue queue;
+  private final long queueId;
+  private final String worker;
+  private final UserLoadingStrategy users;
+  private final int pageSize;
+  private final ItemTracer tracer;
+
+  private ClaimedRange current;
+  private String lastUserId;
+  private boolean lastPage;
+  private boolean queueEmpty;
+
+  public UserRangeQueueReader(
+      UserRangeQueue queue,
+      long queueId,
+      String worker,
+      UserLoadingStrategy users,
+      int pageSize) {
+    this(queue, queueId, worker, users, pageSize, ItemTraceMode.SAMPLED);
+  }
+
+  public UserRangeQueueReader(
+      UserRangeQueue queue,
+      long queueId,
+      String worker,
+      UserLoadingStrategy users,
+      int pageSize,
+      ItemTraceMode traceMode) {
+    this.queue = queue;
+    this.queueId = queueId;
+    this.worker = worker;
+    this.users = users;
+    this.pageSize = pageSize;
+    this.tracer = new ItemTracer(log, traceMode);
+  }
+
+  @Override
+  public UserWorkUnit read() {
+    while (buffer.isEmpty() && !queueEmpty) {
+      if (current == null) {
+        claimNextRange();
+      } else if (lastPage) {
+        exhaustedRanges.add(current);
+        current = null;
+      } else {
+        List<UserWorkUnit> page = users.load(current.range(), pageSize, lastUserId);
+        lastPage = page.size() < pageSize;
+        buffer.addAll(page);
+      }
+    }
+
+    UserWorkUnit next = buffer.poll();
+    if (next != null) {
+      tracer.trace("Ajout de : {} au chunck", next);
+      lastUserId = next.userId();
+    }
+
+    return next;
+  }
+
+  private void claimNextRange() {
+    queue
+        .claim(queueId, worker)
+        .ifPresentOrElse(
+            range -> {
+              current = range;
+              lastUserId = range.lastUserId();
+              lastPage = false;
+            },
+            () -> queueEmpty = true);
+  }
+
+  @Override
+  public void update(ExecutionContext executionContext) {
+    tracer.summarize(
+        "{} utilisateurs lus depuis le dernier point de validation, dernier : {}", lastUserId);
+    List<ClaimedRange> completed = List.copyOf(exhaustedRanges);
+    exhaustedRanges.clear();
+    ClaimedRange inProgress = lastUserId == null ? null : current;
+    String progress = lastUserId;
+    afterChunkCommit(
+        () -> {
+          for (ClaimedRange range : completed) {
+            queue.complete(queueId, range.rangeId());
+          }
+          if (inProgress != null) {
+            queue.saveProgress(queueId, inProgress.rangeId(), progress);
+          }
+        });
+  }
+
+  /** Exécute {@code action} après la validation de la transaction du chunk, s'il y en a une. */
+  private static void afterChunkCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+
+  @Override
+  public void close() {
+    buffer.clear();
+  }
+}
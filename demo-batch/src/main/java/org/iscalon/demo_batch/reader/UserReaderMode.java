@@ -0,0 +1,12 @@
+package org.iscalon.demo_batch.reader;
+
+/**
+ * Mode de lecture des utilisateurs d'une partition, choisi via le paramètre de job {@code
+ * readerMode}.
+ */
+public enum UserReaderMode {
+  /** Une requête agrégée ({@code GROUP BY user_id ... LIMIT}) par page d'utilisateurs. */
+  PAGING,
+  /** Un unique curseur par partition, les documents étant regroupés par utilisateur à la volée. */
+  STREAMING
+}
@@ -0,0 +1,313 @@
+package org.iscalon.demo_batch.reader.helper;
+
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.partition.UserPartition.HashBucket;
+import org.iscalon.demo_batch.partition.UserPartition.RangeQueue;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.iscalon.demo_batch.reader.UserCursor;
+import org.iscalon.demo_batch.reader.UserLoadingStrategy;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chargement des utilisateurs depuis un export de {@code source_data}, sans solliciter la base.
+ *
+ * <p>Le fichier contient une ligne {@code user_id;v_ref} par document, triée par {@code (user_id,
+ * v_ref)} (par exemple {@code SELECT user_id, v_ref FROM source_data ORDER BY user_id, v_ref}),
+ * avec une ligne d'en-tête facultative. Il est projeté en mémoire une fois pour toutes et lu sans
+ * copie : seuls l'identifiant de chaque utilisateur et ses références sont matérialisés.
+ *
+ * <p>Chaque partition correspond à une plage d'octets du fichier, alignée sur le début d'un
+ * utilisateur :
+ *
+ * <ul>
+ *   <li>{@link UserIdRange} : bornes localisées par recherche dichotomique sur les identifiants ;
+ *   <li>{@link HashBucket} : le fichier est découpé en {@code bucketCount} tranches de tailles
+ *       égales. Ces tranches ne correspondent pas au hachage {@code ORA_HASH} de la base.
+ * </ul>
+ *
+ * Activé par la propriété {@code demo-batch.file-loader.path}, sélectionné par le paramètre de job
+ * {@code loader=FILE_LOADER}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "demo-batch.file-loader", name = "path")
+class FileUserLoadingStrategy implements UserLoadingStrategy, DisposableBean {
+
+  static final String KEY = "FILE_LOADER";
+
+  private static final byte SEPARATOR = ';';
+  private static final byte NEW_LINE = '\n';
+  private static final byte CARRIAGE_RETURN = '\r';
+  private static final String HEADER = "user_id";
+
+  private final Path path;
+
+  /** Projection partagée : les pages peuvent être pré-chargées sur un autre thread. */
+  private final Arena arena = Arena.ofShared();
+
+  private final MemorySegment file;
+  private final long size;
+
+  /** Début de la première ligne de données, après l'en-tête éventuel */
+  private final long dataStart;
+
+  FileUserLoadingStrategy(@Value("${demo-batch.file-loader.path}") Path path) {
+    this.path = path;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      this.file = channel.map(MapMode.READ_ONLY, 0, channel.size(), arena);
+    } catch (IOException e) {
+      arena.close();
+      throw new UncheckedIOException("Projection de l'export " + path, e);
+    }
+    this.size = file.byteSize();
+    this.dataStart = size > 0 && userIdAt(0).equals(HEADER) ? nextLine(0) : 0;
+    log.info("Export des utilisateurs {} projeté en mémoire ({} octets)", path, size);
+  }
+
+  @Override
+  public String key() {
+    return KEY;
+  }
+
+  /** Les tranches d'un {@link HashBucket} ne suivent pas le prédicat SQL de la partition. */
+  @Override
+  public boolean followsSqlPartitions() {
+    return false;
+  }
+
+  @Override
+  public List<UserWorkUnit> load(UserPartition partition, int pageSize, String lastUserId) {
+    log.info(
+        "Chargement de {} nouveaux utilisateurs de {} à partir de l'id : {} ({})",
+        pageSize,
+        partition,
+        lastUserId,
+        path);
+    List<UserWorkUnit> users = new ArrayList<>(pageSize);
+    try (UserCursor cursor = stream(partition, pageSize, lastUserId)) {
+      UserWorkUnit user;
+      while (users.size() < pageSize && (user = cursor.next()) != null) {
+        users.add(user);
+      }
+    }
+    return users;
+  }
+
+  /** Le fichier étant déjà projeté, {@code fetchSize} est sans objet. */
+  @Override
+  public UserCursor stream(UserPartition partition, int fetchSize, String lastUserId) {
+    ByteRange range = rangeOf(partition);
+    if (lastUserId == null) {
+      return new FileUserCursor(range.start(), range.end());
+    }
+    return new FileUserCursor(firstLine(lastUserId, true, range.start(), range.end()), range.end());
+  }
+
+  private ByteRange rangeOf(UserPartition partition) {
+    return switch (partition) {
+      case UserIdRange(String minUserId, String maxUserId) -> {
+        long start = minUserId == null ? dataStart : firstLine(minUserId, false, dataStart, size);
+        long end = maxUserId == null ? size : firstLine(maxUserId, false, start, size);
+        yield new ByteRange(start, end);
+      }
+      case HashBucket(int bucket, int bucketCount) ->
+          new ByteRange(sliceStart(bucket, bucketCount), sliceStart(bucket + 1, bucketCount));
+      case RangeQueue queue ->
+          throw new IllegalArgumentException(
+              "Les intervalles de la file %d doivent être réclamés avant d'être lus"
+                  .formatted(queue.queueId()));
+    };
+  }
+
+  /** Plage {@code [start, end)} d'octets, bornes alignées sur des débuts de ligne */
+  private record ByteRange(long start, long end) {}
+
+  @Override
+  public void destroy() {
+    arena.close();
+  }
+
+  /**
+   * Début de la tranche {@code slice} sur {@code sliceCount} : position proportionnelle, avancée
+   * jusqu'au premier utilisateur qui commence après elle.
+   */
+  private long sliceStart(int slice, int sliceCount) {
+    if (slice == 0) {
+      return dataStart;
+    }
+    if (slice >= sliceCount) {
+      return size;
+    }
+    long line = lineStartAtOrAfter(dataStart + (size - dataStart) * slice / sliceCount);
+    if (line == dataStart || line >= size) {
+      return line;
+    }
+    long previous = lineStartBefore(line);
+    while (line < size && sameUser(previous, line)) {
+      line = nextLine(line);
+    }
+    return line;
+  }
+
+  /**
+   * Recherche dichotomique, sur les positions en octets, de la première ligne de {@code [from,
+   * to)} dont l'utilisateur est supérieur (ou égal si {@code strictlyAfter} est faux) à {@code
+   * userId}.
+   *
+   * <p>Invariant : les lignes commençant avant {@code low} sont inférieures à la cible, celles
+   * commençant à partir de {@code high} lui sont supérieures.
+   *
+   * @return le début de cette ligne, ou {@code to} si aucune ne convient
+   */
+  private long firstLine(String userId, boolean strictlyAfter, long from, long to) {
+    long low = from;
+    long high = to;
+    while (low < high) {
+      long middle = low + (high - low) / 2;
+      long line = lineStartAtOrAfter(middle);
+      if (line >= high) {
+        high = middle;
+        continue;
+      }
+      int comparison = userIdAt(line).compareTo(userId);
+      if (comparison > 0 || (comparison == 0 && !strictlyAfter)) {
+        high = middle;
+      } else {
+        low = line + 1;
+      }
+    }
+    return Math.min(lineStartAtOrAfter(low), to);
+  }
+
+  private byte byteAt(long offset) {
+    return file.get(JAVA_BYTE, offset);
+  }
+
+  private long lineStartAtOrAfter(long offset) {
+    if (offset <= 0 || offset >= size || byteAt(offset - 1) == NEW_LINE) {
+      return Math.clamp(offset, 0, size);
+    }
+    return nextLine(offset);
+  }
+
+  /** Début de la ligne contenant l'octet précédant {@code lineStart}. */
+  private long lineStartBefore(long lineStart) {
+    long offset = lineStart - 1;
+    while (offset > dataStart && byteAt(offset - 1) != NEW_LINE) {
+      offset--;
+    }
+    return offset;
+  }
+
+  /** Début de la ligne suivant celle qui contient {@code offset}. */
+  private long nextLine(long offset) {
+    long position = offset;
+    while (position < size && byteAt(position) != NEW_LINE) {
+      position++;
+    }
+    return Math.min(position + 1, size);
+  }
+
+  private long separatorOf(long lineStart) {
+    long position = lineStart;
+    while (position < size) {
+      byte current = byteAt(position);
+      if (current == SEPARATOR || current == NEW_LINE || current == CARRIAGE_RETURN) {
+        return position;
+      }
+      position++;
+    }
+    return position;
+  }
+
+  private String userIdAt(long lineStart) {
+    long separator = separatorOf(lineStart);
+    byte[] bytes = file.asSlice(lineStart, separator - lineStart).toArray(JAVA_BYTE);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Compare les identifiants de deux lignes octet par octet, sans les décoder. */
+  private boolean sameUser(long firstLine, long secondLine) {
+    long firstSeparator = separatorOf(firstLine);
+    long length = firstSeparator - firstLine;
+    if (secondLine + length >= size || byteAt(secondLine + length) != SEPARATOR) {
+      return false;
+    }
+    for (long i = 0; i < length; i++) {
+      if (byteAt(firstLine + i) != byteAt(secondLine + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Lecture avant des utilisateurs d'une plage d'octets. */
+  private final class FileUserCursor implements UserCursor {
+
+    private final long end;
+    private long position;
+
+    /** Tampon des identifiants de l'utilisateur en cours, réutilisé d'un utilisateur à l'autre */
+    private long[] documentIds = new long[64];
+
+    private FileUserCursor(long start, long end) {
+      this.position = start;
+      this.end = end;
+    }
+
+    @Override
+    public UserWorkUnit next() {
+      if (position >= end) {
+        return null;
+      }
+      long userLine = position;
+      String userId = userIdAt(userLine);
+      int count = 0;
+      do {
+        if (count == documentIds.length) {
+          documentIds = Arrays.copyOf(documentIds, count * 2);
+        }
+        documentIds[count++] = documentIdAt(position);
+        position = nextLine(position);
+      } while (position < end && sameUser(userLine, position));
+
+      return new UserWorkUnit(userId, DocumentReferences.ofSorted(documentIds, count));
+    }
+
+    private long documentIdAt(long lineStart) {
+      long offset = separatorOf(lineStart) + 1;
+      long documentId = 0;
+      byte current;
+      while (offset < size && (current = byteAt(offset)) >= '0' && current <= '9') {
+        documentId = documentId * 10 + (current - '0');
+        offset++;
+      }
+      return documentId;
+    }
+
+    @Override
+    public void close() {
+      position = end;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package org.iscalon.demo_batch.reader.helper;
+
+import java.util.List;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.partition.UserPartition.HashBucket;
+import org.iscalon.demo_batch.reader.UserCursor;
+import org.iscalon.demo_batch.reader.UserLoadingStrategies;
+import org.iscalon.demo_batch.reader.UserLoadingStrategy;
+import org.iscalon.demo_batch.tasklet.UserBucketProcedure;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chargement des utilisateurs d'un bucket à partir de la répartition matérialisée {@code
+ * user_bucket(bucket, user_id)} (procédure {@link UserBucketProcedure}) : chaque page est un
+ * parcours d'index par intervalle sur {@code (bucket, user_id)}, au lieu du calcul de {@code
+ * ORA_HASH} sur chaque ligne de {@code source_data}.
+ *
+ * <p>Les buckets étant calculés avec la même expression que le prédicat SQL des partitions, les
+ * utilisateurs lus sont exactement ceux de ce prédicat. La répartition doit avoir été faite pour
+ * le nombre de partitions du lancement : un écart est signalé par une {@link
+ * IllegalStateException}. Ce nombre est lu une fois par étape, par l'instance {@link #forStep()}.
+ */
+@Component
+@Slf4j
+class JdbcBucketUserLoadingStrategy implements UserLoadingStrategy {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Seuls les utilisateurs ayant une ligne {@code PENDING} sont chargés */
+  private final boolean pendingOnly;
+
+  /** Le nombre de buckets vérifié est conservé (instance d'une étape) */
+  private final boolean stepScoped;
+
+  /** Bucket dont la répartition a été vérifiée par cette instance d'étape */
+  private volatile HashBucket checkedBucket;
+
+  @Autowired
+  JdbcBucketUserLoadingStrategy(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate) {
+    this(jdbcTemplate, false, false);
+  }
+
+  private JdbcBucketUserLoadingStrategy(
+      JdbcTemplate jdbcTemplate, boolean pendingOnly, boolean stepScoped) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.pendingOnly = pendingOnly;
+    this.stepScoped = stepScoped;
+  }
+
+  @Override
+  public String key() {
+    return UserLoadingStrategies.BUCKET_KEY;
+  }
+
+  @Override
+  public UserLoadingStrategy forStep() {
+    return new JdbcBucketUserLoadingStrategy(jdbcTemplate, pendingOnly, true);
+  }
+
+  @Override
+  public UserLoadingStrategy pendingOnly() {
+    return new JdbcBucketUserLoadingStrategy(jdbcTemplate, true, stepScoped);
+  }
+
+  @Override
+  public List<UserWorkUnit> load(UserPartition partition, int pageSize, String lastUserId) {
+    log.info(
+        "[ACCES BDD] : Chargement de {} nouveaux utilisateurs de {} à partir de l'id : {}",
+        pageSize,
+        partition,
+        lastUserId);
+    HashBucket bucket = checkedBucket(partition);
+    // La page d'identifiants est prise dans l'index avant la jointure : LIMIT ne porte que sur lui
+    String sql =
+        """
+                  SELECT
+                      s.user_id,
+                      array_agg(s.v_ref ORDER BY s.v_ref) AS document_ids
+                  FROM (
+                      SELECT user_id
+                      FROM user_bucket
+                      WHERE bucket = ? AND user_id > ?%s
+                      ORDER BY user_id
+                      LIMIT ?
+                  ) page
+                  JOIN source_data s ON s.user_id = page.user_id
+                  GROUP BY s.user_id
+                  ORDER BY s.user_id
+                  """
+            .formatted(pendingFilter("user_id"));
+
+    return jdbcTemplate.query(
+        sql,
+        ps -> {
+          bind(bucket, lastUserId).setValues(ps);
+          ps.setInt(3, pageSize);
+        },
+        (rs, rowNum) -> JdbcUserLoadingStrategy.userOf(rs));
+  }
+
+  @Override
+  public UserCursor stream(UserPartition partition, int fetchSize, String lastUserId) {
+    log.info(
+        "[ACCES BDD] : Ouverture d'un curseur sur {} à partir de l'id : {}",
+        partition,
+        lastUserId);
+    HashBucket bucket = checkedBucket(partition);
+    String sql =
+        """
+                  SELECT s.user_id, s.v_ref
+                  FROM user_bucket b
+                  JOIN source_data s ON s.user_id = b.user_id
+                  WHERE b.bucket = ? AND b.user_id > ?%s
+                  ORDER BY s.user_id, s.v_ref
+                  """
+            .formatted(pendingFilter("b.user_id"));
+
+    return JdbcUserCursor.open(
+        Objects.requireNonNull(jdbcTemplate.getDataSource()),
+        sql,
+        bind(bucket, lastUserId),
+        fetchSize);
+  }
+
+  /** Sans point de reprise, la borne basse est la chaîne vide, inférieure à tout identifiant. */
+  private static PreparedStatementSetter bind(HashBucket bucket, String lastUserId) {
+    return ps -> {
+      ps.setInt(1, bucket.bucket());
+      ps.setString(2, lastUserId == null ? "" : lastUserId);
+    };
+  }
+
+  private String pendingFilter(String userIdColumn) {
+    if (!pendingOnly) {
+      return "";
+    }
+    return " AND %s IN (SELECT user_id FROM source_data WHERE status = 'PENDING')"
+        .formatted(userIdColumn);
+  }
+
+  private HashBucket checkedBucket(UserPartition partition) {
+    if (!(partition instanceof HashBucket bucket)) {
+      throw new IllegalArgumentException(
+          "Le chargement %s nécessite le découpage HASH : %s"
+              .formatted(UserLoadingStrategies.BUCKET_KEY, partition));
+    }
+    if (bucket.equals(checkedBucket)) {
+      return bucket;
+    }
+    int materializedCount = materializedBucketCount();
+    if (materializedCount != bucket.bucketCount()) {
+      throw new IllegalStateException(
+          "Répartition user_bucket faite pour %d buckets, le lancement en utilise %d"
+              .formatted(materializedCount, bucket.bucketCount()));
+    }
+    if (stepScoped) {
+      checkedBucket = bucket;
+    }
+    return bucket;
+  }
+
+  private int materializedBucketCount() {
+    try {
+      Integer count =
+          jdbcTemplate.queryForObject("SELECT bucket_count FROM user_bucket_count", Integer.class);
+      return count == null ? 0 : count;
+    } catch (EmptyResultDataAccessException e) {
+      throw new IllegalStateException(
+          "Répartition user_bucket absente : %s doit être exécutée"
+              .formatted(UserBucketProcedure.NAME),
+          e);
+    }
+  }
+}
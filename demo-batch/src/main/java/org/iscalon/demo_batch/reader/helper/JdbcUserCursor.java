@@ -0,0 +1,102 @@
+package org.iscalon.demo_batch.reader.helper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.reader.UserCursor;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Curseur JDBC sur une requête triée par {@code (user_id, v_ref)} : les lignes d'un même
+ * utilisateur sont agrégées au fil de la lecture, sans {@code GROUP BY} côté base.
+ *
+ * <p>La connexion est obtenue directement auprès de la {@link DataSource} : elle n'est donc pas
+ * liée aux transactions de chunk et le curseur survit aux commits successifs de l'étape.
+ */
+@Slf4j
+class JdbcUserCursor implements UserCursor {
+
+  private final String sql;
+  private final Connection connection;
+  private final PreparedStatement statement;
+  private final ResultSet resultSet;
+
+  private boolean hasPendingRow;
+
+  /** Tampon des identifiants de l'utilisateur en cours, réutilisé d'un utilisateur à l'autre */
+  private long[] documentIds = new long[64];
+
+  private JdbcUserCursor(
+      String sql, Connection connection, PreparedStatement statement, ResultSet resultSet)
+      throws SQLException {
+    this.sql = sql;
+    this.connection = connection;
+    this.statement = statement;
+    this.resultSet = resultSet;
+    this.hasPendingRow = resultSet.next();
+  }
+
+  static JdbcUserCursor open(
+      DataSource dataSource, String sql, PreparedStatementSetter parameters, int fetchSize) {
+    Connection connection = null;
+    try {
+      connection = dataSource.getConnection();
+      connection.setReadOnly(true);
+      // Sans transaction ouverte, certains pilotes (PostgreSQL) ignorent le fetch size et
+      // chargent tout le résultat en mémoire.
+      connection.setAutoCommit(false);
+      PreparedStatement statement =
+          connection.prepareStatement(
+              sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      parameters.setValues(statement);
+      return new JdbcUserCursor(sql, connection, statement, statement.executeQuery());
+    } catch (SQLException e) {
+      JdbcUtils.closeConnection(connection);
+      throw new UncategorizedSQLException("Ouverture du curseur utilisateurs", sql, e);
+    }
+  }
+
+  @Override
+  public UserWorkUnit next() {
+    if (!hasPendingRow) {
+      return null;
+    }
+    try {
+      String userId = resultSet.getString("user_id");
+      int count = 0;
+      do {
+        if (count == documentIds.length) {
+          documentIds = Arrays.copyOf(documentIds, count * 2);
+        }
+        documentIds[count++] = resultSet.getLong("v_ref");
+        hasPendingRow = resultSet.next();
+      } while (hasPendingRow && userId.equals(resultSet.getString("user_id")));
+
+      return new UserWorkUnit(userId, DocumentReferences.ofSorted(documentIds, count));
+    } catch (SQLException e) {
+      throw new UncategorizedSQLException("Lecture du curseur utilisateurs", sql, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    hasPendingRow = false;
+    JdbcUtils.closeResultSet(resultSet);
+    JdbcUtils.closeStatement(statement);
+    try {
+      connection.rollback();
+    } catch (SQLException e) {
+      log.debug("Impossible de terminer la transaction de lecture du curseur", e);
+    }
+    JdbcUtils.closeConnection(connection);
+  }
+}
@@ -1,66 +1,138 @@
 package org.iscalon.demo_batch.reader.helper;
 
 import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Stream;
-import lombok.RequiredArgsConstructor;
+import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.domain.DocumentReferences;
 import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.partition.UserPartitionSql;
+import org.iscalon.demo_batch.reader.UserCursor;
 import org.iscalon.demo_batch.reader.UserLoadingStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 class JdbcUserLoadingStrategy implements UserLoadingStrategy {
 
+  /**
+   * Restriction aux utilisateurs ayant une ligne non traitée, parcourue par l'index {@code
+   * idx_source_data_status}. Le prédicat de la partition y est répété pour borner ce parcours.
+   */
+  static final String PENDING_USERS =
+      "user_id IN (SELECT user_id FROM source_data WHERE status = 'PENDING' AND %s)";
+
   private final JdbcTemplate jdbcTemplate;
 
+  /** Seuls les utilisateurs ayant une ligne {@code PENDING} sont chargés */
+  private final boolean pendingOnly;
+
+  @Autowired
+  JdbcUserLoadingStrategy(@Qualifier("readJdbcTemplate") JdbcTemplate jdbcTemplate) {
+    this(jdbcTemplate, false);
+  }
+
+  private JdbcUserLoadingStrategy(JdbcTemplate jdbcTemplate, boolean pendingOnly) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.pendingOnly = pendingOnly;
+  }
+
   @Override
   public String key() {
     return "JDBC_LOADER";
   }
 
   @Override
-  public List<UserWorkUnit> load(int bucket, int bucketCount, int pageSize, String lastUserId) {
+  public UserLoadingStrategy pendingOnly() {
+    return new JdbcUserLoadingStrategy(jdbcTemplate, true);
+  }
+
+  @Override
+  public List<UserWorkUnit> load(UserPartition partition, int pageSize, String lastUserId) {
     log.info(
-        "[ACCES BDD] : Chargement de {} nouveaux utilisateurs à partir de l'id : {}",
+        "[ACCES BDD] : Chargement de {} nouveaux utilisateurs de {} à partir de l'id : {}",
         pageSize,
+        partition,
         lastUserId);
+    UserPartitionSql filter = UserPartitionSql.of(partition, "user_id", lastUserId);
     String sql =
         """
                   SELECT
                       user_id,
                       array_agg(v_ref ORDER BY v_ref) AS document_ids
                   FROM source_data
-                  WHERE MOD(ABS(ORA_HASH(user_id)), ?) = ?
-                    AND (? IS NULL OR user_id > ?)
+                  WHERE %s
                   GROUP BY user_id
                   ORDER BY user_id
                   LIMIT ?
-                  """;
+                  """
+            .formatted(where(filter));
 
     return jdbcTemplate.query(
         sql,
         ps -> {
-          ps.setInt(1, bucketCount);
-          ps.setInt(2, bucket);
-          ps.setString(3, lastUserId);
-          ps.setString(4, lastUserId);
-          ps.setInt(5, pageSize);
+          int next = bind(filter, ps);
+          ps.setInt(next, pageSize);
         },
-        (rs, rowNum) -> {
-          String userId = rs.getString("user_id");
+        (rs, rowNum) -> userOf(rs));
+  }
 
-          Array sqlArray = rs.getArray("document_ids");
-          Long[] documentIds =
-              Stream.of((Object[]) sqlArray.getArray())
-                  .map(v -> ((Number) v).longValue())
-                  .toArray(Long[]::new);
+  /** Ligne {@code (user_id, document_ids)} où {@code document_ids} est un tableau trié. */
+  static UserWorkUnit userOf(ResultSet rs) throws SQLException {
+    String userId = rs.getString("user_id");
+
+    // array_agg(... ORDER BY v_ref) : identifiants déjà triés
+    Array sqlArray = rs.getArray("document_ids");
+    Object[] values = (Object[]) sqlArray.getArray();
+    long[] documentIds = new long[values.length];
+    for (int i = 0; i < values.length; i++) {
+      documentIds[i] = ((Number) values[i]).longValue();
+    }
+    sqlArray.free();
+
+    return new UserWorkUnit(userId, DocumentReferences.ofSorted(documentIds, documentIds.length));
+  }
+
+  @Override
+  public UserCursor stream(UserPartition partition, int fetchSize, String lastUserId) {
+    log.info(
+        "[ACCES BDD] : Ouverture d'un curseur sur {} à partir de l'id : {}",
+        partition,
+        lastUserId);
+    UserPartitionSql filter = UserPartitionSql.of(partition, "user_id", lastUserId);
+    String sql =
+        """
+                  SELECT user_id, v_ref
+                  FROM source_data
+                  WHERE %s
+                  ORDER BY user_id, v_ref
+                  """
+            .formatted(where(filter));
+
+    return JdbcUserCursor.open(
+        Objects.requireNonNull(jdbcTemplate.getDataSource()),
+        sql,
+        ps -> bind(filter, ps),
+        fetchSize);
+  }
+
+  private String where(UserPartitionSql filter) {
+    if (!pendingOnly) {
+      return filter.predicate();
+    }
+    return filter.predicate() + " AND " + PENDING_USERS.formatted(filter.predicate());
+  }
 
-          return new UserWorkUnit(userId, Set.of(documentIds));
-        });
+  /** @return l'index du prochain paramètre libre */
+  private int bind(UserPartitionSql filter, PreparedStatement ps) throws SQLException {
+    int next = filter.bind(ps, 1);
+    return pendingOnly ? filter.bind(ps, next) : next;
   }
 }
@@ -0,0 +1,92 @@
+package org.iscalon.demo_batch.tasklet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Graphe de dépendances entre appels de procédures stockées. Chaque appel est exécuté dans sa
+ * propre étape, nommée {@code stepName}, et les appels sont exécutés {@link #levels() niveau par
+ * niveau} : ceux d'un niveau s'exécutent en parallèle, une fois toutes les étapes du niveau
+ * précédent terminées. Un appel peut donc attendre une étape dont il ne dépend pas, si elle est
+ * plus lente que ses propres dépendances.
+ *
+ * <pre>{@code
+ * ProcedureGraph.builder()
+ *     .procedure("prepareInputDataStep", "PROC_INIT_1")
+ *     .procedure("enrichInputDataStep", "PROC_INIT_2")
+ *     .procedure("consolidationStep", "PROC_CONSO", "prepareInputDataStep", "enrichInputDataStep")
+ *     .build();
+ * }</pre>
+ */
+public final class ProcedureGraph {
+
+  /** Appel d'une procédure, après les étapes {@code dependsOn}. */
+  public record ProcedureCall(String stepName, String procedure, Set<String> dependsOn) {}
+
+  private final Map<String, ProcedureCall> calls;
+
+  private ProcedureGraph(Map<String, ProcedureCall> calls) {
+    this.calls = calls;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Regroupe les appels par niveau : un appel est placé au premier niveau qui suit toutes ses
+   * dépendances, c'est-à-dire à la profondeur de sa plus longue chaîne de dépendances. Chaque
+   * niveau ne dépend que des niveaux précédents, ses appels peuvent donc s'exécuter simultanément.
+   * L'ordre de déclaration est conservé au sein d'un niveau.
+   */
+  public List<List<ProcedureCall>> levels() {
+    List<List<ProcedureCall>> levels = new ArrayList<>();
+    Set<String> done = new HashSet<>();
+    List<ProcedureCall> remaining = new ArrayList<>(calls.values());
+
+    while (!remaining.isEmpty()) {
+      List<ProcedureCall> level =
+          remaining.stream().filter(call -> done.containsAll(call.dependsOn())).toList();
+      if (level.isEmpty()) {
+        throw new IllegalStateException(
+            "Dépendances circulaires entre les étapes : "
+                + remaining.stream().map(ProcedureCall::stepName).toList());
+      }
+      levels.add(level);
+      remaining.removeAll(level);
+      level.forEach(call -> done.add(call.stepName()));
+    }
+    return levels;
+  }
+
+  public static final class Builder {
+
+    private final Map<String, ProcedureCall> calls = new LinkedHashMap<>();
+
+    private Builder() {}
+
+    public Builder procedure(String stepName, String procedure, String... dependsOn) {
+      if (calls.containsKey(stepName)) {
+        throw new IllegalArgumentException("Étape déclarée deux fois : " + stepName);
+      }
+      calls.put(stepName, new ProcedureCall(stepName, procedure, Set.of(dependsOn)));
+      return this;
+    }
+
+    public ProcedureGraph build() {
+      calls.values().stream()
+          .flatMap(call -> call.dependsOn().stream())
+          .filter(dependency -> !calls.containsKey(dependency))
+          .findFirst()
+          .ifPresent(
+              dependency -> {
+                throw new IllegalArgumentException("Étape inconnue : " + dependency);
+              });
+      return new ProcedureGraph(new LinkedHashMap<>(calls));
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package org.iscalon.demo_batch.tasklet;
+
+import java.sql.Types;
+import java.util.List;
+import org.iscalon.demo_batch.out.storedprocedure.PourAppelerStoredProcedure;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.partition.UserPartition.HashBucket;
+import org.iscalon.demo_batch.partition.UserPartition.RangeQueue;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+/**
+ * Procédure de calcul ensembliste des cumuls d'une partition : un seul {@code INSERT ... SELECT
+ * SUM(amount) OVER (PARTITION BY user_id ORDER BY v_ref)}, sans rapatrier de ligne dans la JVM.
+ * Les résultats de la partition sont supprimés juste avant, dans le même appel : un nouveau
+ * lancement ou une reprise les remplace. Les empreintes de ses utilisateurs, que la procédure ne
+ * calcule pas, sont supprimées aussi.
+ *
+ * <p>La partition est transmise sous la forme {@code (bucket, bucketCount, minUserId,
+ * maxUserId)}, les paramètres inutilisés valant {@code null}.
+ */
+public final class RunningTotalProcedure {
+
+  public static final String NAME = "PROC_CALCUL_CUMULS";
+
+  private RunningTotalProcedure() {}
+
+  public static StoredProcedureTasklet tasklet(
+      PourAppelerStoredProcedure service, UserPartition partition) {
+    return new StoredProcedureTasklet(service, NAME, arguments(partition));
+  }
+
+  static List<SqlParameterValue> arguments(UserPartition partition) {
+    return switch (partition) {
+      case HashBucket(int bucket, int bucketCount) ->
+          List.of(
+              new SqlParameterValue(Types.INTEGER, bucket),
+              new SqlParameterValue(Types.INTEGER, bucketCount),
+              new SqlParameterValue(Types.VARCHAR, null),
+              new SqlParameterValue(Types.VARCHAR, null));
+      case UserIdRange(String minUserId, String maxUserId) ->
+          List.of(
+              new SqlParameterValue(Types.INTEGER, null),
+              new SqlParameterValue(Types.INTEGER, null),
+              new SqlParameterValue(Types.VARCHAR, minUserId),
+              new SqlParameterValue(Types.VARCHAR, maxUserId));
+      case RangeQueue queue ->
+          throw new IllegalArgumentException(
+              "Le moteur SQL ne prend pas en charge le découpage dynamique (file %d)"
+                  .formatted(queue.queueId()));
+    };
+  }
+}
@@ -1,21 +1,32 @@
 package org.iscalon.demo_batch.tasklet;
 
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.iscalon.demo_batch.out.storedprocedure.PourAppelerStoredProcedure;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.StepContribution;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.infrastructure.repeat.RepeatStatus;
+import org.springframework.jdbc.core.SqlParameterValue;
 
 @RequiredArgsConstructor
 public class StoredProcedureTasklet implements Tasklet {
 
   private final PourAppelerStoredProcedure service;
   private final String procedureCall;
+  private final List<SqlParameterValue> parametres;
+
+  public StoredProcedureTasklet(PourAppelerStoredProcedure service, String procedureCall) {
+    this(service, procedureCall, List.of());
+  }
 
   @Override
   public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
-    service.appeler(procedureCall);
+    if (parametres.isEmpty()) {
+      service.appeler(procedureCall);
+    } else {
+      service.appeler(procedureCall, parametres);
+    }
     return RepeatStatus.FINISHED;
   }
 }
@@ -0,0 +1,24 @@
+package org.iscalon.demo_batch.tasklet;
+
+import java.sql.Types;
+import java.util.List;
+import org.iscalon.demo_batch.out.storedprocedure.PourAppelerStoredProcedure;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+/**
+ * Procédure de répartition matérialisée des utilisateurs : reconstruit {@code user_bucket(bucket,
+ * user_id)} pour {@code bucketCount} buckets, avec la même expression de hachage que le prédicat
+ * des partitions, et enregistre ce nombre dans {@code user_bucket_count}.
+ */
+public final class UserBucketProcedure {
+
+  public static final String NAME = "PROC_REPARTITION_UTILISATEURS";
+
+  private UserBucketProcedure() {}
+
+  public static StoredProcedureTasklet tasklet(
+      PourAppelerStoredProcedure service, int bucketCount) {
+    return new StoredProcedureTasklet(
+        service, NAME, List.of(new SqlParameterValue(Types.INTEGER, bucketCount)));
+  }
+}
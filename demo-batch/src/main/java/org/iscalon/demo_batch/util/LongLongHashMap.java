@@ -0,0 +1,131 @@
+package org.iscalon.demo_batch.util;
+
+/**
+ * Table de hachage {@code long -> long} à adressage ouvert (sondage linéaire), sans boxing des
+ * clés ni des valeurs. Pas de suppression ; non thread-safe.
+ */
+public final class LongLongHashMap {
+
+  private static final long FREE_KEY = 0L;
+  private static final int MIN_CAPACITY = 4;
+
+  private long[] keys;
+  private long[] values;
+  private int mask;
+  private int resizeThreshold;
+  private int size;
+
+  /** La clé {@value #FREE_KEY} marque les cases libres : elle est stockée à part. */
+  private boolean hasFreeKey;
+
+  private long freeKeyValue;
+
+  public LongLongHashMap() {
+    this(MIN_CAPACITY);
+  }
+
+  public LongLongHashMap(int expectedSize) {
+    allocate(Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize) * 2 - 1) << 1);
+  }
+
+  public void put(long key, long value) {
+    if (key == FREE_KEY) {
+      if (!hasFreeKey) {
+        hasFreeKey = true;
+        size++;
+      }
+      freeKeyValue = value;
+      return;
+    }
+    int index = slot(key);
+    while (keys[index] != FREE_KEY) {
+      if (keys[index] == key) {
+        values[index] = value;
+        return;
+      }
+      index = (index + 1) & mask;
+    }
+    keys[index] = key;
+    values[index] = value;
+    if (++size > resizeThreshold) {
+      rehash();
+    }
+  }
+
+  public long get(long key, long defaultValue) {
+    if (key == FREE_KEY) {
+      return hasFreeKey ? freeKeyValue : defaultValue;
+    }
+    int index = slot(key);
+    while (keys[index] != FREE_KEY) {
+      if (keys[index] == key) {
+        return values[index];
+      }
+      index = (index + 1) & mask;
+    }
+    return defaultValue;
+  }
+
+  public boolean containsKey(long key) {
+    if (key == FREE_KEY) {
+      return hasFreeKey;
+    }
+    int index = slot(key);
+    while (keys[index] != FREE_KEY) {
+      if (keys[index] == key) {
+        return true;
+      }
+      index = (index + 1) & mask;
+    }
+    return false;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void forEach(LongLongConsumer action) {
+    if (hasFreeKey) {
+      action.accept(FREE_KEY, freeKeyValue);
+    }
+    for (int index = 0; index < keys.length; index++) {
+      if (keys[index] != FREE_KEY) {
+        action.accept(keys[index], values[index]);
+      }
+    }
+  }
+
+  private int slot(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new long[capacity];
+    mask = capacity - 1;
+    // Facteur de charge de 1/2 : les sondages restent courts.
+    resizeThreshold = capacity / 2;
+  }
+
+  private void rehash() {
+    long[] oldKeys = keys;
+    long[] oldValues = values;
+    allocate(oldKeys.length * 2);
+    size = hasFreeKey ? 1 : 0;
+    for (int index = 0; index < oldKeys.length; index++) {
+      if (oldKeys[index] != FREE_KEY) {
+        put(oldKeys[index], oldValues[index]);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  public interface LongLongConsumer {
+    void accept(long key, long value);
+  }
+}
@@ -1,76 +1,330 @@
 package org.iscalon.demo_batch.writer;
 
-import java.math.BigDecimal;
+import static org.iscalon.demo_batch.reader.UserDocumentsPagingReader.LAST_USER_ID_KEY;
+
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import lombok.extern.slf4j.Slf4j;
 import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.domain.UserFingerprint;
 import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.logging.ItemTracer;
+import org.iscalon.demo_batch.metrics.PartitionMetrics;
 import org.iscalon.demo_batch.out.repository.CalculRepository;
+import org.iscalon.demo_batch.out.repository.DocumentDataRepository;
+import org.iscalon.demo_batch.out.repository.SourceDataStatusRepository;
+import org.iscalon.demo_batch.out.repository.UserFingerprintRepository;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator.ChunkWrite;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.listener.StepExecutionListener;
+import org.springframework.batch.core.step.StepExecution;
 import org.springframework.batch.infrastructure.item.Chunk;
-import org.springframework.batch.infrastructure.item.ItemWriter;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.batch.infrastructure.item.ItemStreamWriter;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Calcule les cumuls d'un chunk et insère les résultats.
+ *
+ * <p>Les montants chargés pour le chunk alimentent aussi les {@link ChunkCalculator} du
+ * lancement : ils calculent en parallèle des cumuls, et leurs écritures suivent celle des cumuls,
+ * dans la même transaction.
+ *
+ * <p>L'empreinte de chaque utilisateur écrit est enregistrée avec ses résultats, calculée sur les
+ * montants du chunk si le lecteur ne l'a pas fournie : elle reste à jour quel que soit le mode du
+ * lancement, et au lancement suivant avec {@code skipUnchanged} l'utilisateur est écarté à la
+ * lecture si ses données n'ont pas changé.
+ *
+ * <p>En mode pipeline, l'insertion d'un chunk est confiée à {@code insertExecutor} dans sa propre
+ * transaction, et le chunk suivant est lu et calculé pendant ce temps. Au plus une insertion est
+ * en vol : elle est attendue avant de soumettre la suivante, et le point de reprise ({@code
+ * lastUserId}) n'avance qu'une fois l'insertion confirmée. En cas d'échec, la reprise rejoue donc
+ * au plus le chunk dont l'insertion n'a pas abouti.
+ */
 @Slf4j
-@RequiredArgsConstructor
-public class CalculationWriter implements ItemWriter<UserWorkUnit> {
+public class CalculationWriter implements ItemStreamWriter<UserWorkUnit>, StepExecutionListener {
 
   private final CalculRepository repository;
+  private final DocumentDataRepository documents;
+  private final SourceDataStatusRepository statuses;
+  private final UserFingerprintRepository fingerprints;
+  private final PartitionMetrics metrics;
+  private final UserPartition partition;
+  private final ResultWriteMode writeMode;
+  private final ChunkFanOut fanOut;
+  private final Executor insertExecutor;
+  private final TransactionTemplate insertTransaction;
+  private final ItemTracer tracer;
+
+  private CompletableFuture<Void> pendingInsert;
+  private String pendingLastUserId;
+  private String lastWrittenUserId;
+
+  public CalculationWriter(
+      CalculRepository repository, DocumentDataRepository documents, PartitionMetrics metrics) {
+    this(
+        repository,
+        documents,
+        null,
+        null,
+        metrics,
+        null,
+        ResultWriteMode.INSERT,
+        ChunkFanOut.none(),
+        null,
+        null,
+        ItemTraceMode.SAMPLED);
+  }
+
+  /**
+   * @param partition partition écrite, dont les résultats postérieurs au point de reprise sont
+   *     supprimés à l'ouverture, sauf en mode {@link ResultWriteMode#REPLACE}
+   * @param statuses statut des lignes source, requis en mode {@link ResultWriteMode#REPLACE}
+   * @param fingerprints empreintes des utilisateurs, enregistrées avec leurs résultats, ou {@code
+   *     null} si elles ne sont pas tenues à jour
+   * @param fanOut calculateurs alimentés par les mêmes utilisateurs et montants que les cumuls
+   * @param insertExecutor exécuteur des insertions asynchrones (mode pipeline), ou {@code null}
+   */
+  public CalculationWriter(
+      CalculRepository repository,
+      DocumentDataRepository documents,
+      SourceDataStatusRepository statuses,
+      UserFingerprintRepository fingerprints,
+      PartitionMetrics metrics,
+      UserPartition partition,
+      ResultWriteMode writeMode,
+      ChunkFanOut fanOut,
+      Executor insertExecutor,
+      TransactionTemplate insertTransaction,
+      ItemTraceMode traceMode) {
+    if (writeMode == ResultWriteMode.REPLACE && statuses == null) {
+      throw new IllegalArgumentException("Le mode REPLACE nécessite le statut des lignes source");
+    }
+    this.repository = repository;
+    this.documents = documents;
+    this.statuses = statuses;
+    this.fingerprints = fingerprints;
+    this.metrics = metrics;
+    this.partition = partition;
+    this.writeMode = writeMode;
+    this.fanOut = fanOut;
+    this.insertExecutor = insertExecutor;
+    this.insertTransaction = insertTransaction;
+    this.tracer = new ItemTracer(log, traceMode);
+  }
+
+  private boolean isPipelined() {
+    return insertExecutor != null;
+  }
 
   @Override
   public void write(Chunk<? extends UserWorkUnit> chunk) {
-    List<UserWorkUnit> users = List.copyOf(chunk.getItems());
+    List<? extends UserWorkUnit> users = chunk.getItems();
+    ChunkResults results = calculate(users);
+    tracer.summarize("{} utilisateurs calculés : {} résultats", results.runningTotals().size());
+
+    if (!isPipelined()) {
+      metrics.timeResultsInsert(() -> store(results));
+      return;
+    }
+
+    awaitPendingInsert();
+    pendingLastUserId = users.isEmpty() ? lastWrittenUserId : users.getLast().userId();
+    pendingInsert =
+        CompletableFuture.runAsync(
+            () ->
+                metrics.timeResultsInsert(
+                    () ->
+                        insertTransaction.executeWithoutResult(
+                            status -> store(results))),
+            insertExecutor);
+  }
+
+  private void store(ChunkResults chunkResults) {
+    List<CalculatedResult> results = chunkResults.runningTotals();
+    switch (writeMode) {
+      case INSERT -> {
+        if (clearedAtOpen()) {
+          repository.batchInsertResults(results);
+        } else {
+          repository.batchUpsertResults(results);
+        }
+      }
+      case UPSERT -> repository.batchUpsertResults(results);
+      case REPLACE -> {
+        repository.deleteUserResults(userIdsOf(results));
+        repository.batchInsertResults(results);
+        statuses.markProcessed(documentIdsOf(results));
+      }
+    }
+    metrics.recordResultsWritten(results.size());
+    if (!chunkResults.fingerprinted().isEmpty()) {
+      fingerprints.batchUpsertFingerprints(chunkResults.fingerprinted());
+    }
+    for (ChunkWrite write : chunkResults.writes()) {
+      write.write(writeMode == ResultWriteMode.REPLACE);
+    }
+  }
 
-    Set<Long> documentIds = new HashSet<>();
+  /**
+   * Cumuls du chunk, écritures des autres calculateurs et utilisateurs dont l'empreinte est à
+   * enregistrer, écrits dans la même transaction
+   */
+  private record ChunkResults(
+      List<CalculatedResult> runningTotals,
+      List<ChunkWrite> writes,
+      List<UserWorkUnit> fingerprinted) {}
 
+  private ChunkResults calculate(List<? extends UserWorkUnit> users) {
+    int referenceCount = 0;
     for (UserWorkUnit user : users) {
-      documentIds.addAll(user.references());
+      referenceCount += user.references().size();
     }
 
-    Map<Long, DocumentData> documentDataById = loadDocumentData(documentIds);
+    long[] documentIds = UserWorkUnit.distinctDocumentIds(users);
+    LongLongHashMap amountsInCents =
+        metrics.timeDocumentsLookup(() -> documents.findAmountsInCents(documentIds));
 
-    List<CalculatedResult> results =
-        users.stream()
-            .map(user -> calculate(user, documentDataById))
-            .flatMap(List::stream)
-            .toList();
+    List<CalculatedResult> results = new ArrayList<>(referenceCount);
+    List<ChunkWrite> writes = new ArrayList<>();
+    metrics.timeCalculation(
+        () -> {
+          // Les autres calculateurs travaillent pendant le calcul des cumuls
+          List<CompletableFuture<ChunkWrite>> calculations = fanOut.start(users, amountsInCents);
+          for (UserWorkUnit user : users) {
+            tracer.trace("Traitement de : {}", user);
+            RunningTotalCalculator.calculate(user, amountsInCents, results);
+          }
+          writes.addAll(ChunkFanOut.await(calculations));
+        });
+    List<UserWorkUnit> fingerprinted = new ArrayList<>(fingerprints == null ? 0 : users.size());
+    if (fingerprints != null) {
+      for (UserWorkUnit user : users) {
+        fingerprinted.add(
+            user.fingerprint() != null
+                ? user
+                : user.withFingerprint(
+                    new UserFingerprint(
+                        UserFingerprint.valueOf(user.references(), amountsInCents), false)));
+      }
+    }
+    return new ChunkResults(results, writes, fingerprinted);
+  }
 
-    repository.batchInsertResults(results);
+  /** Attend l'insertion en vol et fait avancer le point de reprise si elle a réussi. */
+  private void awaitPendingInsert() {
+    if (pendingInsert == null) {
+      return;
+    }
+    try {
+      pendingInsert.join();
+      lastWrittenUserId = pendingLastUserId;
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    } finally {
+      pendingInsert = null;
+    }
   }
 
-  private Map<Long, DocumentData> loadDocumentData(Set<Long> documentIds) {
-    if (documentIds.isEmpty()) {
-      return Map.of();
+  @Override
+  public void open(ExecutionContext executionContext) {
+    String checkpoint =
+        executionContext.containsKey(LAST_USER_ID_KEY)
+            ? executionContext.getString(LAST_USER_ID_KEY)
+            : null;
+    if (isPipelined()) {
+      lastWrittenUserId = checkpoint;
+    }
+    if (writeMode != ResultWriteMode.REPLACE && clearedAtOpen()) {
+      repository.deleteResults(partition, checkpoint);
     }
-    Map<Long, DocumentData> documentDataById = new HashMap<>();
-    documentIds.forEach(
-        documentId ->
-            documentDataById.put(
-                documentId, new DocumentData(ThreadLocalRandom.current().nextDouble(1, 1000))));
-    return documentDataById;
   }
 
-  private List<CalculatedResult> calculate(
-      UserWorkUnit user, Map<Long, DocumentData> documentDataById) {
-    BigDecimal total = BigDecimal.ZERO;
-    log.info("Traitement de : {}", user);
-    List<CalculatedResult> results = new ArrayList<>();
-    for (Long documentId : user.references()) {
-      DocumentData data = documentDataById.get(documentId);
+  /**
+   * Les résultats de la partition postérieurs au point de reprise (tous lors d'un nouveau
+   * lancement) vont être recalculés : ils sont supprimés à l'ouverture d'un seul ordre, par
+   * intervalle d'utilisateurs, ce qui couvre aussi un chunk validé côté données mais pas côté
+   * métadonnées, ou une insertion asynchrone confirmée trop tard.
+   *
+   * <p>Sans partition (chargement qui ne suit pas le prédicat SQL) ou pour une file, dont les
+   * intervalles ne sont pas connus à l'ouverture, les résultats sont toujours fusionnés ({@code
+   * MERGE}), ce qui suffit à garantir l'unicité.
+   */
+  private boolean clearedAtOpen() {
+    return partition != null && !(partition instanceof UserPartition.RangeQueue);
+  }
 
-      if (data != null) {
-        total = total.add(BigDecimal.valueOf(data.value()));
-      }
-      results.add(new CalculatedResult(user.userId(), documentId, total));
+  /**
+   * Remplace le point de reprise posé par le lecteur (ce flux est mis à jour après lui) par le
+   * dernier utilisateur dont l'insertion est confirmée.
+   */
+  @Override
+  public void update(ExecutionContext executionContext) {
+    if (!isPipelined()) {
+      return;
+    }
+    if (lastWrittenUserId != null) {
+      executionContext.putString(LAST_USER_ID_KEY, lastWrittenUserId);
+    } else {
+      executionContext.remove(LAST_USER_ID_KEY);
     }
+  }
 
-    return results;
+  @Override
+  public ExitStatus afterStep(StepExecution stepExecution) {
+    if (pendingInsert == null) {
+      return stepExecution.getExitStatus();
+    }
+    try {
+      awaitPendingInsert();
+      update(stepExecution.getExecutionContext());
+      return stepExecution.getExitStatus();
+    } catch (RuntimeException e) {
+      log.error("Echec de l'insertion du dernier chunk de {}", stepExecution.getStepName(), e);
+      stepExecution.setStatus(BatchStatus.FAILED);
+      stepExecution.addFailureException(e);
+      return ExitStatus.FAILED;
+    }
   }
 
-  record DocumentData(double value) {}
+  @Override
+  public void close() {
+    if (pendingInsert == null) {
+      return;
+    }
+    try {
+      awaitPendingInsert();
+    } catch (RuntimeException e) {
+      log.debug("Insertion en vol en échec à la fermeture de l'étape", e);
+    }
+  }
+
+  /** Utilisateurs des résultats, regroupés par utilisateur. */
+  private static List<String> userIdsOf(List<CalculatedResult> results) {
+    List<String> userIds = new ArrayList<>();
+    for (CalculatedResult result : results) {
+      if (userIds.isEmpty() || !userIds.getLast().equals(result.userId())) {
+        userIds.add(result.userId());
+      }
+    }
+    return userIds;
+  }
+
+  private static long[] documentIdsOf(List<CalculatedResult> results) {
+    long[] documentIds = new long[results.size()];
+    for (int i = 0; i < documentIds.length; i++) {
+      documentIds[i] = results.get(i).inputDataId();
+    }
+    return documentIds;
+  }
 }
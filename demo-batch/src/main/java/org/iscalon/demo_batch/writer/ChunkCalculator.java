@@ -0,0 +1,41 @@
+package org.iscalon.demo_batch.writer;
+
+import java.util.List;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+
+/**
+ * Calcul supplémentaire alimenté par les chunks de l'étape de calcul, à partir des utilisateurs
+ * et des montants déjà chargés pour les cumuls : aucune lecture de plus n'est faite. Chaque
+ * famille écrit dans sa propre table, par son propre port.
+ *
+ * <p>Les calculateurs sélectionnés par le paramètre de job {@code calculators} sont exécutés en
+ * parallèle du cumul ; leurs écritures sont faites ensuite, dans la transaction du chunk.
+ *
+ * <p>En mode {@code REPLACE}, les lignes des utilisateurs du chunk sont supprimées avant d'écrire
+ * les nouvelles, comme leurs cumuls : un document qui n'a plus de montant, ou un utilisateur qui
+ * n'en a plus aucun, ne garde pas de ligne de son calcul précédent.
+ */
+public interface ChunkCalculator {
+
+  /** Clé de sélection dans le paramètre de job {@code calculators} */
+  String key();
+
+  /**
+   * Calcule les résultats du chunk sans accès à la base. Peut être appelé en parallèle des autres
+   * calculateurs : {@code amountsInCents} est partagé et ne doit pas être modifié.
+   *
+   * @return l'écriture des résultats, exécutée ensuite dans la transaction du chunk
+   */
+  ChunkWrite calculate(List<? extends UserWorkUnit> users, LongLongHashMap amountsInCents);
+
+  @FunctionalInterface
+  interface ChunkWrite {
+
+    /**
+     * @param replace supprime d'abord toutes les lignes des utilisateurs du chunk
+     * @return le nombre de lignes écrites
+     */
+    int write(boolean replace);
+  }
+}
@@ -0,0 +1,54 @@
+package org.iscalon.demo_batch.writer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calculateurs disponibles, indexés par leur {@link ChunkCalculator#key() clé}. Ceux d'un
+ * lancement sont choisis par le paramètre de job {@code calculators} (clés séparées par des
+ * virgules, aucun par défaut).
+ */
+@Component
+public class ChunkCalculators {
+
+  private final List<ChunkCalculator> calculators;
+
+  /** Threads virtuels : un calcul par calculateur et par chunk, sans pool à dimensionner */
+  private final TaskExecutor executor;
+
+  ChunkCalculators(
+      List<ChunkCalculator> calculators,
+      @Qualifier("pipelineTaskExecutor") TaskExecutor executor) {
+    this.calculators = List.copyOf(calculators);
+    this.executor = executor;
+  }
+
+  /**
+   * @throws IllegalArgumentException si une clé ne désigne pas exactement un calculateur
+   */
+  public ChunkFanOut select(String keys) {
+    if (keys == null || keys.isBlank()) {
+      return ChunkFanOut.none();
+    }
+    List<ChunkCalculator> selected = new ArrayList<>();
+    for (String key : Arrays.stream(keys.split(",")).map(String::trim).distinct().toList()) {
+      List<ChunkCalculator> matching =
+          calculators.stream().filter(calculator -> calculator.key().equals(key)).toList();
+      if (matching.size() != 1) {
+        throw new IllegalArgumentException(
+            "Calculateur %s : %d calculateur(s) sur %s"
+                .formatted(key, matching.size(), keys()));
+      }
+      selected.add(matching.getFirst());
+    }
+    return new ChunkFanOut(selected, executor);
+  }
+
+  private List<String> keys() {
+    return calculators.stream().map(ChunkCalculator::key).sorted().toList();
+  }
+}
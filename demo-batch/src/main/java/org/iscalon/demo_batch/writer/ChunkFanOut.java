@@ -0,0 +1,61 @@
+package org.iscalon.demo_batch.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator.ChunkWrite;
+
+/** Calculateurs d'un lancement, exécutés en parallèle sur chaque chunk. */
+public final class ChunkFanOut {
+
+  private static final ChunkFanOut NONE = new ChunkFanOut(List.of(), Runnable::run);
+
+  private final List<ChunkCalculator> calculators;
+  private final Executor executor;
+
+  ChunkFanOut(List<ChunkCalculator> calculators, Executor executor) {
+    this.calculators = List.copyOf(calculators);
+    this.executor = executor;
+  }
+
+  public static ChunkFanOut none() {
+    return NONE;
+  }
+
+  /** Lance les calculs du chunk, pendant lesquels l'appelant fait le sien. */
+  List<CompletableFuture<ChunkWrite>> start(
+      List<? extends UserWorkUnit> users, LongLongHashMap amountsInCents) {
+    List<CompletableFuture<ChunkWrite>> calculations = new ArrayList<>(calculators.size());
+    for (ChunkCalculator calculator : calculators) {
+      calculations.add(
+          CompletableFuture.supplyAsync(
+              () -> calculator.calculate(users, amountsInCents), executor));
+    }
+    return calculations;
+  }
+
+  /** Attend les calculs lancés par {@link #start} et renvoie leurs écritures. */
+  static List<ChunkWrite> await(List<CompletableFuture<ChunkWrite>> calculations) {
+    List<ChunkWrite> writes = new ArrayList<>(calculations.size());
+    try {
+      for (CompletableFuture<ChunkWrite> calculation : calculations) {
+        writes.add(calculation.join());
+      }
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+    return writes;
+  }
+
+  @Override
+  public String toString() {
+    return calculators.stream().map(ChunkCalculator::key).toList().toString();
+  }
+}
@@ -0,0 +1,23 @@
+package org.iscalon.demo_batch.writer;
+
+/** Mode d'écriture des résultats (paramètre de job {@code writeMode}). */
+public enum ResultWriteMode {
+  /**
+   * Insertion : à l'ouverture, les résultats de la partition postérieurs au point de reprise (tous
+   * lors d'un nouveau lancement) sont supprimés, les insertions ne heurtent donc pas la clé unique
+   * {@code (user_id, v_ref)}. Les partitions sans intervalle connu à l'ouverture (file, chargement
+   * qui ne suit pas le prédicat SQL) fusionnent leurs résultats.
+   */
+  INSERT,
+  /**
+   * Écriture idempotente : même suppression à l'ouverture, puis les résultats sont fusionnés
+   * ({@code MERGE}) sur {@code (user_id, v_ref)}.
+   */
+  UPSERT,
+  /**
+   * Remplacement par utilisateur (mode incrémental) : les résultats des utilisateurs du chunk sont
+   * supprimés puis insérés, et leurs lignes source passées à {@code PROCESSED}, dans la même
+   * transaction.
+   */
+  REPLACE
+}
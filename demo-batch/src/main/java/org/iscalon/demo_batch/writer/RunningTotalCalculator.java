@@ -0,0 +1,33 @@
+package org.iscalon.demo_batch.writer;
+
+import java.util.List;
+import java.util.PrimitiveIterator;
+import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+
+/**
+ * Cumul des montants des documents d'un utilisateur, dans l'ordre de ses références.
+ *
+ * <p>Le total courant est accumulé en centimes dans un {@code long} (exact pour {@code DECIMAL(19,
+ * 2)}) et les montants sont lus dans une table à clés primitives : aucun {@code BigDecimal} n'est
+ * créé avant l'écriture en base.
+ */
+final class RunningTotalCalculator {
+
+  /** Un document sans donnée ne modifie pas le cumul. */
+  private static final long NO_AMOUNT = 0L;
+
+  private RunningTotalCalculator() {}
+
+  static void calculate(
+      UserWorkUnit user, LongLongHashMap amountsInCents, List<CalculatedResult> results) {
+    long totalInCents = 0L;
+    PrimitiveIterator.OfLong documentIds = user.references().iterator();
+    while (documentIds.hasNext()) {
+      long documentId = documentIds.nextLong();
+      totalInCents = Math.addExact(totalInCents, amountsInCents.get(documentId, NO_AMOUNT));
+      results.add(new CalculatedResult(user.userId(), documentId, totalInCents));
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package org.iscalon.demo_batch.writer.helper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import lombok.RequiredArgsConstructor;
+import org.iscalon.demo_batch.domain.DocumentRankResult;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.out.repository.DocumentRankRepository;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rang de chaque document renseigné parmi ceux de son utilisateur, par montant décroissant. Les
+ * montants d'un utilisateur sont triés une fois, puis chaque rang est obtenu par recherche
+ * dichotomique : {@code O(n log n)} par utilisateur.
+ */
+@Component
+@RequiredArgsConstructor
+class DocumentRankCalculator implements ChunkCalculator {
+
+  private final DocumentRankRepository repository;
+
+  @Override
+  public String key() {
+    return "RANK";
+  }
+
+  @Override
+  public ChunkWrite calculate(List<? extends UserWorkUnit> users, LongLongHashMap amountsInCents) {
+    List<DocumentRankResult> results = new ArrayList<>();
+    long[] documentIds = new long[0];
+    long[] amounts = new long[0];
+    for (UserWorkUnit user : users) {
+      if (documentIds.length < user.references().size()) {
+        documentIds = new long[user.references().size()];
+        amounts = new long[documentIds.length];
+      }
+      int count = 0;
+      PrimitiveIterator.OfLong references = user.references().iterator();
+      while (references.hasNext()) {
+        long documentId = references.nextLong();
+        if (amountsInCents.containsKey(documentId)) {
+          documentIds[count] = documentId;
+          amounts[count++] = amountsInCents.get(documentId, 0L);
+        }
+      }
+
+      long[] sorted = Arrays.copyOf(amounts, count);
+      Arrays.sort(sorted);
+      for (int i = 0; i < count; i++) {
+        int higher = count - firstAbove(sorted, amounts[i]);
+        results.add(new DocumentRankResult(user.userId(), documentIds[i], higher + 1));
+      }
+    }
+    return replace -> {
+      if (replace) {
+        repository.deleteUserRanks(users.stream().map(UserWorkUnit::userId).toList());
+      }
+      return repository.batchUpsertRanks(results);
+    };
+  }
+
+  /** Index du premier montant strictement supérieur à {@code amount} dans {@code sorted}. */
+  private static int firstAbove(long[] sorted, long amount) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (sorted[middle] <= amount) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,38 @@
+package org.iscalon.demo_batch.writer.helper;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.iscalon.demo_batch.domain.UserCountResult;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.out.repository.UserCountRepository;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator;
+import org.springframework.stereotype.Component;
+
+/** Nombre de documents référencés par utilisateur. */
+@Component
+@RequiredArgsConstructor
+class UserCountCalculator implements ChunkCalculator {
+
+  private final UserCountRepository repository;
+
+  @Override
+  public String key() {
+    return "COUNT";
+  }
+
+  @Override
+  public ChunkWrite calculate(List<? extends UserWorkUnit> users, LongLongHashMap amountsInCents) {
+    List<UserCountResult> results = new ArrayList<>(users.size());
+    for (UserWorkUnit user : users) {
+      results.add(new UserCountResult(user.userId(), user.references().size()));
+    }
+    return replace -> {
+      if (replace) {
+        repository.deleteUserCounts(users.stream().map(UserWorkUnit::userId).toList());
+      }
+      return repository.batchUpsertCounts(results);
+    };
+  }
+}
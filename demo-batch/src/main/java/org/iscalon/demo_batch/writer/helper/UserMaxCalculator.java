@@ -0,0 +1,51 @@
+package org.iscalon.demo_batch.writer.helper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import lombok.RequiredArgsConstructor;
+import org.iscalon.demo_batch.domain.UserMaxResult;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.out.repository.UserMaxRepository;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator;
+import org.springframework.stereotype.Component;
+
+/** Montant maximum par utilisateur ; un utilisateur sans document renseigné n'a pas de ligne. */
+@Component
+@RequiredArgsConstructor
+class UserMaxCalculator implements ChunkCalculator {
+
+  private final UserMaxRepository repository;
+
+  @Override
+  public String key() {
+    return "MAX";
+  }
+
+  @Override
+  public ChunkWrite calculate(List<? extends UserWorkUnit> users, LongLongHashMap amountsInCents) {
+    List<UserMaxResult> results = new ArrayList<>(users.size());
+    for (UserWorkUnit user : users) {
+      boolean found = false;
+      long maxInCents = Long.MIN_VALUE;
+      PrimitiveIterator.OfLong documentIds = user.references().iterator();
+      while (documentIds.hasNext()) {
+        long documentId = documentIds.nextLong();
+        if (amountsInCents.containsKey(documentId)) {
+          found = true;
+          maxInCents = Math.max(maxInCents, amountsInCents.get(documentId, 0L));
+        }
+      }
+      if (found) {
+        results.add(new UserMaxResult(user.userId(), maxInCents));
+      }
+    }
+    return replace -> {
+      if (replace) {
+        repository.deleteUserMaximums(users.stream().map(UserWorkUnit::userId).toList());
+      }
+      return repository.batchUpsertMaximums(results);
+    };
+  }
+}
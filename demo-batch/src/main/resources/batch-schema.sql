@@ -0,0 +1,35 @@
+-- Tables applicatives de la base des métadonnées Spring Batch.
+
+-- File d'intervalles d'utilisateurs du découpage dynamique (paramètre de job partitioning=QUEUE),
+-- une file par instance de job.
+CREATE TABLE IF NOT EXISTS user_range_queue (
+    queue_id BIGINT NOT NULL,
+    range_id INT NOT NULL,
+    min_user_id VARCHAR(64),
+    max_user_id VARCHAR(64),
+    status VARCHAR(10) NOT NULL,
+    claimed_by VARCHAR(200),
+    last_user_id VARCHAR(64),
+
+    CONSTRAINT pk_user_range_queue PRIMARY KEY (queue_id, range_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_range_queue_status
+    ON user_range_queue(queue_id, status, range_id);
+
+-- Partitions publiées par le manager du partitionnement distant (paramètre de job remote=true),
+-- réclamées et exécutées par les workers. Une ligne par exécution d'étape de partition.
+CREATE TABLE IF NOT EXISTS partition_work (
+    step_execution_id BIGINT NOT NULL,
+    job_execution_id BIGINT NOT NULL,
+    step_name VARCHAR(100) NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    claimed_by VARCHAR(200),
+    heartbeat_at TIMESTAMP,
+    attempts INT DEFAULT 0 NOT NULL,
+
+    CONSTRAINT pk_partition_work PRIMARY KEY (step_execution_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_partition_work_status
+    ON partition_work(status, step_execution_id);
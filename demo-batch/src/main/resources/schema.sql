@@ -1,20 +1,90 @@
 CREATE TABLE IF NOT EXISTS source_data (
     v_ref BIGINT AUTO_INCREMENT PRIMARY KEY,
-    user_id TEXT NOT NULL,
+    user_id VARCHAR(64) NOT NULL,
     amount DECIMAL(19, 2) NOT NULL,
     status VARCHAR(30) NOT NULL DEFAULT 'PENDING'
 );
 
+-- Permet la lecture des partitions par intervalle d'utilisateurs (parcours d'index).
+CREATE INDEX IF NOT EXISTS idx_source_data_user ON source_data(user_id, v_ref);
+
+-- Permet au mode incrémental de ne parcourir que les utilisateurs ayant des lignes non traitées.
+CREATE INDEX IF NOT EXISTS idx_source_data_status ON source_data(status, user_id);
+
 CREATE TABLE IF NOT EXISTS calculated_result (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     v_ref BIGINT NOT NULL,
-    user_id TEXT NOT NULL,
+    user_id VARCHAR(64) NOT NULL,
     calculated_amount DECIMAL(19, 2) NOT NULL,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
 
     CONSTRAINT fk_result_input
     FOREIGN KEY (v_ref)
-    REFERENCES source_data(v_ref)
+    REFERENCES source_data(v_ref),
+
+    -- Un seul résultat par document : support du MERGE et de la suppression par intervalle
+    -- d'utilisateurs lors d'une reprise.
+    CONSTRAINT uk_result_user_ref
+    UNIQUE (user_id, v_ref)
+);
+
+-- Empreinte des données d'entrée de chaque utilisateur lors de son dernier calcul (références et
+-- montants) : un utilisateur dont l'empreinte n'a pas changé est écarté à la lecture
+-- (paramètre de job skipUnchanged). Elle est enregistrée avec les résultats par le moteur Java,
+-- et supprimée par le moteur SQL, qui ne la calcule pas.
+CREATE TABLE IF NOT EXISTS user_fingerprint (
+    user_id VARCHAR(64) NOT NULL,
+    fingerprint BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_user_fingerprint
+    PRIMARY KEY (user_id)
+);
+
+-- Agrégats calculés sur la même lecture que les cumuls (paramètre de job calculators) : une
+-- ligne par utilisateur, ou par document pour le rang, mise à jour par MERGE lors d'une reprise.
+CREATE TABLE IF NOT EXISTS user_max_result (
+    user_id VARCHAR(64) NOT NULL,
+    max_amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_user_max_result
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS user_count_result (
+    user_id VARCHAR(64) NOT NULL,
+    document_count INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_user_count_result
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS document_rank_result (
+    user_id VARCHAR(64) NOT NULL,
+    v_ref BIGINT NOT NULL,
+    amount_rank INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_document_rank_result
+    PRIMARY KEY (user_id, v_ref)
+);
+
+-- Répartition matérialisée des utilisateurs en buckets (chargement BUCKET_LOADER) : la lecture
+-- d'un bucket devient un parcours d'index par intervalle sur la clé primaire.
+CREATE TABLE IF NOT EXISTS user_bucket (
+    bucket INT NOT NULL,
+    user_id VARCHAR(64) NOT NULL,
+
+    CONSTRAINT pk_user_bucket
+    PRIMARY KEY (bucket, user_id)
+);
+
+-- Nombre de buckets de la dernière répartition (une seule ligne), comparé à celui du lancement.
+CREATE TABLE IF NOT EXISTS user_bucket_count (
+    bucket_count INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 -- H2 n'a pas de vraies procédures stockées SQL comme Oracle/PostgreSQL.
@@ -30,3 +100,73 @@ CREATE ALIAS IF NOT EXISTS PROC_INIT_2 AS '
         System.out.println("Exécution procédure 2"); return "Exécution procédure 2";
     }
 ';
+
+-- Calcul ensembliste des cumuls d'une partition (moteur SQL, paramètre de job engine=SQL).
+-- Les résultats de la partition sont d'abord supprimés : un nouveau lancement ou une reprise les
+-- remplace sans heurter la clé unique (user_id, v_ref). Les empreintes de la partition, que la
+-- procédure ne met pas à jour, sont supprimées aussi. Seuls les critères renseignés sont ajoutés,
+-- afin de conserver le parcours d'index par intervalle d'utilisateurs.
+CREATE ALIAS IF NOT EXISTS PROC_CALCUL_CUMULS AS '
+    int calculerCumuls(java.sql.Connection connection, Integer bucket, Integer bucketCount,
+            String minUserId, String maxUserId) throws java.sql.SQLException {
+        java.util.List<Object> arguments = new java.util.ArrayList<>();
+        StringBuilder filter = new StringBuilder(" WHERE 1 = 1");
+        if (bucketCount != null) {
+            filter.append(" AND MOD(ABS(ORA_HASH(user_id)), ?) = ?");
+            arguments.add(bucketCount);
+            arguments.add(bucket);
+        }
+        if (minUserId != null) {
+            filter.append(" AND user_id >= ?");
+            arguments.add(minUserId);
+        }
+        if (maxUserId != null) {
+            filter.append(" AND user_id < ?");
+            arguments.add(maxUserId);
+        }
+        for (String table : new String[] {"calculated_result", "user_fingerprint"}) {
+            try (java.sql.PreparedStatement statement =
+                    connection.prepareStatement("DELETE FROM " + table + filter)) {
+                for (int i = 0; i < arguments.size(); i++) {
+                    statement.setObject(i + 1, arguments.get(i));
+                }
+                statement.executeUpdate();
+            }
+        }
+        try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO calculated_result(v_ref, user_id, calculated_amount) "
+                    + "SELECT v_ref, user_id, SUM(amount) OVER (PARTITION BY user_id ORDER BY v_ref "
+                    + "ROWS BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW) "
+                    + "FROM source_data" + filter)) {
+            for (int i = 0; i < arguments.size(); i++) {
+                statement.setObject(i + 1, arguments.get(i));
+            }
+            return statement.executeUpdate();
+        }
+    }
+';
+
+-- Reconstruction de la répartition matérialisée pour bucketCount buckets, avec la même expression
+-- de hachage que le prédicat des partitions HASH.
+CREATE ALIAS IF NOT EXISTS PROC_REPARTITION_UTILISATEURS AS '
+    int repartir(java.sql.Connection connection, Integer bucketCount) throws java.sql.SQLException {
+        try (java.sql.Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM user_bucket");
+            statement.executeUpdate("DELETE FROM user_bucket_count");
+        }
+        int userCount;
+        try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO user_bucket(bucket, user_id) "
+                    + "SELECT MOD(ABS(ORA_HASH(user_id)), ?), user_id "
+                    + "FROM source_data GROUP BY user_id")) {
+            statement.setInt(1, bucketCount);
+            userCount = statement.executeUpdate();
+        }
+        try (java.sql.PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO user_bucket_count(bucket_count) VALUES (?)")) {
+            statement.setInt(1, bucketCount);
+            statement.executeUpdate();
+        }
+        return userCount;
+    }
+';
@@ -4,22 +4,30 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.util.List;
-import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.iscalon.demo_batch.annotation.BatchIntegrationTest;
 import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.domain.DocumentReferences;
 import org.iscalon.demo_batch.domain.UserWorkUnit;
 import org.iscalon.demo_batch.out.repository.CalculRepository;
+import org.iscalon.demo_batch.out.repository.DocumentDataRepository;
+import org.iscalon.demo_batch.out.repository.SourceDataStatusRepository;
 import org.iscalon.demo_batch.out.storedprocedure.PourAppelerStoredProcedure;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.partition.UserPartition.HashBucket;
 import org.iscalon.demo_batch.reader.UserLoadingStrategy;
+import org.iscalon.demo_batch.util.LongLongHashMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,8 +52,11 @@ class DemoBatchApplicationTests {
 
   @MockitoBean private PourAppelerStoredProcedure storedProcedures;
   @MockitoBean private CalculRepository calculs;
+  @MockitoBean private DocumentDataRepository documents;
+  @MockitoBean private SourceDataStatusRepository statuses;
 
-  @MockitoBean private UserLoadingStrategy users;
+  @MockitoBean(name = "jdbcUserLoadingStrategy")
+  private UserLoadingStrategy users;
 
   @Captor private ArgumentCaptor<List<CalculatedResult>> calculsCaptor;
 
@@ -54,6 +65,12 @@ class DemoBatchApplicationTests {
     doNothing().when(storedProcedures).appeler(anyString());
     doNothing().when(calculs).batchInsertResults(anyList());
     doReturn("TEST_LOADER").when(users).key();
+    // Les partitions du chargement de test sont celles du prédicat SQL : les résultats sont
+    // supprimés à l'ouverture puis insérés
+    doReturn(true).when(users).followsSqlPartitions();
+    doReturn(users).when(users).forStep();
+    doReturn(documents).when(documents).forJob(anyLong());
+    doReturn(amountsInCents()).when(documents).findAmountsInCents(any());
   }
 
   @Test
@@ -62,12 +79,15 @@ class DemoBatchApplicationTests {
             invocation ->
                 prepareResponseFor(
                     invocation.getArgument(0),
-                    invocation.getArgument(3)))
+                    invocation.getArgument(2)))
         .when(users)
-        .load(anyInt(), anyInt(), anyInt(), any());
+        .load(any(), anyInt(), any());
 
     JobParameters params =
-        new JobParametersBuilder().addString("date", "2026-12-10").toJobParameters();
+        new JobParametersBuilder()
+            .addString("date", "2026-12-10")
+            .addString("loader", "TEST_LOADER")
+            .toJobParameters();
 
     JobExecution execution = jobTestUtils.startJob(params);
 
@@ -75,10 +95,45 @@ class DemoBatchApplicationTests {
     assertBatchResults();
   }
 
+  @Test
+  void should_replace_results_of_pending_users_in_incremental_mode() throws Exception {
+    doReturn(users).when(users).pendingOnly();
+    doAnswer(
+            invocation ->
+                prepareResponseFor(
+                    invocation.getArgument(0),
+                    invocation.getArgument(2)))
+        .when(users)
+        .load(any(), anyInt(), any());
+
+    JobParameters params =
+        new JobParametersBuilder()
+            .addString("date", "2026-12-11")
+            .addString("loader", "TEST_LOADER")
+            .addString("incremental", "true")
+            .toJobParameters();
+
+    JobExecution execution = jobTestUtils.startJob(params);
+
+    assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+    // Chaque utilisateur recalculé voit ses résultats supprimés avant leur réinsertion, et ses
+    // lignes source marquées traitées dans la même écriture
+    InOrder inOrder = inOrder(calculs, statuses);
+    inOrder.verify(calculs).deleteUserResults(List.of("Y0001"));
+    inOrder.verify(calculs).batchInsertResults(anyList());
+    inOrder.verify(statuses).markProcessed(new long[] {1L, 2L});
+    verify(calculs).deleteUserResults(List.of("Y0002"));
+    verify(statuses).markProcessed(new long[] {3L, 4L, 5L});
+    verify(calculs, never()).deleteResults(any(), any());
+  }
+
   private void assertBatchResults() {
+    // Les 2 procédures de préparation sont indépendantes : elles s'exécutent en parallèle, dans
+    // un ordre quelconque, mais toujours avant les calculs.
+    verify(storedProcedures).appeler("PROC_INIT_1");
+    verify(storedProcedures).appeler("PROC_INIT_2");
     InOrder inOrder = inOrder(storedProcedures, calculs);
-    inOrder.verify(storedProcedures).appeler("PROC_INIT_1");
-    inOrder.verify(storedProcedures).appeler("PROC_INIT_2");
+    inOrder.verify(storedProcedures, times(2)).appeler(anyString());
     // 2 appels d'insertions en masse car les 2 utilisateurs vont être répartis sur 2 buckets
     // différents (v. méthode 'prepareResponseFor' plus bas).
     // Les 2 résultats calculés pour l'utilisateur 1 seront écrits d'un coup
@@ -90,27 +145,36 @@ class DemoBatchApplicationTests {
 
     List<CalculatedResult> allResults = captorAllValues.stream().flatMap(List::stream).toList();
     assertThat(allResults)
-        .hasSize(5)
-        .usingRecursiveFieldByFieldElementComparatorIgnoringFields("amount")
         .containsExactlyInAnyOrder(
-            // 2 résultats pour l'utilisateur 1
-            new CalculatedResult("Y0001", 1L, null),
-            new CalculatedResult("Y0001", 2L, null),
-            // 3 résultats pour l'utilisateur 2
-            new CalculatedResult("Y0002", 3L, null),
-            new CalculatedResult("Y0002", 4L, null),
-            new CalculatedResult("Y0002", 5L, null));
+            // 2 résultats cumulés pour l'utilisateur 1 : 10,00 puis 10,00 + 25,00
+            new CalculatedResult("Y0001", 1L, 1_000L),
+            new CalculatedResult("Y0001", 2L, 3_500L),
+            // 3 résultats cumulés pour l'utilisateur 2 : 7,00 puis + 3,00 puis + 0,50
+            new CalculatedResult("Y0002", 3L, 700L),
+            new CalculatedResult("Y0002", 4L, 1_000L),
+            new CalculatedResult("Y0002", 5L, 1_050L));
+  }
+
+  /** Montants en centimes des 5 documents des utilisateurs de test */
+  private static LongLongHashMap amountsInCents() {
+    LongLongHashMap amounts = new LongLongHashMap();
+    amounts.put(1L, 1_000L);
+    amounts.put(2L, 2_500L);
+    amounts.put(3L, 700L);
+    amounts.put(4L, 300L);
+    amounts.put(5L, 50L);
+    return amounts;
   }
 
-  private List<UserWorkUnit> prepareResponseFor(int bucket, String lastUserId) {
-    if (lastUserId != null) {
+  private List<UserWorkUnit> prepareResponseFor(UserPartition partition, String lastUserId) {
+    if (lastUserId != null || !(partition instanceof HashBucket(int bucket, int bucketCount))) {
       return List.of();
     }
     if (bucket == 1) {
-      return List.of(new UserWorkUnit("Y0001", Set.of(1L, 2L)));
+      return List.of(new UserWorkUnit("Y0001", DocumentReferences.of(1L, 2L)));
     }
     if (bucket == 2) {
-      return List.of(new UserWorkUnit("Y0002", Set.of(3L, 4L, 5L)));
+      return List.of(new UserWorkUnit("Y0002", DocumentReferences.of(3L, 4L, 5L)));
     }
     return List.of();
   }
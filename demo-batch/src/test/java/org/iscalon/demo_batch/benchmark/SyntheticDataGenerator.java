@@ -0,0 +1,165 @@
+package org.iscalon.demo_batch.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Remplit la table {@code source_data} (base H2) avec un volume d'utilisateurs et de documents
+ * paramétrable, pour mesurer le job à une échelle réaliste.
+ *
+ * <p>Le nombre de documents par utilisateur suit soit une loi uniforme ({@code skew = 0}), soit
+ * une loi de Pareto d'autant plus étalée que {@code skew} est grand : quelques utilisateurs
+ * concentrent alors une grande partie des documents, comme en production. Le tirage est
+ * déterministe pour une graine donnée.
+ *
+ * <p>Les tables sont vidées avant le chargement, et l'index {@code (user_id, v_ref)} n'est
+ * reconstruit qu'une fois toutes les lignes insérées.
+ */
+@Slf4j
+public class SyntheticDataGenerator {
+
+  private static final String INSERT_SQL =
+      "INSERT INTO source_data(user_id, amount, status) VALUES (?, ?, 'PENDING')";
+
+  /** Nombre de lignes insérées par lot JDBC et par transaction */
+  private static final int ROWS_PER_BATCH = 10_000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transaction;
+
+  public SyntheticDataGenerator(
+      JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transaction = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * @param users nombre d'utilisateurs générés
+   * @param meanDocumentsPerUser nombre moyen de documents par utilisateur (avant écrêtage)
+   * @param skew étalement de la distribution : {@code 0} pour une loi uniforme entre 1 et {@code
+   *     2 * meanDocumentsPerUser - 1}, sinon loi de Pareto d'indice {@code 1 + 1 / skew}
+   * @param maxDocumentsPerUser écrêtage du nombre de documents d'un utilisateur
+   * @param seed graine du tirage
+   */
+  public record Spec(
+      int users, int meanDocumentsPerUser, double skew, int maxDocumentsPerUser, long seed) {
+
+    public Spec {
+      if (users < 1 || meanDocumentsPerUser < 1 || maxDocumentsPerUser < 1 || skew < 0) {
+        throw new IllegalArgumentException("Paramètres de génération invalides : " + this);
+      }
+    }
+
+    int documentsOf(SplittableRandom random) {
+      if (skew == 0) {
+        return Math.min(1 + random.nextInt(2 * meanDocumentsPerUser - 1), maxDocumentsPerUser);
+      }
+      double alpha = 1 + 1 / skew;
+      double scale = meanDocumentsPerUser * (alpha - 1) / alpha;
+      double sample = scale / Math.pow(1 - random.nextDouble(), 1 / alpha);
+      return Math.clamp(Math.round(sample), 1, maxDocumentsPerUser);
+    }
+  }
+
+  /**
+   * @param largestUser nombre de documents de l'utilisateur le plus chargé
+   */
+  public record Report(int users, long rows, int largestUser, Duration duration) {}
+
+  public Report generate(Spec spec) {
+    long start = System.nanoTime();
+    reset();
+
+    SplittableRandom random = new SplittableRandom(spec.seed());
+    Batch batch = new Batch();
+    long rows = 0;
+    int largestUser = 0;
+    for (int user = 0; user < spec.users(); user++) {
+      String userId = "U%09d".formatted(user);
+      int documents = spec.documentsOf(random);
+      largestUser = Math.max(largestUser, documents);
+      for (int document = 0; document < documents; document++) {
+        batch.add(userId, random.nextLong(100, 100_000));
+        if (batch.size == ROWS_PER_BATCH) {
+          flush(batch);
+        }
+      }
+      rows += documents;
+    }
+    flush(batch);
+
+    log.info("[ACCES BDD] : Reconstruction de l'index utilisateurs ({} lignes)", rows);
+    jdbcTemplate.execute("CREATE INDEX idx_source_data_user ON source_data(user_id, v_ref)");
+    jdbcTemplate.execute("ANALYZE TABLE source_data");
+
+    Report report =
+        new Report(spec.users(), rows, largestUser, Duration.ofNanos(System.nanoTime() - start));
+    log.info(
+        "[ACCES BDD] : {} utilisateurs, {} documents générés en {} ms (max {} par utilisateur)",
+        report.users(),
+        report.rows(),
+        report.duration().toMillis(),
+        report.largestUser());
+    return report;
+  }
+
+  /**
+   * Vide les tables métier. L'intégrité référentielle est suspendue le temps du {@code TRUNCATE}
+   * de {@code source_data}, référencée par {@code calculated_result}.
+   */
+  private void reset() {
+    jdbcTemplate.execute("TRUNCATE TABLE calculated_result");
+    jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+    try {
+      jdbcTemplate.execute("TRUNCATE TABLE source_data RESTART IDENTITY");
+    } finally {
+      jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+    jdbcTemplate.execute("DROP INDEX IF EXISTS idx_source_data_user");
+  }
+
+  private void flush(Batch batch) {
+    if (batch.size == 0) {
+      return;
+    }
+    transaction.executeWithoutResult(
+        status ->
+            jdbcTemplate.batchUpdate(
+                INSERT_SQL,
+                new BatchPreparedStatementSetter() {
+                  @Override
+                  public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setString(1, batch.userIds[i]);
+                    ps.setBigDecimal(2, BigDecimal.valueOf(batch.amountsInCents[i], 2));
+                  }
+
+                  @Override
+                  public int getBatchSize() {
+                    return batch.size;
+                  }
+                }));
+    batch.size = 0;
+  }
+
+  /** Lignes en attente d'insertion, réutilisées d'un lot à l'autre. */
+  private static final class Batch {
+
+    private final String[] userIds = new String[ROWS_PER_BATCH];
+    private final long[] amountsInCents = new long[ROWS_PER_BATCH];
+    private int size;
+
+    void add(String userId, long amountInCents) {
+      userIds[size] = userId;
+      amountsInCents[size] = amountInCents;
+      size++;
+    }
+  }
+}
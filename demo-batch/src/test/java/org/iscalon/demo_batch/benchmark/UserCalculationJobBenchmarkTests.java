@@ -0,0 +1,153 @@
+package org.iscalon.demo_batch.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.iscalon.demo_batch.annotation.BatchIntegrationTest;
+import org.iscalon.demo_batch.benchmark.SyntheticDataGenerator.Report;
+import org.iscalon.demo_batch.benchmark.SyntheticDataGenerator.Spec;
+import org.iscalon.demo_batch.metrics.PartitionMetrics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+import org.springframework.batch.core.step.StepExecution;
+import org.springframework.batch.test.JobOperatorTestUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Exécution de bout en bout de {@code userCalculationJob} sur un jeu de données synthétique :
+ * durée totale, débit (lignes/s) de chaque partition et pic de mémoire heap. C'est la référence
+ * à comparer avant et après chaque optimisation du module.
+ *
+ * <p>Exclu du build par défaut (tag {@code benchmark}), lancement par :
+ *
+ * <pre>
+ * mvn test -Pbenchmark -Dbenchmark.users=200000 -Dbenchmark.skew=2 -Dbenchmark.job.gridSize=8
+ * </pre>
+ *
+ * <p>Propriétés du jeu de données : {@code benchmark.users}, {@code
+ * benchmark.documentsPerUser}, {@code benchmark.skew}, {@code benchmark.maxDocumentsPerUser},
+ * {@code benchmark.seed}. Toute propriété {@code benchmark.job.<nom>} est transmise au job comme
+ * paramètre {@code <nom>} (par exemple {@code benchmark.job.pipelined=true}).
+ */
+@Slf4j
+@Tag("benchmark")
+@BatchIntegrationTest
+class UserCalculationJobBenchmarkTests {
+
+  private static final String JOB_PARAMETER_PREFIX = "benchmark.job.";
+
+  @Autowired private JobOperatorTestUtils jobTestUtils;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private PlatformTransactionManager transactionManager;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Test
+  void should_report_throughput_on_synthetic_data() throws Exception {
+    Spec spec =
+        new Spec(
+            Integer.getInteger("benchmark.users", 50_000),
+            Integer.getInteger("benchmark.documentsPerUser", 20),
+            Double.parseDouble(System.getProperty("benchmark.skew", "1")),
+            Integer.getInteger("benchmark.maxDocumentsPerUser", 10_000),
+            Long.getLong("benchmark.seed", 42L));
+    Report data = new SyntheticDataGenerator(jdbcTemplate, transactionManager).generate(spec);
+
+    System.gc();
+    List<MemoryPoolMXBean> heapPools = heapPools();
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    long start = System.nanoTime();
+    JobExecution execution = jobTestUtils.startJob(jobParameters());
+    Duration duration = Duration.ofNanos(System.nanoTime() - start);
+    long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+    assertThat(execution.getStatus()).isEqualTo(BatchStatus.COMPLETED);
+    Long results =
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM calculated_result", Long.class);
+    assertThat(results).isEqualTo(data.rows());
+
+    report(spec, data, execution, duration, peakHeap);
+  }
+
+  private static JobParameters jobParameters() {
+    JobParametersBuilder parameters =
+        new JobParametersBuilder().addLong("benchmark.run", System.currentTimeMillis());
+    System.getProperties().stringPropertyNames().stream()
+        .filter(name -> name.startsWith(JOB_PARAMETER_PREFIX))
+        .forEach(
+            name ->
+                parameters.addString(
+                    name.substring(JOB_PARAMETER_PREFIX.length()), System.getProperty(name)));
+    return parameters.toJobParameters();
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+        .toList();
+  }
+
+  /**
+   * Le pic de heap est la somme des pics de chaque zone mémoire : ils ne sont pas forcément
+   * simultanés, la valeur est donc un majorant.
+   */
+  private void report(
+      Spec spec, Report data, JobExecution execution, Duration duration, long peakHeap) {
+    long millis = Math.max(duration.toMillis(), 1);
+    log.info("Benchmark {} : {}", spec, execution.getJobParameters());
+    log.info(
+        "Benchmark : {} utilisateurs, {} lignes en {} ms ({} lignes/s), pic heap {} Mo",
+        data.users(),
+        data.rows(),
+        millis,
+        data.rows() * 1000 / millis,
+        peakHeap / (1024 * 1024));
+
+    execution.getStepExecutions().stream()
+        .filter(stepExecution -> stepExecution.getStepName().contains(":"))
+        .sorted(Comparator.comparing(StepExecution::getStepName))
+        .forEach(
+            stepExecution -> {
+              String partition =
+                  stepExecution
+                      .getStepName()
+                      .substring(stepExecution.getStepName().indexOf(':') + 1);
+              long partitionMillis =
+                  Math.max(
+                      Duration.between(stepExecution.getStartTime(), stepExecution.getEndTime())
+                          .toMillis(),
+                      1);
+              long rows = resultsWrittenBy(partition);
+              log.info(
+                  "Benchmark {} : {} utilisateurs, {} lignes en {} ms ({} lignes/s)",
+                  partition,
+                  stepExecution.getWriteCount(),
+                  rows,
+                  partitionMillis,
+                  rows * 1000 / partitionMillis);
+            });
+  }
+
+  /** Compteur alimenté par le moteur Java uniquement : 0 avec {@code engine=SQL}. */
+  private long resultsWrittenBy(String partition) {
+    Counter counter =
+        meterRegistry
+            .find(PartitionMetrics.RESULTS_WRITTEN)
+            .tag(PartitionMetrics.PARTITION_TAG, partition)
+            .counter();
+    return counter == null ? 0 : (long) counter.count();
+  }
+}
@@ -0,0 +1,57 @@
+package org.iscalon.demo_batch.chunk;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ChunkSizeControllerTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  void should_grow_additively_while_under_the_target_latency() {
+    ChunkSizeController controller = ChunkSizeController.adaptive(100, 10, 1_000, 1_000);
+
+    controller.adjust(100 * MS, 100);
+    controller.adjust(110 * MS, 110);
+
+    assertThat(controller.chunkSize()).isEqualTo(120);
+  }
+
+  @Test
+  void should_halve_when_the_target_latency_is_exceeded() {
+    ChunkSizeController controller = ChunkSizeController.adaptive(100, 10, 1_000, 1_000);
+
+    controller.adjust(1_500 * MS, 100);
+
+    assertThat(controller.chunkSize()).isEqualTo(50);
+  }
+
+  @Test
+  void should_halve_when_throughput_drops() {
+    ChunkSizeController controller = ChunkSizeController.adaptive(100, 10, 1_000, 1_000);
+
+    controller.adjust(100 * MS, 100); // 1000 éléments/s
+    controller.adjust(500 * MS, 110); // 220 éléments/s
+
+    assertThat(controller.chunkSize()).isEqualTo(55);
+  }
+
+  @Test
+  void should_stay_within_bounds() {
+    ChunkSizeController controller = ChunkSizeController.adaptive(100, 80, 105, 1_000);
+
+    controller.adjust(10 * MS, 100);
+    assertThat(controller.chunkSize()).isEqualTo(105);
+
+    controller.adjust(2_000 * MS, 105);
+    assertThat(controller.chunkSize()).isEqualTo(80);
+  }
+
+  @Test
+  void should_keep_a_fixed_size() {
+    ChunkSizeController controller = ChunkSizeController.fixed(500);
+
+    assertThat(controller.chunkSize()).isEqualTo(500);
+  }
+}
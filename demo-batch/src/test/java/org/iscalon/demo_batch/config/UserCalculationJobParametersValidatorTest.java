@@ -0,0 +1,60 @@
+package org.iscalon.demo_batch.config;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.job.parameters.InvalidJobParametersException;
+import org.springframework.batch.core.job.parameters.JobParameters;
+import org.springframework.batch.core.job.parameters.JobParametersBuilder;
+
+class UserCalculationJobParametersValidatorTest {
+
+  private final UserCalculationJobParametersValidator validator =
+      new UserCalculationJobParametersValidator();
+
+  @Test
+  void should_reject_the_sql_engine_in_incremental_mode_whatever_the_parameter_type() {
+    JobParameters asString =
+        new JobParametersBuilder()
+            .addString("engine", "SQL")
+            .addString("incremental", "true")
+            .toJobParameters();
+    JobParameters asBoolean =
+        new JobParametersBuilder()
+            .addString("engine", "SQL")
+            .addJobParameter("incremental", true, Boolean.class)
+            .toJobParameters();
+
+    assertThatThrownBy(() -> validator.validate(asString))
+        .isInstanceOf(InvalidJobParametersException.class);
+    assertThatThrownBy(() -> validator.validate(asBoolean))
+        .isInstanceOf(InvalidJobParametersException.class);
+  }
+
+  @Test
+  void should_reject_the_queue_partitioning_in_pipelined_mode() {
+    JobParameters parameters =
+        new JobParametersBuilder()
+            .addString("partitioning", "QUEUE")
+            .addJobParameter("pipelined", true, Boolean.class)
+            .toJobParameters();
+
+    assertThatThrownBy(() -> validator.validate(parameters))
+        .isInstanceOf(InvalidJobParametersException.class)
+        .hasMessageContaining("QUEUE");
+  }
+
+  @Test
+  void should_accept_the_default_parameters_and_the_java_engine_in_incremental_mode() {
+    JobParameters incremental =
+        new JobParametersBuilder()
+            .addJobParameter("incremental", true, Boolean.class)
+            .addString("partitioning", "QUEUE")
+            .toJobParameters();
+    JobParameters defaults = new JobParametersBuilder().toJobParameters();
+
+    assertThatCode(() -> validator.validate(defaults)).doesNotThrowAnyException();
+    assertThatCode(() -> validator.validate(incremental)).doesNotThrowAnyException();
+  }
+}
@@ -0,0 +1,58 @@
+package org.iscalon.demo_batch.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class DocumentReferencesTest {
+
+  @Test
+  void should_sort_and_deduplicate_small_references() {
+    DocumentReferences references = DocumentReferences.of(5L, 1L, 3L, 1L);
+
+    assertThat(references.size()).isEqualTo(3);
+    assertThat(references.toArray()).containsExactly(1L, 3L, 5L);
+    assertThat(references).hasToString("[1, 3, 5]").isEqualTo(DocumentReferences.of(1L, 3L, 5L));
+  }
+
+  @Test
+  void should_pack_large_references_without_losing_values() {
+    long[] ids =
+        LongStream.concat(
+                LongStream.of(Long.MIN_VALUE, -1L, 0L),
+                LongStream.iterate(1L, id -> id + 1 + id % 1_000).limit(5_000))
+            .toArray();
+    long[] buffer = new long[ids.length + 10];
+    System.arraycopy(ids, 0, buffer, 0, ids.length);
+
+    DocumentReferences references = DocumentReferences.ofSorted(buffer, ids.length);
+
+    assertThat(references.size()).isEqualTo(ids.length);
+    assertThat(references.toArray()).containsExactly(ids);
+    PrimitiveIterator.OfLong iterator = references.iterator();
+    for (long id : ids) {
+      assertThat(iterator.nextLong()).isEqualTo(id);
+    }
+    assertThat(iterator.hasNext()).isFalse();
+    assertThat(references)
+        .isEqualTo(DocumentReferences.of(ids))
+        .hasSameHashCodeAs(DocumentReferences.of(ids));
+  }
+
+  @Test
+  void should_reject_unsorted_references() {
+    assertThatThrownBy(() -> DocumentReferences.ofSorted(new long[] {1L, 3L, 3L}, 3))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void should_default_to_empty_references() {
+    UserWorkUnit user = new UserWorkUnit("U1", null);
+
+    assertThat(user.references().isEmpty()).isTrue();
+    assertThat(user.references().iterator().hasNext()).isFalse();
+  }
+}
@@ -0,0 +1,21 @@
+package org.iscalon.demo_batch.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class UserWorkUnitTest {
+
+  @Test
+  void should_sort_and_deduplicate_the_documents_of_all_users() {
+    List<UserWorkUnit> users =
+        List.of(
+            new UserWorkUnit("A0001", DocumentReferences.of(7L, 2L)),
+            new UserWorkUnit("B0001", DocumentReferences.of(2L, 9L, 1L)),
+            new UserWorkUnit("C0001", null));
+
+    assertThat(UserWorkUnit.distinctDocumentIds(users)).containsExactly(1L, 2L, 7L, 9L);
+    assertThat(UserWorkUnit.distinctDocumentIds(List.of())).isEmpty();
+  }
+}
@@ -0,0 +1,65 @@
+package org.iscalon.demo_batch.logging;
+
+import static org.iscalon.demo_batch.logging.ItemTracer.SAMPLE_INTERVAL_NANOS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+class ItemTracerTest {
+
+  private final Logger log = mock(Logger.class);
+  private final AtomicLong clock = new AtomicLong(1_000L);
+
+  @BeforeEach
+  void setUp() {
+    when(log.isInfoEnabled()).thenReturn(true);
+  }
+
+  @Test
+  void should_trace_at_most_one_item_per_interval_in_sampled_mode() {
+    ItemTracer tracer = new ItemTracer(log, ItemTraceMode.SAMPLED, clock::get);
+
+    tracer.trace("Ajout de : {}", "U1");
+    tracer.trace("Ajout de : {}", "U2");
+    tracer.trace("Ajout de : {}", "U3");
+    clock.addAndGet(SAMPLE_INTERVAL_NANOS);
+    tracer.trace("Ajout de : {}", "U4");
+
+    verify(log).info("Ajout de : {}", "U1");
+    verify(log, never()).info("Ajout de : {}", "U2");
+    verify(log, never()).info("Ajout de : {}", "U3");
+    verify(log).info("Ajout de : {} ({} non tracés)", "U4", 2);
+  }
+
+  @Test
+  void should_summarize_traced_items_once_in_sampled_mode() {
+    ItemTracer tracer = new ItemTracer(log, ItemTraceMode.SAMPLED, clock::get);
+
+    tracer.trace("Ajout de : {}", "U1");
+    tracer.trace("Ajout de : {}", "U2");
+    tracer.summarize("{} utilisateurs, dernier : {}", "U2");
+    tracer.summarize("{} utilisateurs, dernier : {}", "U2");
+
+    verify(log, times(1)).debug("{} utilisateurs, dernier : {}", 2, "U2");
+  }
+
+  @Test
+  void should_trace_every_item_in_full_mode() {
+    ItemTracer tracer = new ItemTracer(log, ItemTraceMode.FULL, clock::get);
+
+    tracer.trace("Ajout de : {}", "U1");
+    tracer.trace("Ajout de : {}", "U2");
+    tracer.summarize("{} utilisateurs, dernier : {}", "U2");
+
+    verify(log).info("Ajout de : {}", "U1");
+    verify(log).info("Ajout de : {}", "U2");
+    verify(log, never()).debug("{} utilisateurs, dernier : {}", 2, "U2");
+  }
+}
@@ -0,0 +1,100 @@
+package org.iscalon.demo_batch.out.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import org.iscalon.demo_batch.domain.DocumentRankResult;
+import org.iscalon.demo_batch.domain.UserCountResult;
+import org.iscalon.demo_batch.domain.UserMaxResult;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.iscalon.demo_batch.out.repository.MergeSql.Column;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class AggregateJdbcRepositoryTest {
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+  private AggregateJdbcRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    jdbcTemplate = new JdbcTemplate(database);
+    repository = new AggregateJdbcRepository(jdbcTemplate, Dialect.H2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void should_merge_the_aggregates_on_the_key_of_each_table() {
+    repository.batchUpsertMaximums(
+        List.of(new UserMaxResult("A0001", 100L), new UserMaxResult("B0001", 5L)));
+    repository.batchUpsertCounts(List.of(new UserCountResult("A0001", 1)));
+    repository.batchUpsertRanks(List.of(new DocumentRankResult("A0001", 1L, 1)));
+
+    // Reprise : les lignes du chunk rejoué sont remplacées, les autres ajoutées
+    repository.batchUpsertMaximums(List.of(new UserMaxResult("A0001", 350L)));
+    repository.batchUpsertCounts(List.of(new UserCountResult("A0001", 2)));
+    repository.batchUpsertRanks(
+        List.of(new DocumentRankResult("A0001", 1L, 2), new DocumentRankResult("A0001", 2L, 1)));
+
+    assertThat(
+            jdbcTemplate.query(
+                "SELECT user_id, max_amount FROM user_max_result ORDER BY user_id",
+                (rs, rowNum) ->
+                    Map.entry(
+                        rs.getString("user_id"), rs.getBigDecimal("max_amount").toPlainString())))
+        .containsExactly(Map.entry("A0001", "3.50"), Map.entry("B0001", "0.05"));
+    assertThat(
+            jdbcTemplate.queryForObject(
+                "SELECT document_count FROM user_count_result WHERE user_id = 'A0001'",
+                Integer.class))
+        .isEqualTo(2);
+    assertThat(
+            jdbcTemplate.queryForList(
+                "SELECT amount_rank FROM document_rank_result ORDER BY v_ref", Integer.class))
+        .containsExactly(2, 1);
+  }
+
+  @Test
+  void should_delete_the_aggregates_of_the_given_users_only() {
+    repository.batchUpsertMaximums(
+        List.of(new UserMaxResult("A0001", 100L), new UserMaxResult("B0001", 5L)));
+
+    assertThat(repository.deleteUserMaximums(List.of("A0001"))).isEqualTo(1);
+
+    assertThat(jdbcTemplate.queryForList("SELECT user_id FROM user_max_result", String.class))
+        .containsExactly("B0001");
+  }
+
+  @Test
+  void should_build_the_merge_from_dual_on_oracle() {
+    String merge =
+        MergeSql.mergeRow(
+            Dialect.ORACLE,
+            "document_rank_result",
+            List.of(new Column("user_id", "VARCHAR(64)"), new Column("v_ref", "BIGINT")),
+            List.of(new Column("amount_rank", "INT")));
+
+    assertThat(merge)
+        .contains("USING (SELECT ? AS user_id, ? AS v_ref, ? AS amount_rank FROM dual) s")
+        .contains("ON (t.user_id = s.user_id AND t.v_ref = s.v_ref)")
+        .contains("UPDATE SET t.amount_rank = s.amount_rank")
+        .doesNotContain("VALUES (CAST");
+  }
+}
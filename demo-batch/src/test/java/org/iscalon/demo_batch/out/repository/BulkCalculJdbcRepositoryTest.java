@@ -0,0 +1,145 @@
+package org.iscalon.demo_batch.out.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class BulkCalculJdbcRepositoryTest {
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+  private BulkCalculJdbcRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    jdbcTemplate = new JdbcTemplate(database);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO source_data(v_ref, user_id, amount) VALUES (?, ?, ?)",
+        List.of(
+            new Object[] {1L, "A0001", 1},
+            new Object[] {2L, "A0001", 2},
+            new Object[] {3L, "B0001", 3},
+            new Object[] {4L, "C0001", 4},
+            new Object[] {5L, "C0001", 5},
+            new Object[] {6L, "D0001", 6},
+            new Object[] {7L, "D0001", 7}));
+    repository = new BulkCalculJdbcRepository(jdbcTemplate, Dialect.H2, 2, 4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void should_update_existing_results_and_insert_new_ones_when_upserting() {
+    repository.batchInsertResults(
+        List.of(
+            new CalculatedResult("A0001", 1L, 100L),
+            new CalculatedResult("A0001", 2L, 300L),
+            new CalculatedResult("B0001", 3L, 300L)));
+
+    repository.batchUpsertResults(
+        List.of(
+            new CalculatedResult("A0001", 1L, 100L),
+            new CalculatedResult("A0001", 2L, 350L),
+            new CalculatedResult("B0001", 3L, 300L),
+            new CalculatedResult("C0001", 4L, 400L),
+            new CalculatedResult("C0001", 5L, 900L)));
+
+    assertThat(results())
+        .containsExactly(
+            Map.entry(1L, "1.00"),
+            Map.entry(2L, "3.50"),
+            Map.entry(3L, "3.00"),
+            Map.entry(4L, "4.00"),
+            Map.entry(5L, "9.00"));
+  }
+
+  @Test
+  void should_delete_the_results_of_the_partition_after_the_restart_checkpoint() {
+    repository.batchInsertResults(
+        List.of(
+            new CalculatedResult("A0001", 1L, 100L),
+            new CalculatedResult("A0001", 2L, 300L),
+            new CalculatedResult("B0001", 3L, 300L),
+            new CalculatedResult("C0001", 4L, 400L),
+            new CalculatedResult("C0001", 5L, 900L)));
+
+    int deleted = repository.deleteResults(new UserIdRange(null, "C"), "A0001");
+
+    assertThat(deleted).isEqualTo(1);
+    assertThat(results()).extracting(Map.Entry::getKey).containsExactly(1L, 2L, 4L, 5L);
+  }
+
+  @Test
+  void should_split_the_rows_into_multi_row_statements_and_send_the_remainder_one_by_one()
+      throws SQLException {
+    JdbcTemplate spiedJdbcTemplate = spy(jdbcTemplate);
+    // 5 lignes par lot ramenées à 4, multiple des 2 lignes par ordre
+    BulkCalculJdbcRepository splitting =
+        new BulkCalculJdbcRepository(spiedJdbcTemplate, Dialect.H2, 2, 5);
+    List<CalculatedResult> results = new ArrayList<>();
+    for (long documentId = 1L; documentId <= 7L; documentId++) {
+      results.add(new CalculatedResult("A0001", documentId, documentId * 100L + 1));
+    }
+
+    splitting.batchInsertResults(results);
+
+    ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+    ArgumentCaptor<BatchPreparedStatementSetter> batches =
+        ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+    verify(spiedJdbcTemplate, times(3)).batchUpdate(sql.capture(), batches.capture());
+    // Lignes 1 à 4, puis 5 et 6 en ordres de 2 lignes, puis la 7e seule
+    assertThat(sql.getAllValues())
+        .containsExactly(
+            CalculResultSql.insert(2), CalculResultSql.insert(2), CalculResultSql.insert(1));
+    assertThat(batches.getAllValues())
+        .extracting(BatchPreparedStatementSetter::getBatchSize)
+        .containsExactly(2, 1, 1);
+
+    PreparedStatement lastStatement = mock(PreparedStatement.class);
+    batches.getAllValues().getLast().setValues(lastStatement, 0);
+    verify(lastStatement).setLong(1, 7L);
+    verify(lastStatement).setString(2, "A0001");
+    verify(lastStatement).setBigDecimal(3, new BigDecimal("7.01"));
+
+    assertThat(results()).extracting(Map.Entry::getValue).last().isEqualTo("7.01");
+    assertThat(results()).hasSize(7);
+  }
+
+  /** Montants des résultats par document, dans l'ordre des documents */
+  private List<Map.Entry<Long, String>> results() {
+    return jdbcTemplate.query(
+        "SELECT v_ref, calculated_amount FROM calculated_result ORDER BY v_ref",
+        (rs, rowNum) ->
+            Map.entry(rs.getLong("v_ref"), rs.getBigDecimal("calculated_amount").toPlainString()));
+  }
+}
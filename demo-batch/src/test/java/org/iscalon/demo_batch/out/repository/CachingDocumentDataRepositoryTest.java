@@ -0,0 +1,109 @@
+package org.iscalon.demo_batch.out.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+@ExtendWith(MockitoExtension.class)
+class CachingDocumentDataRepositoryTest {
+
+  private static final long JOB_EXECUTION_ID = 1L;
+
+  @Mock private DocumentDataRepository delegate;
+
+  @Test
+  void should_only_load_documents_missing_from_cache() {
+    when(delegate.findAmountsInCents(any()))
+        .thenReturn(amounts(1L, 2L))
+        .thenReturn(amounts(3L));
+    DocumentDataRepository documents =
+        new CachingDocumentDataRepository(delegate, 10).forJob(JOB_EXECUTION_ID);
+
+    documents.findAmountsInCents(new long[] {1L, 2L});
+    LongLongHashMap found = documents.findAmountsInCents(new long[] {2L, 3L});
+
+    assertThat(found.size()).isEqualTo(2);
+    assertThat(found.get(2L, -1L)).isEqualTo(200L);
+    assertThat(found.get(3L, -1L)).isEqualTo(300L);
+    verify(delegate).findAmountsInCents(new long[] {1L, 2L});
+    verify(delegate).findAmountsInCents(new long[] {3L});
+  }
+
+  @Test
+  void should_evict_least_recently_used_documents_beyond_max_size() {
+    when(delegate.findAmountsInCents(any()))
+        .thenReturn(amounts(1L))
+        .thenReturn(amounts(2L))
+        .thenReturn(amounts(1L));
+    DocumentDataRepository documents =
+        new CachingDocumentDataRepository(delegate, 1).forJob(JOB_EXECUTION_ID);
+
+    documents.findAmountsInCents(new long[] {1L});
+    documents.findAmountsInCents(new long[] {2L});
+    documents.findAmountsInCents(new long[] {1L});
+
+    verify(delegate, times(2)).findAmountsInCents(new long[] {1L});
+  }
+
+  @Test
+  void should_read_again_an_amount_changed_since_the_previous_job_execution() {
+    EmbeddedDatabase database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    try {
+      JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+      jdbcTemplate.update("INSERT INTO source_data(v_ref, user_id, amount) VALUES (1, 'A1', 10)");
+      CachingDocumentDataRepository documents =
+          new CachingDocumentDataRepository(
+              new DocumentDataJdbcRepository(new NamedParameterJdbcTemplate(database)), 10);
+      long[] documentIds = {1L};
+
+      assertThat(documents.forJob(1L).findAmountsInCents(documentIds).get(1L, -1L))
+          .isEqualTo(1_000L);
+      jdbcTemplate.update("UPDATE source_data SET amount = 12.5 WHERE v_ref = 1");
+
+      // Montant en cache pendant l'exécution qui l'a lu, relu par l'exécution suivante
+      assertThat(documents.forJob(1L).findAmountsInCents(documentIds).get(1L, -1L))
+          .isEqualTo(1_000L);
+      assertThat(documents.forJob(2L).findAmountsInCents(documentIds).get(1L, -1L))
+          .isEqualTo(1_250L);
+    } finally {
+      database.shutdown();
+    }
+  }
+
+  @Test
+  void should_not_cache_amounts_read_outside_a_job_execution() {
+    when(delegate.findAmountsInCents(any())).thenReturn(amounts(1L));
+    CachingDocumentDataRepository documents = new CachingDocumentDataRepository(delegate, 10);
+
+    documents.findAmountsInCents(new long[] {1L});
+    documents.findAmountsInCents(new long[] {1L});
+
+    verify(delegate, times(2)).findAmountsInCents(new long[] {1L});
+  }
+
+  private static LongLongHashMap amounts(long... documentIds) {
+    LongLongHashMap amountsInCents = new LongLongHashMap();
+    for (long documentId : documentIds) {
+      amountsInCents.put(documentId, documentId * 100);
+    }
+    return amountsInCents;
+  }
+}
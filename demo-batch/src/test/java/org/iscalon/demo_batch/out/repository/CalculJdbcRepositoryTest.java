@@ -0,0 +1,77 @@
+package org.iscalon.demo_batch.out.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.out.repository.CalculResultSql.Dialect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class CalculJdbcRepositoryTest {
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+  private CalculJdbcRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    jdbcTemplate = new JdbcTemplate(database);
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO source_data(v_ref, user_id, amount) VALUES (?, ?, ?)",
+        List.of(
+            new Object[] {1L, "A0001", 1},
+            new Object[] {2L, "A0001", 2},
+            new Object[] {3L, "B0001", 3}));
+    repository =
+        new CalculJdbcRepository(
+            new NamedParameterJdbcTemplate(jdbcTemplate), Dialect.H2, ItemTraceMode.SAMPLED);
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void should_insert_then_merge_the_results_with_positional_parameters() {
+    repository.batchInsertResults(
+        List.of(new CalculatedResult("A0001", 1L, 100L), new CalculatedResult("A0001", 2L, 301L)));
+
+    repository.batchUpsertResults(
+        List.of(new CalculatedResult("A0001", 2L, 350L), new CalculatedResult("B0001", 3L, 5L)));
+
+    assertThat(
+            jdbcTemplate.query(
+                "SELECT v_ref, user_id, calculated_amount FROM calculated_result ORDER BY v_ref",
+                (rs, rowNum) ->
+                    Map.entry(
+                        rs.getString("user_id") + "/" + rs.getLong("v_ref"),
+                        rs.getBigDecimal("calculated_amount").toPlainString())))
+        .containsExactly(
+            Map.entry("A0001/1", "1.00"),
+            Map.entry("A0001/2", "3.50"),
+            Map.entry("B0001/3", "0.05"));
+  }
+
+  @Test
+  void should_write_one_row_per_statement_by_default_on_oracle() {
+    assertThat(Dialect.ORACLE.rowsPerStatement()).isEqualTo(1);
+    assertThat(CalculResultSql.insert(Dialect.ORACLE.rowsPerStatement()))
+        .doesNotContain("), (");
+  }
+}
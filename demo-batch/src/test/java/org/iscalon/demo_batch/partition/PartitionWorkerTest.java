@@ -0,0 +1,111 @@
+package org.iscalon.demo_batch.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.iscalon.demo_batch.partition.PartitionWorkTable.ClaimedPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.job.JobExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.Step;
+import org.springframework.batch.core.step.StepExecution;
+
+class PartitionWorkerTest {
+
+  private static final ClaimedPartition PARTITION = new ClaimedPartition(7L, 11L, "workerStep");
+
+  private final PartitionWorkTable workTable = mock(PartitionWorkTable.class);
+  private final JobRepository jobRepository = mock(JobRepository.class);
+  private final Step step = mock(Step.class);
+  private final StepExecution stepExecution = mock(StepExecution.class);
+  private final JobExecution jobExecution = mock(JobExecution.class);
+
+  private PartitionWorker worker;
+
+  @BeforeEach
+  void setUp() {
+    when(step.getName()).thenReturn("workerStep");
+    when(jobRepository.getStepExecution(7L, 11L)).thenReturn(stepExecution);
+    when(stepExecution.getJobExecution()).thenReturn(jobExecution);
+    when(workTable.heartbeat(anyLong(), anyString())).thenReturn(true);
+    worker = worker(Duration.ofMinutes(1));
+  }
+
+  @Test
+  void should_execute_the_claimed_partition_and_complete_it() throws Exception {
+    when(workTable.claim(anyString(), eq(Set.of("workerStep")))).thenReturn(Optional.of(PARTITION));
+    when(jobExecution.isRunning()).thenReturn(true);
+
+    assertThat(worker.executeNext()).isTrue();
+    verify(step).execute(stepExecution);
+    verify(workTable).complete(eq(11L), anyString());
+  }
+
+  @Test
+  void should_not_execute_a_partition_of_a_job_that_is_no_longer_running() throws Exception {
+    when(workTable.claim(anyString(), eq(Set.of("workerStep")))).thenReturn(Optional.of(PARTITION));
+    when(jobExecution.isRunning()).thenReturn(false);
+
+    assertThat(worker.executeNext()).isTrue();
+    verify(step, never()).execute(any());
+    verify(workTable).complete(eq(11L), anyString());
+  }
+
+  @Test
+  void should_interrupt_and_fail_a_partition_whose_claim_is_lost_during_its_execution()
+      throws Exception {
+    when(workTable.claim(anyString(), eq(Set.of("workerStep")))).thenReturn(Optional.of(PARTITION));
+    when(jobExecution.isRunning()).thenReturn(true);
+    when(workTable.heartbeat(eq(11L), anyString())).thenReturn(false);
+    // L'étape s'exécute jusqu'à ce que le worker demande son interruption
+    CountDownLatch interrupted = new CountDownLatch(1);
+    doAnswer(invocation -> countDown(interrupted)).when(stepExecution).setTerminateOnly();
+    doAnswer(invocation -> interrupted.await(5, TimeUnit.SECONDS))
+        .when(step)
+        .execute(stepExecution);
+
+    assertThat(worker(Duration.ofMillis(30)).executeNext()).isTrue();
+    verify(stepExecution).setTerminateOnly();
+    verify(stepExecution).upgradeStatus(BatchStatus.FAILED);
+    verify(jobRepository).update(stepExecution);
+    verify(workTable, never()).complete(anyLong(), anyString());
+  }
+
+  @Test
+  void should_report_when_no_partition_is_pending() {
+    when(workTable.claim(anyString(), eq(Set.of("workerStep")))).thenReturn(Optional.empty());
+
+    assertThat(worker.executeNext()).isFalse();
+  }
+
+  private static Object countDown(CountDownLatch latch) {
+    latch.countDown();
+    return null;
+  }
+
+  private PartitionWorker worker(Duration staleTimeout) {
+    return new PartitionWorker(
+        workTable,
+        jobRepository,
+        List.of(step),
+        Duration.ofMillis(1),
+        staleTimeout,
+        Duration.ofMillis(1));
+  }
+}
@@ -0,0 +1,75 @@
+package org.iscalon.demo_batch.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+
+class UserRangePartitionerTest {
+
+  @Test
+  void should_balance_ranges_by_row_count() {
+    UserRangePartitioner partitioner =
+        new UserRangePartitioner(
+            statistics(
+                Map.of(
+                    "001", 10L, "002", 10L, "003", 10L, "004", 10L, "005", 30L, "006", 10L,
+                    "007", 10L, "008", 10L)),
+            4);
+
+    assertThat(partitioner.computeRanges())
+        .containsExactly(
+            new UserIdRange(null, "003"),
+            new UserIdRange("003", "005"),
+            new UserIdRange("005", "006"),
+            new UserIdRange("006", null));
+  }
+
+  @Test
+  void should_isolate_a_heavy_user_without_creating_empty_ranges() {
+    UserRangePartitioner partitioner =
+        new UserRangePartitioner(statistics(Map.of("001", 1L, "002", 100L, "003", 1L)), 10);
+
+    assertThat(partitioner.computeRanges())
+        .containsExactly(
+            new UserIdRange(null, "002"),
+            new UserIdRange("002", "003"),
+            new UserIdRange("003", null));
+  }
+
+  @Test
+  void should_publish_bounds_in_execution_contexts() {
+    UserRangePartitioner partitioner =
+        new UserRangePartitioner(statistics(Map.of("001", 5L, "002", 5L)), 2);
+
+    Map<String, ExecutionContext> partitions = partitioner.partition(2);
+
+    assertThat(partitions).hasSize(2);
+    assertThat(UserPartition.from(partitions.get("partition-0")))
+        .isEqualTo(new UserIdRange(null, "002"));
+    assertThat(UserPartition.from(partitions.get("partition-1")))
+        .isEqualTo(new UserIdRange("002", null));
+  }
+
+  private static UserRowCounts statistics(Map<String, Long> rowCountByUser) {
+    Map<String, Long> sorted = new LinkedHashMap<>();
+    rowCountByUser.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey())
+        .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+
+    return new UserRowCounts() {
+      @Override
+      public long totalRows() {
+        return sorted.values().stream().mapToLong(Long::longValue).sum();
+      }
+
+      @Override
+      public void forEachUser(UserRowCountConsumer consumer) {
+        sorted.forEach(consumer::accept);
+      }
+    };
+  }
+}
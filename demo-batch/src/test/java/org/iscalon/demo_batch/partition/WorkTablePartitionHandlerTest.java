@@ -0,0 +1,68 @@
+package org.iscalon.demo_batch.partition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.StepExecution;
+
+class WorkTablePartitionHandlerTest {
+
+  private static final long JOB_EXECUTION_ID = 7L;
+  private static final long PARTITION_ID = 11L;
+
+  private final PartitionWorkTable workTable = mock(PartitionWorkTable.class);
+  private final JobRepository jobRepository = mock(JobRepository.class);
+  private final StepExecutionSplitter splitter = mock(StepExecutionSplitter.class);
+  private final StepExecution manager = mock(StepExecution.class);
+  private final StepExecution partition = mock(StepExecution.class);
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(manager.getJobExecutionId()).thenReturn(JOB_EXECUTION_ID);
+    when(partition.getId()).thenReturn(PARTITION_ID);
+    when(splitter.split(manager, 2)).thenReturn(Set.of(partition));
+  }
+
+  @Test
+  void should_publish_partitions_and_return_them_once_workers_completed_them() throws Exception {
+    StepExecution completed = mock(StepExecution.class);
+    when(workTable.countUnfinished(JOB_EXECUTION_ID, "workerStep")).thenReturn(1, 0);
+    when(jobRepository.getStepExecution(JOB_EXECUTION_ID, PARTITION_ID)).thenReturn(completed);
+
+    assertThat(handler(Duration.ofMinutes(1)).handle(splitter, manager)).containsExactly(completed);
+    verify(workTable).publish("workerStep", Set.of(partition));
+    // Les partitions abandonnées sont remises en attente à chaque attente
+    verify(workTable, times(2)).releaseStaleClaims(any());
+  }
+
+  @Test
+  void should_fail_when_workers_do_not_complete_partitions_in_time() {
+    when(workTable.countUnfinished(JOB_EXECUTION_ID, "workerStep")).thenReturn(1);
+
+    assertThatThrownBy(() -> handler(Duration.ZERO).handle(splitter, manager))
+        .isInstanceOf(TimeoutException.class);
+  }
+
+  private WorkTablePartitionHandler handler(Duration timeout) {
+    return new WorkTablePartitionHandler(
+        workTable,
+        jobRepository,
+        "workerStep",
+        2,
+        Duration.ofMillis(1),
+        Duration.ofMinutes(1),
+        timeout);
+  }
+}
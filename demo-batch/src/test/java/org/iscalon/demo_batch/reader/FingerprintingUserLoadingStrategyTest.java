@@ -0,0 +1,92 @@
+package org.iscalon.demo_batch.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserFingerprint;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.metrics.PartitionMetrics;
+import org.iscalon.demo_batch.out.repository.DocumentDataRepository;
+import org.iscalon.demo_batch.out.repository.UserFingerprintRepository;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+
+class FingerprintingUserLoadingStrategyTest {
+
+  private static final UserIdRange PARTITION = new UserIdRange(null, null);
+
+  private final UserLoadingStrategy users = mock(UserLoadingStrategy.class);
+  private final DocumentDataRepository documents = mock(DocumentDataRepository.class);
+  private final UserFingerprintRepository fingerprints = mock(UserFingerprintRepository.class);
+
+  private final FingerprintingUserLoadingStrategy strategy =
+      new FingerprintingUserLoadingStrategy(users, documents, fingerprints);
+
+  private final LongLongHashMap amounts = new LongLongHashMap();
+
+  @BeforeEach
+  void setUp() {
+    amounts.put(1L, 1_000L);
+    amounts.put(2L, 2_500L);
+    amounts.put(3L, 700L);
+    when(documents.findAmountsInCents(any())).thenReturn(amounts);
+    when(users.load(PARTITION, 10, null))
+        .thenReturn(List.of(user("A1", 1L, 2L), user("A2", 3L)));
+  }
+
+  @Test
+  void should_change_the_fingerprint_with_references_and_amounts() {
+    long fingerprint = fingerprintOf(1L, 2L);
+
+    assertThat(fingerprintOf(1L, 2L)).isEqualTo(fingerprint);
+    assertThat(fingerprintOf(1L)).isNotEqualTo(fingerprint);
+    assertThat(fingerprintOf(1L, 2L, 4L)).isNotEqualTo(fingerprint);
+    amounts.put(2L, 2_501L);
+    assertThat(fingerprintOf(1L, 2L)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  void should_mark_users_whose_fingerprint_is_unchanged() {
+    when(fingerprints.findFingerprints(List.of("A1", "A2")))
+        .thenReturn(Map.of("A1", fingerprintOf(1L, 2L), "A2", fingerprintOf(3L) + 1));
+
+    List<UserWorkUnit> page = strategy.load(PARTITION, 10, null);
+
+    assertThat(page).extracting(UserWorkUnit::userId).containsExactly("A1", "A2");
+    assertThat(page).extracting(UserWorkUnit::unchanged).containsExactly(true, false);
+    assertThat(page.get(1).fingerprint().value()).isEqualTo(fingerprintOf(3L));
+  }
+
+  @Test
+  void should_skip_unchanged_users_at_the_reader() throws Exception {
+    when(fingerprints.findFingerprints(anyList()))
+        .thenReturn(Map.of("A1", fingerprintOf(1L, 2L)));
+    UnchangedUserSkippingReader reader =
+        new UnchangedUserSkippingReader(
+            new UserDocumentsPagingReader(strategy, PARTITION, 10), PartitionMetrics.disabled());
+    reader.open(new ExecutionContext());
+
+    UserWorkUnit read = reader.read();
+
+    assertThat(read.userId()).isEqualTo("A2");
+    assertThat(read.fingerprint().unchanged()).isFalse();
+    assertThat(reader.read()).isNull();
+  }
+
+  private long fingerprintOf(long... documentIds) {
+    return UserFingerprint.valueOf(DocumentReferences.of(documentIds), amounts);
+  }
+
+  private static UserWorkUnit user(String userId, long... documentIds) {
+    return new UserWorkUnit(userId, DocumentReferences.of(documentIds));
+  }
+}
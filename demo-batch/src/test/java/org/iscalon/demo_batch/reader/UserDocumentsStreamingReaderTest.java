@@ -0,0 +1,94 @@
+package org.iscalon.demo_batch.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.iscalon.demo_batch.reader.UserDocumentsPagingReader.LAST_USER_ID_KEY;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class UserDocumentsStreamingReaderTest {
+
+  private static final UserIdRange PARTITION = new UserIdRange("A", "C");
+  private static final int FETCH_SIZE = 10;
+
+  private final UserLoadingStrategy users = mock(UserLoadingStrategy.class);
+  private final UserCursor cursor = mock(UserCursor.class);
+
+  private final UserDocumentsStreamingReader reader =
+      new UserDocumentsStreamingReader(users, PARTITION, FETCH_SIZE);
+
+  @Test
+  void should_open_the_cursor_after_the_saved_checkpoint_and_move_it_forward() {
+    when(users.stream(PARTITION, FETCH_SIZE, "A2")).thenReturn(cursor);
+    when(cursor.next()).thenReturn(user("A3"), user("B1"), null);
+    ExecutionContext context = new ExecutionContext();
+    context.putString(LAST_USER_ID_KEY, "A2");
+
+    reader.open(context);
+    reader.update(context);
+    // Aucun utilisateur lu : le point de reprise reste celui de l'exécution précédente
+    assertThat(context.getString(LAST_USER_ID_KEY)).isEqualTo("A2");
+
+    assertThat(reader.read()).isEqualTo(user("A3"));
+    assertThat(reader.read()).isEqualTo(user("B1"));
+    assertThat(reader.read()).isNull();
+    reader.update(context);
+
+    assertThat(context.getString(LAST_USER_ID_KEY)).isEqualTo("B1");
+  }
+
+  @Test
+  void should_open_the_cursor_from_the_start_of_the_partition_on_a_new_run() {
+    when(users.stream(PARTITION, FETCH_SIZE, null)).thenReturn(cursor);
+    ExecutionContext context = new ExecutionContext();
+
+    reader.open(context);
+    assertThat(reader.read()).isNull();
+    reader.update(context);
+
+    assertThat(context.containsKey(LAST_USER_ID_KEY)).isFalse();
+  }
+
+  @Test
+  void should_keep_the_last_read_user_and_close_the_cursor_once_when_reading_fails() {
+    DataAccessResourceFailureException failure =
+        new DataAccessResourceFailureException("connexion perdue");
+    when(users.stream(PARTITION, FETCH_SIZE, null)).thenReturn(cursor);
+    when(cursor.next()).thenReturn(user("A1")).thenThrow(failure);
+    ExecutionContext context = new ExecutionContext();
+
+    reader.open(context);
+    assertThat(reader.read()).isEqualTo(user("A1"));
+    assertThatThrownBy(reader::read).isSameAs(failure);
+    // L'étape en échec met à jour puis ferme ses flux : la reprise suivra A1
+    reader.update(context);
+    reader.close();
+    reader.close();
+
+    assertThat(context.getString(LAST_USER_ID_KEY)).isEqualTo("A1");
+    verify(cursor, times(1)).close();
+  }
+
+  @Test
+  void should_close_without_cursor_when_opening_failed() {
+    when(users.stream(PARTITION, FETCH_SIZE, null))
+        .thenThrow(new DataAccessResourceFailureException("base indisponible"));
+
+    assertThatThrownBy(() -> reader.open(new ExecutionContext()))
+        .isInstanceOf(DataAccessResourceFailureException.class);
+    reader.close();
+  }
+
+  private static UserWorkUnit user(String userId) {
+    return new UserWorkUnit(userId, DocumentReferences.of(1L));
+  }
+}
@@ -0,0 +1,112 @@
+package org.iscalon.demo_batch.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.iscalon.demo_batch.partition.UserRangeQueue;
+import org.iscalon.demo_batch.partition.UserRangeQueue.ClaimedRange;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class UserRangeQueueReaderTest {
+
+  private static final long QUEUE_ID = 42L;
+
+  private final UserRangeQueue queue = mock(UserRangeQueue.class);
+  private final UserLoadingStrategy users = mock(UserLoadingStrategy.class);
+
+  @Test
+  void should_read_claimed_ranges_until_the_queue_is_empty() {
+    UserIdRange first = new UserIdRange(null, "B");
+    UserIdRange second = new UserIdRange("B", null);
+    when(queue.claim(QUEUE_ID, "worker"))
+        .thenReturn(Optional.of(new ClaimedRange(0, first, null)))
+        .thenReturn(Optional.of(new ClaimedRange(1, second, null)))
+        .thenReturn(Optional.empty());
+    when(users.load(first, 2, null)).thenReturn(List.of(user("A1")));
+    when(users.load(second, 2, null)).thenReturn(List.of(user("B1"), user("B2")));
+    when(users.load(second, 2, "B2")).thenReturn(List.of());
+
+    UserRangeQueueReader reader = new UserRangeQueueReader(queue, QUEUE_ID, "worker", users, 2);
+
+    assertThat(reader.read()).isEqualTo(user("A1"));
+    assertThat(reader.read()).isEqualTo(user("B1"));
+    assertThat(reader.read()).isEqualTo(user("B2"));
+    assertThat(reader.read()).isNull();
+
+    reader.update(new ExecutionContext());
+    verify(queue).complete(QUEUE_ID, 0);
+    verify(queue).complete(QUEUE_ID, 1);
+  }
+
+  @Test
+  void should_resume_a_range_after_its_saved_progress() {
+    UserIdRange range = new UserIdRange("A", "C");
+    when(queue.claim(QUEUE_ID, "worker"))
+        .thenReturn(Optional.of(new ClaimedRange(3, range, "A5")))
+        .thenReturn(Optional.empty());
+    when(users.load(range, 10, "A5")).thenReturn(List.of(user("A6")));
+
+    UserRangeQueueReader reader = new UserRangeQueueReader(queue, QUEUE_ID, "worker", users, 10);
+
+    assertThat(reader.read()).isEqualTo(user("A6"));
+    reader.update(new ExecutionContext());
+
+    verify(queue).saveProgress(QUEUE_ID, 3, "A6");
+    verify(queue, never()).complete(anyLong(), anyInt());
+  }
+
+  @Test
+  void should_save_the_progress_only_once_the_chunk_transaction_is_committed() {
+    UserIdRange range = new UserIdRange("A", "C");
+    when(queue.claim(QUEUE_ID, "worker"))
+        .thenReturn(Optional.of(new ClaimedRange(3, range, null)))
+        .thenReturn(Optional.empty());
+    when(users.load(range, 1, null)).thenReturn(List.of(user("A1")));
+    when(users.load(range, 1, "A1")).thenReturn(List.of(user("A2")));
+    UserRangeQueueReader reader = new UserRangeQueueReader(queue, QUEUE_ID, "worker", users, 1);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      // Chunk annulé : la progression n'est pas enregistrée
+      assertThat(reader.read()).isEqualTo(user("A1"));
+      reader.update(new ExecutionContext());
+      TransactionSynchronizationUtils.invokeAfterCompletion(
+          TransactionSynchronizationManager.getSynchronizations(),
+          TransactionSynchronization.STATUS_ROLLED_BACK);
+      TransactionSynchronizationManager.clearSynchronization();
+      verify(queue, never()).saveProgress(anyLong(), anyInt(), anyString());
+
+      // Chunk validé : la progression est enregistrée après la validation
+      TransactionSynchronizationManager.initSynchronization();
+      assertThat(reader.read()).isEqualTo(user("A2"));
+      reader.update(new ExecutionContext());
+      verify(queue, never()).saveProgress(anyLong(), anyInt(), anyString());
+      TransactionSynchronizationUtils.invokeAfterCommit(
+          TransactionSynchronizationManager.getSynchronizations());
+      verify(queue).saveProgress(QUEUE_ID, 3, "A2");
+    } finally {
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.clearSynchronization();
+      }
+    }
+  }
+
+  private static UserWorkUnit user(String userId) {
+    return new UserWorkUnit(userId, DocumentReferences.of(1L));
+  }
+}
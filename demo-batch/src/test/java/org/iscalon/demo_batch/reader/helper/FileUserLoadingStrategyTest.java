@@ -0,0 +1,89 @@
+package org.iscalon.demo_batch.reader.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.partition.UserPartition.HashBucket;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.iscalon.demo_batch.reader.UserCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileUserLoadingStrategyTest {
+
+  @TempDir private Path directory;
+
+  private FileUserLoadingStrategy users;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    Path export = directory.resolve("users.csv");
+    Files.writeString(
+        export,
+        """
+        user_id;v_ref
+        A1;1
+        A1;2
+        A2;3
+        B1;4
+        B1;5
+        B1;6
+        B2;7\r
+        C1;8
+        """);
+    users = new FileUserLoadingStrategy(export);
+  }
+
+  @AfterEach
+  void tearDown() {
+    users.destroy();
+  }
+
+  @Test
+  void should_load_pages_of_a_user_id_range() {
+    UserIdRange range = new UserIdRange("A2", "C1");
+
+    assertThat(users.load(range, 2, null))
+        .containsExactly(user("A2", 3L), user("B1", 4L, 5L, 6L));
+    assertThat(users.load(range, 2, "B1")).containsExactly(user("B2", 7L));
+    assertThat(users.load(range, 2, "B2")).isEmpty();
+  }
+
+  @Test
+  void should_split_the_file_into_slices_without_splitting_users() {
+    List<UserWorkUnit> all = new ArrayList<>();
+    for (int bucket = 0; bucket < 4; bucket++) {
+      try (UserCursor cursor = users.stream(new HashBucket(bucket, 4), 100, null)) {
+        for (UserWorkUnit user = cursor.next(); user != null; user = cursor.next()) {
+          all.add(user);
+        }
+      }
+    }
+
+    assertThat(all)
+        .containsExactly(
+            user("A1", 1L, 2L),
+            user("A2", 3L),
+            user("B1", 4L, 5L, 6L),
+            user("B2", 7L),
+            user("C1", 8L));
+  }
+
+  @Test
+  void should_resume_after_the_last_user_of_a_slice() {
+    assertThat(users.load(new HashBucket(0, 1), 10, "B1"))
+        .containsExactly(user("B2", 7L), user("C1", 8L));
+  }
+
+  private static UserWorkUnit user(String userId, long... documentIds) {
+    return new UserWorkUnit(userId, DocumentReferences.of(documentIds));
+  }
+}
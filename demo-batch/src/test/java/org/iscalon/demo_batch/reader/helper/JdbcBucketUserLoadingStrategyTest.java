@@ -0,0 +1,121 @@
+package org.iscalon.demo_batch.reader.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.partition.UserPartition.HashBucket;
+import org.iscalon.demo_batch.partition.UserPartitionSql;
+import org.iscalon.demo_batch.reader.UserLoadingStrategy;
+import org.iscalon.demo_batch.tasklet.UserBucketProcedure;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class JdbcBucketUserLoadingStrategyTest {
+
+  private static final int USER_COUNT = 40;
+  private static final int BUCKET_COUNT = 4;
+  private static final String BUCKET_COUNT_QUERY = "SELECT bucket_count FROM user_bucket_count";
+
+  private EmbeddedDatabase database;
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    database =
+        new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .generateUniqueName(true)
+            .addScript("schema.sql")
+            .build();
+    jdbcTemplate = spy(new JdbcTemplate(database));
+    List<Object[]> rows = new ArrayList<>();
+    for (int user = 0; user < USER_COUNT; user++) {
+      // 1 à 3 documents par utilisateur
+      for (int document = 0; document <= user % 3; document++) {
+        rows.add(new Object[] {"U%04d".formatted(user), 10});
+      }
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO source_data(user_id, amount) VALUES (?, ?)", rows);
+    jdbcTemplate.execute("CALL %s(%d)".formatted(UserBucketProcedure.NAME, BUCKET_COUNT));
+  }
+
+  @AfterEach
+  void tearDown() {
+    database.shutdown();
+  }
+
+  @Test
+  void should_read_each_user_in_exactly_the_bucket_of_the_sql_partition_predicate() {
+    List<String> allUsers = new ArrayList<>();
+    for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+      HashBucket partition = new HashBucket(bucket, BUCKET_COUNT);
+      List<String> read = readAll(strategy().forStep(), partition, 3);
+
+      assertThat(read).isSortedAccordingTo(String::compareTo).isEqualTo(usersOf(partition));
+      allUsers.addAll(read);
+    }
+
+    // Chaque utilisateur est lu dans un seul bucket
+    assertThat(allUsers).doesNotHaveDuplicates().hasSize(USER_COUNT);
+  }
+
+  @Test
+  void should_check_the_materialized_bucket_count_once_per_step() {
+    HashBucket partition = new HashBucket(1, BUCKET_COUNT);
+
+    readAll(strategy().forStep(), partition, 2);
+    readAll(strategy().forStep(), partition, 2);
+
+    verify(jdbcTemplate, times(2)).queryForObject(eq(BUCKET_COUNT_QUERY), eq(Integer.class));
+  }
+
+  @Test
+  void should_reject_a_bucket_count_other_than_the_materialized_one() {
+    UserLoadingStrategy users = strategy().forStep();
+    HashBucket partition = new HashBucket(0, BUCKET_COUNT + 1);
+
+    assertThatThrownBy(() -> users.load(partition, 10, null))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining(String.valueOf(BUCKET_COUNT));
+  }
+
+  private JdbcBucketUserLoadingStrategy strategy() {
+    return new JdbcBucketUserLoadingStrategy(jdbcTemplate);
+  }
+
+  /** Lit toutes les pages du bucket, comme le lecteur paginé */
+  private static List<String> readAll(
+      UserLoadingStrategy users, HashBucket partition, int pageSize) {
+    List<String> read = new ArrayList<>();
+    String lastUserId = null;
+    List<UserWorkUnit> page;
+    do {
+      page = users.load(partition, pageSize, lastUserId);
+      page.forEach(user -> read.add(user.userId()));
+      lastUserId = page.isEmpty() ? lastUserId : page.getLast().userId();
+    } while (page.size() == pageSize);
+    return read;
+  }
+
+  /** Utilisateurs sélectionnés par le prédicat SQL de la partition */
+  private List<String> usersOf(HashBucket partition) {
+    UserPartitionSql filter = UserPartitionSql.of(partition, "user_id");
+    return jdbcTemplate.queryForList(
+        "SELECT DISTINCT user_id FROM source_data WHERE %s ORDER BY user_id"
+            .formatted(filter.predicate()),
+        String.class,
+        filter.arguments().toArray());
+  }
+}
@@ -0,0 +1,63 @@
+package org.iscalon.demo_batch.tasklet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.iscalon.demo_batch.tasklet.ProcedureGraph.ProcedureCall;
+import org.junit.jupiter.api.Test;
+
+class ProcedureGraphTest {
+
+  @Test
+  void should_group_independent_calls_in_the_same_level() {
+    ProcedureGraph graph =
+        ProcedureGraph.builder()
+            .procedure("a", "PROC_A")
+            .procedure("b", "PROC_B")
+            .procedure("c", "PROC_C", "a")
+            .procedure("d", "PROC_D", "b", "c")
+            .build();
+
+    assertThat(graph.levels())
+        .extracting(level -> level.stream().map(ProcedureCall::stepName).toList())
+        .containsExactly(List.of("a", "b"), List.of("c"), List.of("d"));
+  }
+
+  @Test
+  void should_place_a_call_after_the_whole_level_of_its_deepest_dependency() {
+    // c ne dépend que de b, mais attend aussi la fin de a, du même niveau que b ; d attend c
+    // et non seulement a
+    ProcedureGraph graph =
+        ProcedureGraph.builder()
+            .procedure("a", "PROC_A")
+            .procedure("b", "PROC_B")
+            .procedure("c", "PROC_C", "b")
+            .procedure("d", "PROC_D", "a", "c")
+            .build();
+
+    assertThat(graph.levels())
+        .extracting(level -> level.stream().map(ProcedureCall::stepName).toList())
+        .containsExactly(List.of("a", "b"), List.of("c"), List.of("d"));
+  }
+
+  @Test
+  void should_reject_unknown_dependencies() {
+    ProcedureGraph.Builder builder = ProcedureGraph.builder().procedure("a", "PROC_A", "z");
+
+    assertThatThrownBy(builder::build)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("z");
+  }
+
+  @Test
+  void should_reject_cycles() {
+    ProcedureGraph graph =
+        ProcedureGraph.builder()
+            .procedure("a", "PROC_A", "b")
+            .procedure("b", "PROC_B", "a")
+            .build();
+
+    assertThatThrownBy(graph::levels).isInstanceOf(IllegalStateException.class);
+  }
+}
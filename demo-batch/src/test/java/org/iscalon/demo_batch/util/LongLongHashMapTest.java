@@ -0,0 +1,42 @@
+package org.iscalon.demo_batch.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LongLongHashMapTest {
+
+  @Test
+  void should_store_and_overwrite_values_across_resizes() {
+    LongLongHashMap map = new LongLongHashMap(2);
+
+    for (long key = -500; key <= 500; key++) {
+      map.put(key, key * 10);
+    }
+    map.put(42L, -1L);
+
+    assertThat(map.size()).isEqualTo(1001);
+    assertThat(map.get(0L, 99L)).isZero();
+    assertThat(map.get(-500L, 99L)).isEqualTo(-5000L);
+    assertThat(map.get(42L, 99L)).isEqualTo(-1L);
+    assertThat(map.get(501L, 99L)).isEqualTo(99L);
+    assertThat(map.containsKey(0L)).isTrue();
+    assertThat(map.containsKey(1_000L)).isFalse();
+  }
+
+  @Test
+  void should_visit_every_entry() {
+    LongLongHashMap map = new LongLongHashMap();
+    map.put(0L, 1L);
+    map.put(7L, 2L);
+    map.put(Long.MIN_VALUE, 3L);
+
+    Map<Long, Long> visited = new HashMap<>();
+    map.forEach(visited::put);
+
+    assertThat(visited)
+        .containsExactlyInAnyOrderEntriesOf(Map.of(0L, 1L, 7L, 2L, Long.MIN_VALUE, 3L));
+  }
+}
@@ -0,0 +1,119 @@
+package org.iscalon.demo_batch.writer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare le calcul d'un chunk tel qu'il était fait historiquement ({@code BigDecimal} par
+ * document, tables boxées) au calcul en centimes de {@link RunningTotalCalculator}.
+ *
+ * <p>Lancement après {@code mvn test-compile} : exécuter {@link #main(String[])} depuis l'IDE, ou
+ * {@code java -cp <classpath de test> org.openjdk.jmh.Main CalculationBenchmark -prof gc}. Le
+ * profileur {@code gc} donne le taux d'allocation par opération.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculationBenchmark {
+
+  @Param({"500"})
+  private int usersPerChunk;
+
+  @Param({"10", "200"})
+  private int documentsPerUser;
+
+  private List<UserWorkUnit> users;
+  private Map<Long, Double> valueById;
+  private LongLongHashMap amountInCentsById;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    users = new ArrayList<>(usersPerChunk);
+    valueById = new HashMap<>();
+    amountInCentsById = new LongLongHashMap(usersPerChunk * documentsPerUser);
+    long nextDocumentId = 1;
+    for (int user = 0; user < usersPerChunk; user++) {
+      long first = nextDocumentId;
+      nextDocumentId += documentsPerUser;
+      long[] references = LongStream.range(first, nextDocumentId).toArray();
+      users.add(new UserWorkUnit("U" + user, DocumentReferences.of(references)));
+      for (long documentId : references) {
+        long cents = ThreadLocalRandom.current().nextLong(100, 100_000);
+        valueById.put(documentId, cents / 100.0);
+        amountInCentsById.put(documentId, cents);
+      }
+    }
+  }
+
+  @Benchmark
+  public List<LegacyResult> bigDecimal() {
+    return users.stream()
+        .map(
+            user -> {
+              BigDecimal total = BigDecimal.ZERO;
+              List<LegacyResult> results = new ArrayList<>();
+              PrimitiveIterator.OfLong documentIds = user.references().iterator();
+              while (documentIds.hasNext()) {
+                long documentId = documentIds.nextLong();
+                Double value = valueById.get(documentId);
+                if (value != null) {
+                  total = total.add(BigDecimal.valueOf(value));
+                }
+                results.add(new LegacyResult(user.userId(), documentId, total));
+              }
+              return results;
+            })
+        .flatMap(List::stream)
+        .toList();
+  }
+
+  @Benchmark
+  public List<CalculatedResult> cents() {
+    List<CalculatedResult> results = new ArrayList<>(usersPerChunk * documentsPerUser);
+    for (UserWorkUnit user : users) {
+      RunningTotalCalculator.calculate(user, amountInCentsById, results);
+    }
+    return results;
+  }
+
+  /** Forme historique de {@link CalculatedResult}. */
+  public record LegacyResult(String userId, Long inputDataId, BigDecimal amount) {}
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(CalculationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,146 @@
+package org.iscalon.demo_batch.writer;
+
+import static org.iscalon.demo_batch.reader.UserDocumentsPagingReader.LAST_USER_ID_KEY;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.iscalon.demo_batch.domain.CalculatedResult;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserFingerprint;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.logging.ItemTraceMode;
+import org.iscalon.demo_batch.metrics.PartitionMetrics;
+import org.iscalon.demo_batch.out.repository.CalculRepository;
+import org.iscalon.demo_batch.out.repository.DocumentDataRepository;
+import org.iscalon.demo_batch.out.repository.SourceDataStatusRepository;
+import org.iscalon.demo_batch.out.repository.UserFingerprintRepository;
+import org.iscalon.demo_batch.partition.UserPartition;
+import org.iscalon.demo_batch.partition.UserPartition.RangeQueue;
+import org.iscalon.demo_batch.partition.UserPartition.UserIdRange;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator.ChunkWrite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.batch.infrastructure.item.Chunk;
+import org.springframework.batch.infrastructure.item.ExecutionContext;
+
+class CalculationWriterTest {
+
+  private static final UserIdRange PARTITION = new UserIdRange("A", "M");
+  private static final List<CalculatedResult> RESULTS =
+      List.of(new CalculatedResult("D0001", 1L, 100L), new CalculatedResult("D0001", 2L, 350L));
+
+  private final CalculRepository repository = mock(CalculRepository.class);
+  private final DocumentDataRepository documents = mock(DocumentDataRepository.class);
+  private final UserFingerprintRepository fingerprints = mock(UserFingerprintRepository.class);
+  private final SourceDataStatusRepository statuses = mock(SourceDataStatusRepository.class);
+  private final LongLongHashMap amounts = new LongLongHashMap();
+
+  @BeforeEach
+  void setUp() {
+    amounts.put(1L, 100L);
+    amounts.put(2L, 250L);
+    when(documents.findAmountsInCents(any())).thenReturn(amounts);
+  }
+
+  @Test
+  void should_delete_the_results_after_the_checkpoint_and_merge_on_restart_in_upsert_mode() {
+    CalculationWriter writer = writer(PARTITION, ResultWriteMode.UPSERT);
+    ExecutionContext context = new ExecutionContext();
+    context.putString(LAST_USER_ID_KEY, "C0001");
+
+    writer.open(context);
+    writer.write(chunk());
+
+    verify(repository).deleteResults(PARTITION, "C0001");
+    verify(repository).batchUpsertResults(RESULTS);
+    verify(repository, never()).batchInsertResults(anyList());
+  }
+
+  @Test
+  void should_delete_the_results_of_the_partition_before_inserting_on_a_new_run() {
+    CalculationWriter writer = writer(PARTITION, ResultWriteMode.INSERT);
+
+    writer.open(new ExecutionContext());
+    writer.write(chunk());
+
+    verify(repository).deleteResults(PARTITION, null);
+    verify(repository).batchInsertResults(RESULTS);
+  }
+
+  @Test
+  void should_merge_the_results_of_a_queue_partition_whose_ranges_are_unknown_at_opening() {
+    CalculationWriter writer = writer(new RangeQueue(3L), ResultWriteMode.INSERT);
+
+    writer.open(new ExecutionContext());
+    writer.write(chunk());
+
+    verify(repository, never()).deleteResults(any(), any());
+    verify(repository).batchUpsertResults(RESULTS);
+  }
+
+  @Test
+  void should_record_the_fingerprint_of_each_written_user_even_when_the_reader_did_not() {
+    CalculationWriter writer = writer(PARTITION, ResultWriteMode.INSERT);
+
+    writer.open(new ExecutionContext());
+    writer.write(chunk());
+
+    DocumentReferences references = DocumentReferences.of(1L, 2L);
+    verify(fingerprints)
+        .batchUpsertFingerprints(
+            List.of(
+                new UserWorkUnit(
+                    "D0001",
+                    references,
+                    new UserFingerprint(UserFingerprint.valueOf(references, amounts), false))));
+  }
+
+  @Test
+  void should_replace_the_rows_of_the_other_calculators_with_the_results_in_replace_mode() {
+    ChunkWrite write = mock(ChunkWrite.class);
+    ChunkCalculator calculator = mock(ChunkCalculator.class);
+    when(calculator.calculate(any(), any())).thenReturn(write);
+    ChunkFanOut fanOut = new ChunkFanOut(List.of(calculator), Runnable::run);
+    CalculationWriter writer = writer(PARTITION, ResultWriteMode.REPLACE, fanOut);
+
+    writer.open(new ExecutionContext());
+    writer.write(chunk());
+
+    InOrder order = inOrder(repository, write);
+    order.verify(repository).deleteUserResults(List.of("D0001"));
+    order.verify(repository).batchInsertResults(RESULTS);
+    order.verify(write).write(true);
+  }
+
+  private CalculationWriter writer(UserPartition partition, ResultWriteMode writeMode) {
+    return writer(partition, writeMode, ChunkFanOut.none());
+  }
+
+  private CalculationWriter writer(
+      UserPartition partition, ResultWriteMode writeMode, ChunkFanOut fanOut) {
+    return new CalculationWriter(
+        repository,
+        documents,
+        statuses,
+        fingerprints,
+        PartitionMetrics.disabled(),
+        partition,
+        writeMode,
+        fanOut,
+        null,
+        null,
+        ItemTraceMode.SAMPLED);
+  }
+
+  private static Chunk<UserWorkUnit> chunk() {
+    return Chunk.of(new UserWorkUnit("D0001", DocumentReferences.of(1L, 2L)));
+  }
+}
@@ -0,0 +1,81 @@
+package org.iscalon.demo_batch.writer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator.ChunkWrite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ChunkFanOutTest {
+
+  private static final List<UserWorkUnit> USERS =
+      List.of(new UserWorkUnit("A1", DocumentReferences.of(1L, 2L)));
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  void should_return_the_writes_in_the_order_of_the_calculators() {
+    ChunkFanOut fanOut = new ChunkFanOut(List.of(calculator("A", 1), calculator("B", 2)), executor);
+
+    List<ChunkWrite> writes = ChunkFanOut.await(fanOut.start(USERS, new LongLongHashMap()));
+
+    assertThat(writes).extracting(write -> write.write(false)).containsExactly(1, 2);
+  }
+
+  @Test
+  void should_rethrow_the_failure_of_a_calculator_as_is() {
+    IllegalStateException failure = new IllegalStateException("calcul impossible");
+    ChunkCalculator failing =
+        new ChunkCalculator() {
+          @Override
+          public String key() {
+            return "KO";
+          }
+
+          @Override
+          public ChunkWrite calculate(
+              List<? extends UserWorkUnit> users, LongLongHashMap amountsInCents) {
+            throw failure;
+          }
+        };
+    ChunkFanOut fanOut = new ChunkFanOut(List.of(calculator("A", 1), failing), executor);
+
+    // Exception d'origine, sans CompletionException : le chunk échoue comme sans parallélisme
+    assertThatThrownBy(() -> ChunkFanOut.await(fanOut.start(USERS, new LongLongHashMap())))
+        .isSameAs(failure);
+  }
+
+  @Test
+  void should_have_nothing_to_calculate_without_calculators() {
+    assertThat(ChunkFanOut.none().start(USERS, new LongLongHashMap())).isEmpty();
+    assertThat(ChunkFanOut.none()).hasToString("[]");
+  }
+
+  /** Calculateur dont l'écriture renvoie {@code rows} */
+  private static ChunkCalculator calculator(String key, int rows) {
+    return new ChunkCalculator() {
+      @Override
+      public String key() {
+        return key;
+      }
+
+      @Override
+      public ChunkWrite calculate(
+          List<? extends UserWorkUnit> users, LongLongHashMap amountsInCents) {
+        return replace -> rows;
+      }
+    };
+  }
+}
@@ -0,0 +1,55 @@
+package org.iscalon.demo_batch.writer.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.iscalon.demo_batch.domain.DocumentRankResult;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.out.repository.DocumentRankRepository;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator.ChunkWrite;
+import org.junit.jupiter.api.Test;
+
+class DocumentRankCalculatorTest {
+
+  private final DocumentRankRepository repository = mock(DocumentRankRepository.class);
+  private final DocumentRankCalculator calculator = new DocumentRankCalculator(repository);
+
+  @Test
+  void should_rank_documents_by_decreasing_amount_within_each_user() {
+    LongLongHashMap amounts = new LongLongHashMap();
+    amounts.put(1L, 500L);
+    amounts.put(2L, 900L);
+    amounts.put(3L, 500L);
+    amounts.put(4L, 100L);
+    amounts.put(5L, 50L);
+    List<UserWorkUnit> users =
+        List.of(
+            new UserWorkUnit("A1", DocumentReferences.of(1L, 2L, 3L, 4L)),
+            new UserWorkUnit("A2", DocumentReferences.of(5L, 6L)));
+
+    ChunkWrite write = calculator.calculate(users, amounts);
+
+    verify(repository, never()).batchUpsertRanks(anyList());
+    write.write(false);
+    // Ex aequo au même rang, document sans donnée ignoré
+    verify(repository)
+        .batchUpsertRanks(
+            List.of(
+                new DocumentRankResult("A1", 1L, 2),
+                new DocumentRankResult("A1", 2L, 1),
+                new DocumentRankResult("A1", 3L, 2),
+                new DocumentRankResult("A1", 4L, 4),
+                new DocumentRankResult("A2", 5L, 1)));
+  }
+
+  @Test
+  void should_be_selected_by_its_key() {
+    assertThat(calculator.key()).isEqualTo("RANK");
+  }
+}
@@ -0,0 +1,59 @@
+package org.iscalon.demo_batch.writer.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserCountResult;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.out.repository.UserCountRepository;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator.ChunkWrite;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class UserCountCalculatorTest {
+
+  private final UserCountRepository repository = mock(UserCountRepository.class);
+  private final UserCountCalculator calculator = new UserCountCalculator(repository);
+
+  private final List<UserWorkUnit> users =
+      List.of(
+          new UserWorkUnit("A1", DocumentReferences.of(1L, 2L, 3L)),
+          new UserWorkUnit("A2", DocumentReferences.of(4L)));
+
+  @Test
+  void should_count_the_referenced_documents_of_each_user_with_or_without_amount() {
+    LongLongHashMap amounts = new LongLongHashMap();
+    amounts.put(1L, 500L);
+
+    ChunkWrite write = calculator.calculate(users, amounts);
+
+    verify(repository, never()).batchUpsertCounts(anyList());
+    write.write(false);
+    verify(repository)
+        .batchUpsertCounts(List.of(new UserCountResult("A1", 3), new UserCountResult("A2", 1)));
+    verify(repository, never()).deleteUserCounts(anyList());
+  }
+
+  @Test
+  void should_delete_the_counts_of_the_chunk_users_before_replacing_them() {
+    calculator.calculate(users, new LongLongHashMap()).write(true);
+
+    InOrder order = inOrder(repository);
+    order.verify(repository).deleteUserCounts(List.of("A1", "A2"));
+    order
+        .verify(repository)
+        .batchUpsertCounts(List.of(new UserCountResult("A1", 3), new UserCountResult("A2", 1)));
+  }
+
+  @Test
+  void should_be_selected_by_its_key() {
+    assertThat(calculator.key()).isEqualTo("COUNT");
+  }
+}
@@ -0,0 +1,64 @@
+package org.iscalon.demo_batch.writer.helper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.iscalon.demo_batch.domain.DocumentReferences;
+import org.iscalon.demo_batch.domain.UserMaxResult;
+import org.iscalon.demo_batch.domain.UserWorkUnit;
+import org.iscalon.demo_batch.out.repository.UserMaxRepository;
+import org.iscalon.demo_batch.util.LongLongHashMap;
+import org.iscalon.demo_batch.writer.ChunkCalculator.ChunkWrite;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class UserMaxCalculatorTest {
+
+  private final UserMaxRepository repository = mock(UserMaxRepository.class);
+  private final UserMaxCalculator calculator = new UserMaxCalculator(repository);
+
+  private final LongLongHashMap amounts = new LongLongHashMap();
+  private final List<UserWorkUnit> users =
+      List.of(
+          new UserWorkUnit("A1", DocumentReferences.of(1L, 2L, 3L)),
+          new UserWorkUnit("A2", DocumentReferences.of(4L)));
+
+  @BeforeEach
+  void setUp() {
+    amounts.put(1L, -500L);
+    amounts.put(2L, -100L);
+    amounts.put(3L, -900L);
+  }
+
+  @Test
+  void should_keep_the_maximum_amount_of_each_user_with_at_least_one_amount() {
+    ChunkWrite write = calculator.calculate(users, amounts);
+
+    verify(repository, never()).batchUpsertMaximums(anyList());
+    write.write(false);
+    // Maximum négatif conservé, utilisateur sans montant ignoré
+    verify(repository).batchUpsertMaximums(List.of(new UserMaxResult("A1", -100L)));
+    verify(repository, never()).deleteUserMaximums(anyList());
+  }
+
+  @Test
+  void should_delete_the_maximums_of_every_user_of_the_chunk_before_replacing_them() {
+    calculator.calculate(users, amounts).write(true);
+
+    // A2 n'a plus de montant : son ancien maximum est supprimé sans être remplacé
+    InOrder order = inOrder(repository);
+    order.verify(repository).deleteUserMaximums(List.of("A1", "A2"));
+    order.verify(repository).batchUpsertMaximums(List.of(new UserMaxResult("A1", -100L)));
+  }
+
+  @Test
+  void should_be_selected_by_its_key() {
+    assertThat(calculator.key()).isEqualTo("MAX");
+  }
+}
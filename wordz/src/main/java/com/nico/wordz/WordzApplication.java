@@ -3,9 +3,11 @@ package com.nico.wordz;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories(considerNestedRepositories = true)
+@EnableScheduling
 public class WordzApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,111 @@
+package com.nico.wordz.database.adapters;
+
+import com.nico.wordz.database.WordEntity;
+import com.nico.wordz.domain.Word;
+import com.nico.wordz.domain.ports.out.WordRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Whole {@code word} table kept in memory, in an array indexed by word number: selecting a random
+ * word for a new game costs no database round trip.
+ *
+ * <p>The table is loaded on startup, then refreshed incrementally, by loading the words numbered
+ * above the highest known one, after each {@link #createWord(String)} and periodically
+ * ({@code wordz.words.refresh-interval}) for the words added by other instances. Words are never
+ * deleted by the application: a deletion made directly in the database is only seen after
+ * {@link #reload()}.
+ */
+@Primary
+@Component
+public class InMemoryWordRepository implements WordRepository {
+
+    private static final Dictionary EMPTY = new Dictionary(new Word[1], 0);
+
+    private final WordRepositoryAdapter words;
+
+    /** Immutable snapshot, replaced as a whole on each refresh */
+    private volatile Dictionary dictionary;
+
+    InMemoryWordRepository(WordRepositoryAdapter words) {
+        this.words = requireNonNull(words);
+    }
+
+    @Override
+    public Optional<Word> findWordByNumber(int number) {
+        Word[] wordsByNumber = dictionary().wordsByNumber();
+        if (number < 0 || number >= wordsByNumber.length) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(wordsByNumber[number]);
+    }
+
+    @Override
+    public int getHighestWordNumber() {
+        return dictionary().highestNumber();
+    }
+
+    @Override
+    public Word createWord(String text) {
+        Word word = words.createWord(text);
+        refresh();
+        return word;
+    }
+
+    private Dictionary dictionary() {
+        Dictionary current = dictionary;
+        if (current == null) {
+            reload();
+            current = dictionary;
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        dictionary = EMPTY.with(words.findWordsAfter(0));
+    }
+
+    @Scheduled(
+            fixedDelayString = "${wordz.words.refresh-interval:PT1M}",
+            initialDelayString = "${wordz.words.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        Dictionary current = dictionary;
+        if (current == null) {
+            reload();
+            return;
+        }
+        List<WordEntity> added = words.findWordsAfter(current.highestNumber());
+        if (!added.isEmpty()) {
+            dictionary = current.with(added);
+        }
+    }
+
+    /**
+     * @param wordsByNumber words at the index of their number, {@code null} for unused numbers
+     */
+    private record Dictionary(Word[] wordsByNumber, int highestNumber) {
+
+        /** A copy extended with {@code added}, sorted by number and all above the highest one. */
+        Dictionary with(List<WordEntity> added) {
+            if (added.isEmpty()) {
+                return this;
+            }
+            int highest = (int) added.getLast().getNumber();
+            Word[] extended = Arrays.copyOf(wordsByNumber, highest + 1);
+            for (WordEntity entity : added) {
+                extended[(int) entity.getNumber()] = entity.toWord();
+            }
+            return new Dictionary(extended, highest);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.nico.wordz.domain.ports.out.WordRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
@@ -43,9 +44,18 @@ class WordRepositoryAdapter implements WordRepository {
         return repository.save(word);
     }
 
+    /**
+     * @return the words numbered above {@code number}, by increasing number
+     */
+    List<WordEntity> findWordsAfter(long number) {
+        return repository.findByNumberGreaterThanOrderByNumberAsc(number);
+    }
+
     interface WordJPARepository extends JpaRepository<WordEntity, Long> {
         Optional<WordEntity> findFirstByNumber(long number);
 
         Optional<WordEntity> findTopByOrderByNumberDesc();
+
+        List<WordEntity> findByNumberGreaterThanOrderByNumberAsc(long number);
     }
 }
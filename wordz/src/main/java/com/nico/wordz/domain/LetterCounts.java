@@ -0,0 +1,98 @@
+package com.nico.wordz.domain;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+
+/**
+ * Upper-cased letters of a word to guess, with the number of occurrences of each distinct letter.
+ * Immutable.
+ */
+final class LetterCounts {
+
+  private final String word;
+
+  /** Distinct letters, in order of first occurrence */
+  private final char[] letters;
+
+  /** Occurrences of each distinct letter, indexed like {@link #letters} */
+  private final int[] counts;
+
+  /** Index in {@link #letters} of the letter at each position of the word */
+  private final int[] letterIndexes;
+
+  LetterCounts(String text) {
+    this.word = upperCase(requireNonNull(text));
+    int length = word.length();
+    char[] distinctLetters = new char[length];
+    int[] letterCounts = new int[length];
+    this.letterIndexes = new int[length];
+    int distinctCount = 0;
+    for (int i = 0; i < length; i++) {
+      char letter = word.charAt(i);
+      int index = indexOf(distinctLetters, distinctCount, letter);
+      if (index < 0) {
+        index = distinctCount++;
+        distinctLetters[index] = letter;
+      }
+      letterCounts[index]++;
+      letterIndexes[i] = index;
+    }
+    this.letters = Arrays.copyOf(distinctLetters, distinctCount);
+    this.counts = Arrays.copyOf(letterCounts, distinctCount);
+  }
+
+  /**
+   * Letter by letter, like the guesses are read: a letter never expands to several (as {@code ß}
+   * does with {@link String#toUpperCase()}) and the default locale plays no part.
+   */
+  static char upperCase(char letter) {
+    return Character.toUpperCase(letter);
+  }
+
+  private static String upperCase(String text) {
+    char[] upperCased = new char[text.length()];
+    for (int i = 0; i < upperCased.length; i++) {
+      upperCased[i] = upperCase(text.charAt(i));
+    }
+    return new String(upperCased);
+  }
+
+  String word() {
+    return word;
+  }
+
+  int length() {
+    return word.length();
+  }
+
+  char letterAt(int position) {
+    return word.charAt(position);
+  }
+
+  int letterIndexAt(int position) {
+    return letterIndexes[position];
+  }
+
+  /**
+   * @return the index of {@code letter} among the distinct letters, or {@code -1} if the word
+   *     does not contain it
+   */
+  int indexOf(char letter) {
+    return indexOf(letters, letters.length, letter);
+  }
+
+  /** A fresh copy, for the caller to consume occurrences from. */
+  int[] counts() {
+    return counts.clone();
+  }
+
+  private static int indexOf(char[] letters, int size, char letter) {
+    for (int i = 0; i < size; i++) {
+      if (letters[i] == letter) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
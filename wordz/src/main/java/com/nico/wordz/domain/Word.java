@@ -1,8 +1,53 @@
 package com.nico.wordz.domain;
 
-public record Word(String text) {
+import java.util.Objects;
+
+/**
+ * A word of the dictionary, compared by its text.
+ *
+ * <p>The letter counts used to score guesses are computed on the first guess and cached: every
+ * further guess against the same instance only scans the guess.
+ */
+public final class Word {
+
+  private final String text;
+
+  /** Lazily computed; immutable, so a concurrent first computation is harmless */
+  private LetterCounts letterCounts;
+
+  public Word(String text) {
+    this.text = text;
+  }
+
+  public String text() {
+    return text;
+  }
 
   WordMatchingScore guess(String wordCandidate) {
-    return new WordMatchingScore(text, wordCandidate);
+    return new WordMatchingScore(letterCounts(), wordCandidate);
+  }
+
+  private LetterCounts letterCounts() {
+    LetterCounts counts = letterCounts;
+    if (counts == null) {
+      counts = new LetterCounts(text);
+      letterCounts = counts;
+    }
+    return counts;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Word word && Objects.equals(text, word.text);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(text);
+  }
+
+  @Override
+  public String toString() {
+    return "Word[text=" + text + "]";
   }
 }
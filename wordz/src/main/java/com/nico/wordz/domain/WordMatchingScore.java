@@ -3,70 +3,110 @@ package com.nico.wordz.domain;
 import static java.util.Objects.requireNonNull;
 
 import com.nico.wordz.domain.exceptions.IllegalWordCandidateSizeException;
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
 import org.apache.commons.lang3.StringUtils;
 
+/**
+ * Score of a guess, computed once, without boxing, from the cached {@link LetterCounts} of the
+ * word to guess.
+ *
+ * <p>A letter at its right position is {@link LetterState#CORRECT}. The other letters of the guess
+ * are {@link LetterState#PARTIALLY_CORRECT} as long as the word to guess has occurrences of them
+ * left, from left to right, then {@link LetterState#INCORRECT}: a letter guessed twice but present
+ * once is only reported once.
+ *
+ * <p>States are kept one byte per letter; {@link #letterStates()} is a read-only view over them,
+ * created on first use.
+ */
 public class WordMatchingScore {
 
+  private static final LetterState[] STATES = LetterState.values();
+  private static final byte CORRECT = (byte) LetterState.CORRECT.ordinal();
+  private static final byte PARTIALLY_CORRECT = (byte) LetterState.PARTIALLY_CORRECT.ordinal();
+  private static final byte INCORRECT = (byte) LetterState.INCORRECT.ordinal();
+
   private final String wordToGuess;
   private final String wordCandidate;
-  private final Set<Character> correctCharacters;
+  private final byte[] states;
+  private final int correctCount;
+
+  private List<LetterState> letterStates;
 
-  WordMatchingScore(String wordToGuess, String wordCandidate) {
-    this.wordToGuess = requireNonNull(wordToGuess).toUpperCase();
-    this.wordCandidate = requireNonNull(wordCandidate).toUpperCase();
+  WordMatchingScore(LetterCounts wordToGuess, String wordCandidate) {
+    this.wordToGuess = wordToGuess.word();
+    this.wordCandidate = requireNonNull(wordCandidate);
     new WordsValidations().assertCanComputeScore();
-    this.correctCharacters = extractCorrectCharacters();
+    this.states = new byte[wordToGuess.length()];
+    this.correctCount = score(wordToGuess);
   }
 
-  private static char codePointToCharacter(int codePoint) {
-    return (char) codePoint;
+  /**
+   * Right positions first, so that they take their occurrences before any misplaced letter does.
+   *
+   * @return the number of letters at their right position
+   */
+  private int score(LetterCounts letters) {
+    int[] remaining = letters.counts();
+    int corrects = 0;
+    for (int i = 0; i < states.length; i++) {
+      if (candidateLetterAt(i) == letters.letterAt(i)) {
+        states[i] = CORRECT;
+        remaining[letters.letterIndexAt(i)]--;
+        corrects++;
+      } else {
+        states[i] = INCORRECT;
+      }
+    }
+    if (corrects == states.length) {
+      return corrects;
+    }
+    for (int i = 0; i < states.length; i++) {
+      if (states[i] == CORRECT) {
+        continue;
+      }
+      int index = letters.indexOf(candidateLetterAt(i));
+      if (index >= 0 && remaining[index] > 0) {
+        remaining[index]--;
+        states[i] = PARTIALLY_CORRECT;
+      }
+    }
+    return corrects;
   }
 
-  private Set<Character> extractCorrectCharacters() {
-    return this.wordToGuess
-            .codePoints()
-            .mapToObj(WordMatchingScore::codePointToCharacter)
-            .collect(Collectors.toSet());
+  private char candidateLetterAt(int index) {
+    return LetterCounts.upperCase(wordCandidate.charAt(index));
   }
 
   public List<LetterState> letterStates() {
-    int wordToGuessLength = this.wordToGuess.length();
-    List<LetterState> candidateLetterStates = new ArrayList<>(wordToGuessLength);
-    for(int i = 0 ; i < wordToGuessLength ; i++) {
-      candidateLetterStates.add(letterStateAt(i));
+    List<LetterState> view = letterStates;
+    if (view == null) {
+      view = new LetterStates();
+      letterStates = view;
     }
-    return candidateLetterStates;
+    return view;
   }
 
   public LetterState letterStateAt(int index) {
-    if (areCandidateAndCorrectLettersMatchingAt(index)) {
-      return LetterState.CORRECT;
-    }
-    if (doesWordToGuessContainCandidateLetterAt(index)) {
-      return LetterState.PARTIALLY_CORRECT;
-    }
-    return LetterState.INCORRECT;
+    return STATES[states[index]];
   }
 
   public boolean allMatching() {
-    return letterStates().stream()
-            .allMatch(state -> state == LetterState.CORRECT);
+    return correctCount == states.length;
   }
 
-  private boolean areCandidateAndCorrectLettersMatchingAt(int index) {
-    char correctLetter = wordToGuess.charAt(index);
-    char candidateLetter = wordCandidate.charAt(index);
-    return Objects.equals(correctLetter, candidateLetter);
-  }
+  private final class LetterStates extends AbstractList<LetterState> implements RandomAccess {
+
+    @Override
+    public LetterState get(int index) {
+      return letterStateAt(index);
+    }
 
-  private boolean doesWordToGuessContainCandidateLetterAt(int index) {
-    char candidateLetter = wordCandidate.charAt(index);
-    return correctCharacters.contains(candidateLetter);
+    @Override
+    public int size() {
+      return states.length;
+    }
   }
 
   /**
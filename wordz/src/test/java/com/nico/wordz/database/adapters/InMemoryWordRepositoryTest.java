@@ -0,0 +1,53 @@
+package com.nico.wordz.database.adapters;
+
+import com.nico.wordz.database.WordEntity;
+import com.nico.wordz.domain.Word;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tooling.JpaTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JpaTest
+class InMemoryWordRepositoryTest {
+
+  @Inject
+  private InMemoryWordRepository repository;
+
+  @Inject
+  private WordRepositoryAdapter adapter;
+
+  @Test
+  @DisplayName("should select created words by number")
+  void test01() {
+    repository.createWord("TOTO");
+    repository.createWord("TATA");
+
+    assertThat(repository.getHighestWordNumber())
+            .isEqualTo(2);
+    assertThat(repository.findWordByNumber(2))
+            .hasValue(new Word("TATA"));
+    assertThat(repository.findWordByNumber(3))
+            .isEmpty();
+  }
+
+  @Test
+  @DisplayName("should see words added by another instance once refreshed")
+  void test02() {
+    adapter.save(new WordEntity(1, "TOTO"));
+    adapter.save(new WordEntity(3, "TUTU"));
+
+    assertThat(repository.getHighestWordNumber())
+            .isZero();
+
+    repository.refresh();
+
+    assertThat(repository.getHighestWordNumber())
+            .isEqualTo(3);
+    assertThat(repository.findWordByNumber(3))
+            .hasValue(new Word("TUTU"));
+    assertThat(repository.findWordByNumber(2))
+            .isEmpty();
+  }
+}
@@ -0,0 +1,122 @@
+package com.nico.wordz.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the scoring of a guess, as done by {@code Game.withAttempt} then the REST adapter
+ * ({@code allMatching()} then {@code letterStates()}), between the previous implementation and
+ * {@link WordMatchingScore}.
+ *
+ * <p>Run {@link #main(String[])} after {@code mvn test-compile}, or {@code java -cp <test
+ * classpath> org.openjdk.jmh.Main WordMatchingScoreBenchmark -prof gc}. The {@code gc} profiler
+ * reports the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WordMatchingScoreBenchmark {
+
+  @Param({"PIZZA:pizla", "TURTLE:rettul", "ABCDEFGHIJKL:lkjihgfedcba"})
+  private String wordAndGuess;
+
+  private String wordToGuess;
+  private String guess;
+  private Word word;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    String[] parts = wordAndGuess.split(":");
+    wordToGuess = parts[0];
+    guess = parts[1];
+    word = new Word(wordToGuess);
+  }
+
+  @Benchmark
+  public void legacy(Blackhole blackhole) {
+    LegacyWordMatchingScore score = new LegacyWordMatchingScore(wordToGuess, guess);
+    blackhole.consume(score.allMatching());
+    blackhole.consume(score.letterStates());
+  }
+
+  @Benchmark
+  public void letterCounts(Blackhole blackhole) {
+    WordMatchingScore score = word.guess(guess);
+    blackhole.consume(score.allMatching());
+    for (LetterState state : score.letterStates()) {
+      blackhole.consume(state);
+    }
+  }
+
+  /** Previous implementation, validations left out. */
+  static class LegacyWordMatchingScore {
+
+    private final String wordToGuess;
+    private final String wordCandidate;
+    private final Set<Character> correctCharacters;
+
+    LegacyWordMatchingScore(String wordToGuess, String wordCandidate) {
+      this.wordToGuess = wordToGuess.toUpperCase();
+      this.wordCandidate = wordCandidate.toUpperCase();
+      this.correctCharacters =
+          this.wordToGuess
+              .codePoints()
+              .mapToObj(codePoint -> (char) codePoint)
+              .collect(Collectors.toSet());
+    }
+
+    List<LetterState> letterStates() {
+      List<LetterState> states = new ArrayList<>(wordToGuess.length());
+      for (int i = 0; i < wordToGuess.length(); i++) {
+        states.add(letterStateAt(i));
+      }
+      return states;
+    }
+
+    LetterState letterStateAt(int index) {
+      if (Objects.equals(wordToGuess.charAt(index), wordCandidate.charAt(index))) {
+        return LetterState.CORRECT;
+      }
+      if (correctCharacters.contains(wordCandidate.charAt(index))) {
+        return LetterState.PARTIALLY_CORRECT;
+      }
+      return LetterState.INCORRECT;
+    }
+
+    boolean allMatching() {
+      return letterStates().stream().allMatch(state -> state == LetterState.CORRECT);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(WordMatchingScoreBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build())
+        .run();
+  }
+}
@@ -136,4 +136,29 @@ class WordTest {
     assertThat(candidateLetterStates)
         .containsExactly(PARTIALLY_CORRECT, CORRECT, PARTIALLY_CORRECT, INCORRECT);
   }
+
+  @Test
+  @DisplayName("a letter guessed more often than it occurs is only reported once")
+  void test14() {
+    Word word = new Word("ROBOT");
+
+    WordMatchingScore wordMatchingScore = word.guess("OOOZZ");
+
+    List<LetterState> candidateLetterStates = wordMatchingScore.letterStates();
+    assertThat(candidateLetterStates)
+        .containsExactly(PARTIALLY_CORRECT, CORRECT, INCORRECT, INCORRECT, INCORRECT);
+  }
+
+  @Test
+  @DisplayName("a correct letter takes its occurrence before a misplaced one")
+  void test15() {
+    Word word = new Word("ABCDE");
+
+    WordMatchingScore wordMatchingScore = word.guess("EEEEE");
+
+    List<LetterState> candidateLetterStates = wordMatchingScore.letterStates();
+    assertThat(candidateLetterStates)
+        .containsExactly(INCORRECT, INCORRECT, INCORRECT, INCORRECT, CORRECT);
+    assertThat(wordMatchingScore.allMatching()).isFalse();
+  }
 }
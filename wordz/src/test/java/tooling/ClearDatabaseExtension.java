@@ -1,6 +1,8 @@
 package tooling;
 
+import com.nico.wordz.database.adapters.InMemoryWordRepository;
 import org.flywaydb.core.Flyway;
+import org.springframework.context.ApplicationContext;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.springframework.context.annotation.Profile;
@@ -10,9 +12,12 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 public class ClearDatabaseExtension implements BeforeEachCallback {
 
     @Override public void beforeEach(ExtensionContext extensionContext) {
-        Flyway flyway = SpringExtension.getApplicationContext(extensionContext)
-                .getBean(Flyway.class);
+        ApplicationContext context = SpringExtension.getApplicationContext(extensionContext);
+        Flyway flyway = context.getBean(Flyway.class);
         flyway.clean();
         flyway.migrate();
+        // The dictionary kept in memory does not see the words deleted by the clean
+        context.getBeanProvider(InMemoryWordRepository.class)
+                .ifAvailable(InMemoryWordRepository::reload);
     }
 }